@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+
+import retrofit2.Response;
+
+/**
+ * <p>
+ *     Unchecked exception thrown by the higher level helpers of the client (paging, bulk fetching, etc.) when a
+ *     call to the Desk API fails, either because the request could not be executed or because the API returned
+ *     an unsuccessful response.
+ * </p>
+ */
+public class DeskApiException extends RuntimeException {
+
+    private static final long serialVersionUID = -2637452210498342118L;
+
+    /**
+     * Code used when no HTTP response was received
+     */
+    public static final int NO_RESPONSE = -1;
+
+    private final int code;
+
+    public DeskApiException(String message, int code) {
+        super(message);
+        this.code = code;
+    }
+
+    public DeskApiException(String message, Throwable cause) {
+        super(message, cause);
+        this.code = NO_RESPONSE;
+    }
+
+    /**
+     * Creates an exception for an unsuccessful response
+     *
+     * @param response the unsuccessful response
+     * @return the exception
+     */
+    public static DeskApiException fromResponse(Response<?> response) {
+        return new DeskApiException("Request failed with " + response.code() + " " + response.message(),
+                response.code());
+    }
+
+    /**
+     * Creates an exception for a request that could not be executed
+     *
+     * @param e the cause
+     * @return the exception
+     */
+    public static DeskApiException fromIOException(IOException e) {
+        return new DeskApiException("Request failed: " + e.getMessage(), e);
+    }
+
+    /**
+     * Gets the HTTP status code of the failed response
+     *
+     * @return the HTTP status code or {@link #NO_RESPONSE} if no response was received
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Gets the underlying {@link IOException} if the request could not be executed
+     *
+     * @return the cause or null
+     */
+    @Nullable
+    public IOException getIOException() {
+        return getCause() instanceof IOException ? (IOException) getCause() : null;
+    }
+}
@@ -27,8 +27,12 @@
 package com.desk.java.apiclient;
 
 import com.desk.java.apiclient.DeskClientBuilder.AuthType;
+import com.desk.java.apiclient.model.ApiResponse;
+import com.desk.java.apiclient.model.Case;
 import com.desk.java.apiclient.model.CaseLock;
-import com.desk.java.apiclient.model.IOpportunityActivity;
+import com.desk.java.apiclient.model.Customer;
+import com.desk.java.apiclient.model.Fields;
+import com.desk.java.apiclient.model.Message;
 import com.desk.java.apiclient.service.ArticleService;
 import com.desk.java.apiclient.service.CaseService;
 import com.desk.java.apiclient.service.CompanyService;
@@ -50,10 +54,27 @@ import com.desk.java.apiclient.service.TwitterAccountService;
 import com.desk.java.apiclient.service.TwitterUserService;
 import com.desk.java.apiclient.service.UserService;
 import com.desk.java.apiclient.util.ApiTokenSigningInterceptor;
+import com.desk.java.apiclient.util.BulkCaseUpdater;
+import com.desk.java.apiclient.util.BulkPageFetcher;
+import com.desk.java.apiclient.util.CacheStats;
+import com.desk.java.apiclient.util.ConditionalCacheInterceptor;
+import com.desk.java.apiclient.util.ConditionalRequestCache;
 import com.desk.java.apiclient.util.DeskClientUtils;
 import com.desk.java.apiclient.util.ISO8601DateAdapter;
 import com.desk.java.apiclient.util.OAuthSigningInterceptor;
-import com.desk.java.apiclient.util.OpportunityActivityAdapter;
+import com.desk.java.apiclient.util.OpportunityActivityAdapterFactory;
+import com.desk.java.apiclient.util.PageRequest;
+import com.desk.java.apiclient.util.Pager;
+import com.desk.java.apiclient.util.EntityCache;
+import com.desk.java.apiclient.util.LinkResolver;
+import com.desk.java.apiclient.util.LinkTypeAdapterFactory;
+import com.desk.java.apiclient.util.ProjectionInterceptor;
+import com.desk.java.apiclient.util.RateLimitCallAdapterFactory;
+import com.desk.java.apiclient.util.RateLimitInterceptor;
+import com.desk.java.apiclient.util.ReferenceData;
+import com.desk.java.apiclient.util.RetryInterceptor;
+import com.desk.java.apiclient.util.SingleFlightCallAdapterFactory;
+import com.desk.java.apiclient.util.StreamingPage;
 import com.desk.java.apiclient.util.RetrofitHttpOAuthConsumer;
 import com.desk.java.apiclient.util.StringUtils;
 import com.desk.java.apiclient.util.UserAgentInterceptor;
@@ -62,17 +83,33 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import oauth.signpost.exception.OAuthCommunicationException;
 import oauth.signpost.exception.OAuthExpectationFailedException;
 import oauth.signpost.exception.OAuthMessageSignerException;
 import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import retrofit2.Call;
 import retrofit2.CallAdapter;
 import retrofit2.converter.gson.GsonConverterFactory;
 import retrofit2.Retrofit;
@@ -101,29 +138,47 @@ public class DeskClient {
     private final List<Interceptor> applicationInterceptors;
     private final List<Interceptor> networkInterceptors;
     private final AuthType authType;
-
-    private Retrofit restAdapter;
-    private RetrofitHttpOAuthConsumer oAuthConsumer;
-    private UserService userService;
-    private SiteService siteService;
-    private LabelService labelService;
-    private CustomFieldsService customFieldsService;
-    private GroupService groupService;
-    private MacroService macroService;
-    private OutboundMailboxService outboundMailboxService;
-    private FilterService filterService;
-    private CaseService caseService;
-    private CompanyService companyService;
-    private CustomerService customerService;
-    private PermissionService permissionService;
-    private TwitterUserService twitterUserService;
-    private TopicService topicService;
-    private ArticleService articleService;
-    private InboundMailboxService inboundMailboxService;
-    private OpportunityStageService opportunityStageService;
-    private OpportunityService opportunityService;
-    private TwitterAccountService twitterAccountService;
-    private JobService jobService;
+    private final ConnectionPool connectionPool;
+    private final int maxIdleConnections;
+    private final long keepAliveDurationMillis;
+    private final Dispatcher dispatcher;
+    private final int maxRequests;
+    private final int maxRequestsPerHost;
+    private final long connectTimeoutMillis;
+    private final long readTimeoutMillis;
+    private final long writeTimeoutMillis;
+    private final List<Protocol> protocols;
+    private final DeskClientFactory sharedTransport;
+    private final RateLimitInterceptor rateLimiter;
+    private final RetryInterceptor retrier;
+    private final EntityCache entityCache;
+    private final ConditionalRequestCache conditionalRequestCache;
+    private final ConditionalCacheInterceptor conditionalCache;
+    private final Map<String, Fields> defaultFields;
+
+    private final Gson gson;
+    private final Retrofit restAdapter;
+    private final RetrofitHttpOAuthConsumer oAuthConsumer;
+    private final UserService userService;
+    private final SiteService siteService;
+    private final LabelService labelService;
+    private final CustomFieldsService customFieldsService;
+    private final GroupService groupService;
+    private final MacroService macroService;
+    private final OutboundMailboxService outboundMailboxService;
+    private final FilterService filterService;
+    private final CaseService caseService;
+    private final CompanyService companyService;
+    private final CustomerService customerService;
+    private final PermissionService permissionService;
+    private final TwitterUserService twitterUserService;
+    private final TopicService topicService;
+    private final ArticleService articleService;
+    private final InboundMailboxService inboundMailboxService;
+    private final OpportunityStageService opportunityStageService;
+    private final OpportunityService opportunityService;
+    private final TwitterAccountService twitterAccountService;
+    private final JobService jobService;
 
     /**
      * Creates a {@link DeskClient} using the provided {@link DeskClientBuilder}.
@@ -147,11 +202,43 @@ public class DeskClient {
         this.accessTokenSecret = builder.accessTokenSecret;
         this.userAgent = builder.userAgent;
         this.responseCache = builder.responseCache;
+        this.conditionalCache = responseCache != null ? new ConditionalCacheInterceptor() : null;
         this.applicationInterceptors = builder.applicationInterceptors;
         this.networkInterceptors = builder.networkInterceptors;
+        this.connectionPool = builder.connectionPool;
+        this.maxIdleConnections = builder.maxIdleConnections;
+        this.keepAliveDurationMillis = builder.keepAliveDurationMillis;
+        this.dispatcher = builder.dispatcher;
+        this.maxRequests = builder.maxRequests;
+        this.maxRequestsPerHost = builder.maxRequestsPerHost;
+        this.connectTimeoutMillis = builder.connectTimeoutMillis;
+        this.readTimeoutMillis = builder.readTimeoutMillis;
+        this.writeTimeoutMillis = builder.writeTimeoutMillis;
+        this.protocols = builder.protocols;
+        this.sharedTransport = builder.sharedTransport;
+        this.rateLimiter = builder.rateLimiter;
+        this.retrier = builder.retrier;
+        this.entityCache = builder.entityCache;
+        this.conditionalRequestCache = builder.conditionalRequestCache;
+        this.defaultFields = builder.defaultFields;
         this.oAuthConsumer = createOAuthConsumer();
 
+        this.gson = sharedTransport != null ? sharedTransport.getGson() : createGson();
+
         Retrofit.Builder retrofitBuilder = createRestAdapter();
+        if (entityCache != null) {
+            retrofitBuilder.addCallAdapterFactory(entityCache);
+        }
+        if (conditionalRequestCache != null) {
+            retrofitBuilder.addCallAdapterFactory(conditionalRequestCache);
+        }
+        if (builder.coalesceRequests) {
+            retrofitBuilder.addCallAdapterFactory(new SingleFlightCallAdapterFactory());
+        }
+        // after coalescing so only the call going to the network reserves a permit
+        if (rateLimiter != null) {
+            retrofitBuilder.addCallAdapterFactory(new RateLimitCallAdapterFactory(rateLimiter));
+        }
         if (builder.callAdapters != null && !builder.callAdapters.isEmpty()) {
             for (CallAdapter.Factory callAdapter : builder.callAdapters) {
                 retrofitBuilder.addCallAdapterFactory(callAdapter);
@@ -159,6 +246,28 @@ public class DeskClient {
         }
 
         this.restAdapter = retrofitBuilder.build();
+
+        // create every service up front so the accessors are plain reads of final fields
+        this.userService = restAdapter.create(UserService.class);
+        this.siteService = restAdapter.create(SiteService.class);
+        this.labelService = restAdapter.create(LabelService.class);
+        this.customFieldsService = restAdapter.create(CustomFieldsService.class);
+        this.groupService = restAdapter.create(GroupService.class);
+        this.macroService = restAdapter.create(MacroService.class);
+        this.outboundMailboxService = restAdapter.create(OutboundMailboxService.class);
+        this.filterService = restAdapter.create(FilterService.class);
+        this.caseService = restAdapter.create(CaseService.class);
+        this.companyService = restAdapter.create(CompanyService.class);
+        this.customerService = restAdapter.create(CustomerService.class);
+        this.permissionService = restAdapter.create(PermissionService.class);
+        this.twitterUserService = restAdapter.create(TwitterUserService.class);
+        this.topicService = restAdapter.create(TopicService.class);
+        this.articleService = restAdapter.create(ArticleService.class);
+        this.inboundMailboxService = restAdapter.create(InboundMailboxService.class);
+        this.opportunityStageService = restAdapter.create(OpportunityStageService.class);
+        this.opportunityService = restAdapter.create(OpportunityService.class);
+        this.twitterAccountService = restAdapter.create(TwitterAccountService.class);
+        this.jobService = restAdapter.create(JobService.class);
     }
 
     /**
@@ -210,6 +319,148 @@ public class DeskClient {
         }
     }
 
+    /**
+     * Creates a {@link Pager} which lazily walks every page of a paginated endpoint
+     *
+     * @param request creates the call for each page
+     * @param <T> the type of the entries
+     * @return the pager
+     */
+    @NotNull
+    public <T extends Serializable> Pager<T> paginate(@NotNull PageRequest<T> request) {
+        return new Pager<>(request);
+    }
+
+    /**
+     * Creates a {@link Pager} which lazily walks every page of a paginated endpoint, prefetching the next page
+     * on the provided executor while the current page is consumed
+     *
+     * @param request creates the call for each page
+     * @param prefetchExecutor the executor to prefetch pages on
+     * @param <T> the type of the entries
+     * @return the pager
+     */
+    @NotNull
+    public <T extends Serializable> Pager<T> paginate(@NotNull PageRequest<T> request, @NotNull Executor prefetchExecutor) {
+        return new Pager<>(request, prefetchExecutor);
+    }
+
+    /**
+     * Creates a {@link BulkPageFetcher} which fetches every page of a paginated endpoint concurrently on the
+     * provided executor
+     *
+     * @param request creates the call for each page
+     * @param executor the executor to fetch pages on
+     * @param <T> the type of the entries
+     * @return the fetcher
+     */
+    @NotNull
+    public <T extends Serializable> BulkPageFetcher<T> bulkFetch(@NotNull PageRequest<T> request, @NotNull Executor executor) {
+        return new BulkPageFetcher<>(request, executor);
+    }
+
+    /**
+     * Sends the request of a list call and reads its entries one at a time as the response body arrives, so only
+     * one entry is held in memory at a time. The call itself isn't executed.
+     *
+     * @param call the call for the page (ex: {@code cases().getCases(100, 1)})
+     * @param entryType the type of the entries
+     * @param <T> the type of the entries
+     * @return the page, which must be iterated to the end or closed
+     * @throws DeskApiException if the request fails or returns an unsuccessful response
+     */
+    @NotNull
+    public <T extends Serializable> StreamingPage<T> streamPage(@NotNull Call<ApiResponse<T>> call,
+                                                                @NotNull Class<T> entryType) {
+        return StreamingPage.open(restAdapter.callFactory(), gson, call, entryType);
+    }
+
+    /**
+     * Creates the {@link ReferenceData} of this client. Call {@link ReferenceData#refresh()} to load it and keep
+     * the instance around for lookups.
+     *
+     * @param executor the executor the reference data lists are loaded on in parallel
+     * @return the reference data
+     */
+    @NotNull
+    public ReferenceData referenceData(@NotNull Executor executor) {
+        return new ReferenceData(this, executor);
+    }
+
+    /**
+     * Creates a {@link LinkResolver} which resolves links to users, groups and customers in batches, using the
+     * entity cache of this client when there is one
+     *
+     * @param executor the executor entities are fetched on concurrently
+     * @return the link resolver
+     */
+    @NotNull
+    public LinkResolver linkResolver(@NotNull Executor executor) {
+        return new LinkResolver(this, executor);
+    }
+
+    /**
+     * Creates a {@link BulkCaseUpdater} which updates cases in chunks with bulk case update jobs
+     *
+     * @param scheduler the executor jobs are created and polled on
+     * @return the bulk case updater
+     */
+    @NotNull
+    public BulkCaseUpdater bulkCaseUpdater(@NotNull ScheduledExecutorService scheduler) {
+        return new BulkCaseUpdater(this, scheduler);
+    }
+
+    /**
+     * Eagerly creates every service and resolves every service method, which builds the Retrofit service methods
+     * and the Gson adapters of every request and response type, so the first requests don't pay for it. Nothing is
+     * sent: each method is invoked with default arguments and the returned call is discarded. The service methods
+     * are held by this client, clients of a {@link DeskClientFactory} only share the Gson adapters.
+     *
+     * @return how long the warm up took in milliseconds
+     * @throws IllegalStateException if a service method can't be resolved
+     */
+    public long warmUp() {
+        long start = System.nanoTime();
+        for (Object service : services()) {
+            for (Class<?> serviceInterface : service.getClass().getInterfaces()) {
+                for (Method method : serviceInterface.getMethods()) {
+                    warmUp(service, method);
+                }
+            }
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    /**
+     * Gets every service of this client, used by {@link #warmUp()}
+     *
+     * @return the services
+     */
+    @NotNull
+    protected List<Object> services() {
+        return new ArrayList<Object>(Arrays.asList(users(), sites(), labels(), customFields(), groups(), macros(),
+                outboundMailboxes(), filters(), cases(), companies(), customers(), permissions(), twitterUsers(),
+                topics(), articles(), inboundMailboxes(), opportunityStages(), opportunities(), twitterAccounts(),
+                jobs()));
+    }
+
+    private static void warmUp(Object service, Method method) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        Object[] args = new Object[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (parameterTypes[i].isPrimitive()) {
+                // the default value of the primitive type
+                args[i] = Array.get(Array.newInstance(parameterTypes[i], 1), 0);
+            }
+        }
+        try {
+            method.invoke(service, args);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            Throwable cause = e instanceof InvocationTargetException ? e.getCause() : e;
+            throw new IllegalStateException("Unable to warm up " + method, cause);
+        }
+    }
+
     /**
      * Get the Desk User service
      *
@@ -217,9 +468,6 @@ public class DeskClient {
      */
     @NotNull
     public UserService users() {
-        if (userService == null) {
-            userService = restAdapter.create(UserService.class);
-        }
         return userService;
     }
 
@@ -230,9 +478,6 @@ public class DeskClient {
      */
     @NotNull
     public SiteService sites() {
-        if (siteService == null) {
-            siteService = restAdapter.create(SiteService.class);
-        }
         return siteService;
     }
 
@@ -243,9 +488,6 @@ public class DeskClient {
      */
     @NotNull
     public LabelService labels() {
-        if (labelService == null) {
-            labelService = restAdapter.create(LabelService.class);
-        }
         return labelService;
     }
 
@@ -256,9 +498,6 @@ public class DeskClient {
      */
     @NotNull
     public CustomFieldsService customFields() {
-        if (customFieldsService == null) {
-            customFieldsService = restAdapter.create(CustomFieldsService.class);
-        }
         return customFieldsService;
     }
 
@@ -269,9 +508,6 @@ public class DeskClient {
      */
     @NotNull
     public GroupService groups() {
-        if (groupService == null) {
-            groupService = restAdapter.create(GroupService.class);
-        }
         return groupService;
     }
 
@@ -282,9 +518,6 @@ public class DeskClient {
      */
     @NotNull
     public MacroService macros() {
-        if (macroService == null) {
-            macroService = restAdapter.create(MacroService.class);
-        }
         return macroService;
     }
 
@@ -295,9 +528,6 @@ public class DeskClient {
      */
     @NotNull
     public OutboundMailboxService outboundMailboxes() {
-        if (outboundMailboxService == null) {
-            outboundMailboxService = restAdapter.create(OutboundMailboxService.class);
-        }
         return outboundMailboxService;
     }
 
@@ -308,9 +538,6 @@ public class DeskClient {
      */
     @NotNull
     public FilterService filters() {
-        if (filterService == null) {
-            filterService = restAdapter.create(FilterService.class);
-        }
         return filterService;
     }
 
@@ -321,9 +548,6 @@ public class DeskClient {
      */
     @NotNull
     public CaseService cases() {
-        if (caseService == null) {
-            caseService = restAdapter.create(CaseService.class);
-        }
         return caseService;
     }
 
@@ -334,9 +558,6 @@ public class DeskClient {
      */
     @NotNull
     public CompanyService companies() {
-        if (companyService == null) {
-            companyService = restAdapter.create(CompanyService.class);
-        }
         return companyService;
     }
 
@@ -347,9 +568,6 @@ public class DeskClient {
      */
     @NotNull
     public CustomerService customers() {
-        if (customerService == null) {
-            customerService = restAdapter.create(CustomerService.class);
-        }
         return customerService;
     }
 
@@ -360,9 +578,6 @@ public class DeskClient {
      */
     @NotNull
     public PermissionService permissions() {
-        if (permissionService == null) {
-            permissionService = restAdapter.create(PermissionService.class);
-        }
         return permissionService;
     }
 
@@ -373,9 +588,6 @@ public class DeskClient {
      */
     @NotNull
     public TwitterUserService twitterUsers() {
-        if (twitterUserService == null) {
-            twitterUserService = restAdapter.create(TwitterUserService.class);
-        }
         return twitterUserService;
     }
 
@@ -386,9 +598,6 @@ public class DeskClient {
      */
     @NotNull
     public TopicService topics() {
-        if (topicService == null) {
-            topicService = restAdapter.create(TopicService.class);
-        }
         return topicService;
     }
 
@@ -399,9 +608,6 @@ public class DeskClient {
      */
     @NotNull
     public ArticleService articles() {
-        if (articleService == null) {
-            articleService = restAdapter.create(ArticleService.class);
-        }
         return articleService;
     }
 
@@ -412,9 +618,6 @@ public class DeskClient {
      */
     @NotNull
     public InboundMailboxService inboundMailboxes() {
-        if (inboundMailboxService == null) {
-            inboundMailboxService = restAdapter.create(InboundMailboxService.class);
-        }
         return inboundMailboxService;
     }
 
@@ -425,9 +628,6 @@ public class DeskClient {
      */
     @NotNull
     public OpportunityStageService opportunityStages() {
-        if (opportunityStageService == null) {
-            opportunityStageService = restAdapter.create(OpportunityStageService.class);
-        }
         return opportunityStageService;
     }
 
@@ -438,9 +638,6 @@ public class DeskClient {
      */
     @NotNull
     public OpportunityService opportunities() {
-        if (opportunityService == null) {
-            opportunityService = restAdapter.create(OpportunityService.class);
-        }
         return opportunityService;
     }
 
@@ -451,9 +648,6 @@ public class DeskClient {
      */
     @NotNull
     public TwitterAccountService twitterAccounts() {
-        if (twitterAccountService == null) {
-            twitterAccountService = restAdapter.create(TwitterAccountService.class);
-        }
         return twitterAccountService;
     }
 
@@ -464,63 +658,139 @@ public class DeskClient {
    */
   @NotNull
     public JobService jobs() {
-        if (jobService == null) {
-            jobService = restAdapter.create(JobService.class);
-        }
         return jobService;
     }
 
+    /**
+     * Get the {@link Gson} used to read and write entities
+     *
+     * @return the gson instance
+     */
+    @NotNull
+    public Gson getGson() {
+        return gson;
+    }
+
+    /**
+     * Get the entity cache
+     *
+     * @return the entity cache or null if the client doesn't cache entities
+     */
+    @Nullable
+    public EntityCache getEntityCache() {
+        return entityCache;
+    }
+
+    /**
+     * Get the conditional request cache
+     *
+     * @return the conditional request cache or null if the client doesn't make conditional requests
+     */
+    @Nullable
+    public ConditionalRequestCache getConditionalRequestCache() {
+        return conditionalRequestCache;
+    }
+
+    /**
+     * Get the response cache counters
+     *
+     * @return the counters or null if the client doesn't have a response cache
+     */
+    @Nullable
+    public CacheStats getCacheStats() {
+        return responseCache != null ? CacheStats.of(responseCache, conditionalCache) : null;
+    }
+
     protected Retrofit getRestAdapter() {
         return restAdapter;
     }
 
     private Retrofit.Builder createRestAdapter() {
+        GsonConverterFactory converterFactory = sharedTransport != null
+                ? sharedTransport.getConverterFactory()
+                : GsonConverterFactory.create(gson);
         return new Retrofit.Builder()
                 .baseUrl(getUrl(API_BASE_PATH))
                 .client(createOkHttpClient())
-                .addConverterFactory(GsonConverterFactory.create(createGson()));
+                .addConverterFactory(converterFactory);
     }
 
-    private Gson createGson() {
+    static Gson createGson() {
         return new GsonBuilder()
                 .registerTypeAdapter(Date.class, ISO8601DateAdapter.TYPE_ADAPTER)
                 .registerTypeAdapter(CaseLock.class, CaseLock.TYPE_ADAPTER)
-                .registerTypeAdapter(IOpportunityActivity.class, new OpportunityActivityAdapter())
+                .registerTypeAdapterFactory(new OpportunityActivityAdapterFactory())
+                .registerTypeAdapterFactory(new LinkTypeAdapterFactory())
+                .registerTypeAdapterFactory(ApiResponse.TYPE_ADAPTER_FACTORY)
+                .registerTypeAdapterFactory(Case.TYPE_ADAPTER_FACTORY)
+                .registerTypeAdapterFactory(Customer.TYPE_ADAPTER_FACTORY)
+                .registerTypeAdapterFactory(Message.TYPE_ADAPTER_FACTORY)
                 .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
                 .create();
     }
 
     private OkHttpClient createOkHttpClient() {
-        OkHttpClient.Builder builder = new OkHttpClient.Builder();
+        // tenants of a shared transport derive their client from it, sharing its pool, dispatcher and cache
+        OkHttpClient.Builder builder = sharedTransport != null
+                ? sharedTransport.getTransport().newBuilder()
+                : new OkHttpClient.Builder();
 
         // if we have response cache let's use it!
         if (responseCache != null) {
             builder.cache(responseCache);
         }
 
-        // add auth interceptors
+        configureTransport(builder);
+
+        // add validators before the retrier so every attempt is conditional
+        if (conditionalRequestCache != null) {
+            builder.interceptors().add(conditionalRequestCache.interceptor());
+        }
+
+        // retry so every attempt is signed again and throttled again
+        if (retrier != null) {
+            builder.interceptors().add(retrier);
+        }
+
+        // add default fields before signing so they are part of the OAuth signature. The interceptor is always
+        // added as it also removes the empty fields parameter of Fields.all()
+        builder.interceptors().add(new ProjectionInterceptor(
+                defaultFields != null ? defaultFields : Collections.<String, Fields>emptyMap()));
+
+        // add user agent interceptor if we have a user agent defined
+        if (!StringUtils.isEmpty(userAgent)) {
+            builder.interceptors().add(new UserAgentInterceptor(userAgent));
+        }
+
+        // add all other application interceptors
+        if (applicationInterceptors != null && !applicationInterceptors.isEmpty()) {
+            builder.interceptors().addAll(applicationInterceptors);
+        }
+
+        // throttle at the network level so responses served from the cache don't consume permits
+        if (rateLimiter != null) {
+            builder.networkInterceptors().add(rateLimiter);
+        }
+
+        // sign at the network level so the per request nonce and timestamp never reach the response cache and
+        // conditional requests made by the cache are signed as well
         switch (authType) {
             case OAUTH:
                 if (oAuthConsumer == null) {
                     throw new IllegalStateException("a RetrofitHttpOAuthConsumer must be created before creating OKClient");
                 }
-                builder.interceptors().add(new OAuthSigningInterceptor(oAuthConsumer));
+                builder.networkInterceptors().add(new OAuthSigningInterceptor(oAuthConsumer));
                 break;
             case API_TOKEN:
-                builder.interceptors().add(new ApiTokenSigningInterceptor(apiToken));
+                builder.networkInterceptors().add(new ApiTokenSigningInterceptor(apiToken));
                 break;
             default:
                 throw new IllegalStateException("AuthType " + authType + " isn't supported.");
         }
 
-        // add user agent interceptor if we have a user agent defined
-        if (!StringUtils.isEmpty(userAgent)) {
-            builder.interceptors().add(new UserAgentInterceptor(userAgent));
-        }
-
-        // add all other application interceptors
-        if (applicationInterceptors != null && !applicationInterceptors.isEmpty()) {
-            builder.interceptors().addAll(applicationInterceptors);
+        // revalidate cached entities with conditional requests
+        if (conditionalCache != null) {
+            builder.networkInterceptors().add(conditionalCache);
         }
 
         // add all other network interceptors
@@ -531,6 +801,50 @@ public class DeskClient {
         return builder.build();
     }
 
+    private void configureTransport(OkHttpClient.Builder builder) {
+        // a tenant of a shared transport must not create its own pools
+        if (sharedTransport != null) {
+            if (dispatcher == null && (maxRequests > 0 || maxRequestsPerHost > 0)) {
+                throw new IllegalArgumentException("maxRequests and maxRequestsPerHost require a dispatcher with "
+                        + "a shared transport, set them on the shared dispatcher instead");
+            }
+            if (connectionPool == null && maxIdleConnections >= 0) {
+                throw new IllegalArgumentException("a connection pool can't be created with a shared transport, "
+                        + "configure the shared connection pool instead");
+            }
+        }
+
+        if (connectionPool != null) {
+            builder.connectionPool(connectionPool);
+        } else if (maxIdleConnections >= 0) {
+            builder.connectionPool(new ConnectionPool(maxIdleConnections, keepAliveDurationMillis, TimeUnit.MILLISECONDS));
+        }
+
+        if (dispatcher != null || maxRequests > 0 || maxRequestsPerHost > 0) {
+            Dispatcher clientDispatcher = dispatcher != null ? dispatcher : new Dispatcher();
+            if (maxRequests > 0) {
+                clientDispatcher.setMaxRequests(maxRequests);
+            }
+            if (maxRequestsPerHost > 0) {
+                clientDispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+            }
+            builder.dispatcher(clientDispatcher);
+        }
+
+        if (connectTimeoutMillis >= 0) {
+            builder.connectTimeout(connectTimeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        if (readTimeoutMillis >= 0) {
+            builder.readTimeout(readTimeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        if (writeTimeoutMillis >= 0) {
+            builder.writeTimeout(writeTimeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        if (protocols != null && !protocols.isEmpty()) {
+            builder.protocols(protocols);
+        }
+    }
+
     private RetrofitHttpOAuthConsumer createOAuthConsumer() {
         if (OAUTH == authType) {
             RetrofitHttpOAuthConsumer consumer = new RetrofitHttpOAuthConsumer(consumerKey, consumerSecret);
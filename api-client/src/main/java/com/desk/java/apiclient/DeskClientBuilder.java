@@ -1,12 +1,25 @@
 package com.desk.java.apiclient;
 
+import com.desk.java.apiclient.model.Fields;
+import com.desk.java.apiclient.util.ConditionalRequestCache;
+import com.desk.java.apiclient.util.EntityCache;
+import com.desk.java.apiclient.util.Projection;
+import com.desk.java.apiclient.util.RateLimitInterceptor;
+import com.desk.java.apiclient.util.RetryInterceptor;
+
 import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import retrofit2.CallAdapter;
 import retrofit2.Retrofit;
@@ -47,6 +60,23 @@ public class DeskClientBuilder {
     String userAgent;
     AuthType authType;
     List<CallAdapter.Factory> callAdapters;
+    ConnectionPool connectionPool;
+    int maxIdleConnections = -1;
+    long keepAliveDurationMillis = -1;
+    Dispatcher dispatcher;
+    int maxRequests = -1;
+    int maxRequestsPerHost = -1;
+    long connectTimeoutMillis = -1;
+    long readTimeoutMillis = -1;
+    long writeTimeoutMillis = -1;
+    List<Protocol> protocols;
+    DeskClientFactory sharedTransport;
+    RateLimitInterceptor rateLimiter;
+    RetryInterceptor retrier;
+    boolean coalesceRequests;
+    EntityCache entityCache;
+    ConditionalRequestCache conditionalRequestCache;
+    Map<String, Fields> defaultFields;
 
     /**
      * Creates a builder to create a desk client that uses api token authentication
@@ -77,6 +107,42 @@ public class DeskClientBuilder {
         this.authType = OAUTH;
     }
 
+    /**
+     * Creates a copy of a builder so it can be changed without affecting the original
+     * @param other the builder to copy
+     */
+    DeskClientBuilder(DeskClientBuilder other) {
+        this.responseCache = other.responseCache;
+        this.applicationInterceptors = other.applicationInterceptors;
+        this.networkInterceptors = other.networkInterceptors;
+        this.hostname = other.hostname;
+        this.apiToken = other.apiToken;
+        this.consumerKey = other.consumerKey;
+        this.consumerSecret = other.consumerSecret;
+        this.accessToken = other.accessToken;
+        this.accessTokenSecret = other.accessTokenSecret;
+        this.userAgent = other.userAgent;
+        this.authType = other.authType;
+        this.callAdapters = other.callAdapters;
+        this.connectionPool = other.connectionPool;
+        this.maxIdleConnections = other.maxIdleConnections;
+        this.keepAliveDurationMillis = other.keepAliveDurationMillis;
+        this.dispatcher = other.dispatcher;
+        this.maxRequests = other.maxRequests;
+        this.maxRequestsPerHost = other.maxRequestsPerHost;
+        this.connectTimeoutMillis = other.connectTimeoutMillis;
+        this.readTimeoutMillis = other.readTimeoutMillis;
+        this.writeTimeoutMillis = other.writeTimeoutMillis;
+        this.protocols = other.protocols;
+        this.sharedTransport = other.sharedTransport;
+        this.rateLimiter = other.rateLimiter;
+        this.retrier = other.retrier;
+        this.coalesceRequests = other.coalesceRequests;
+        this.entityCache = other.entityCache;
+        this.conditionalRequestCache = other.conditionalRequestCache;
+        this.defaultFields = other.defaultFields != null ? new HashMap<>(other.defaultFields) : null;
+    }
+
     /**
      * Sets the user agent header
      * @param userAgent the user agent
@@ -108,7 +174,8 @@ public class DeskClientBuilder {
     }
 
     /**
-     * Sets the response cache for HTTP responses for the {@link OkHttpClient} backed by the client
+     * Sets the response cache for HTTP responses for the {@link OkHttpClient} backed by the client. Single entity
+     * GETs are revalidated with conditional requests, see {@code DeskClient.getCacheStats()}
      * @param responseCache the response cache
      * @return the builder instance
      */
@@ -126,4 +193,250 @@ public class DeskClientBuilder {
         this.callAdapters = callAdapters;
         return this;
     }
+
+    /**
+     * Sets the connection pool used by the {@link OkHttpClient} backed by the client. Passing the same pool to
+     * several builders shares its connections between the clients.
+     * @param connectionPool the connection pool
+     * @return the builder instance
+     */
+    public DeskClientBuilder connectionPool(ConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
+        return this;
+    }
+
+    /**
+     * Sets the size and keep alive of the connection pool created for the client. Ignored when a pool is
+     * provided through {@link #connectionPool(ConnectionPool)}. Not allowed with a
+     * {@link #sharedTransport(DeskClientFactory)}, which keeps its own pool.
+     * @param maxIdleConnections the maximum number of idle connections kept in the pool
+     * @param keepAliveDuration how long idle connections are kept in the pool
+     * @param unit the unit of the keep alive duration
+     * @return the builder instance
+     */
+    public DeskClientBuilder connectionPool(int maxIdleConnections, long keepAliveDuration, TimeUnit unit) {
+        if (maxIdleConnections < 0) {
+            throw new IllegalArgumentException("maxIdleConnections < 0");
+        }
+        if (keepAliveDuration <= 0) {
+            throw new IllegalArgumentException("keepAliveDuration <= 0");
+        }
+        this.maxIdleConnections = maxIdleConnections;
+        this.keepAliveDurationMillis = unit.toMillis(keepAliveDuration);
+        return this;
+    }
+
+    /**
+     * Sets the dispatcher used to execute asynchronous calls. Passing the same dispatcher to several builders
+     * shares its thread pool and request limits between the clients.
+     * @param dispatcher the dispatcher
+     * @return the builder instance
+     */
+    public DeskClientBuilder dispatcher(Dispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of asynchronous requests executed concurrently. When a shared dispatcher is
+     * provided through {@link #dispatcher(Dispatcher)} the limit is applied to it. With a
+     * {@link #sharedTransport(DeskClientFactory)} it requires a dispatcher, set the limit on the shared
+     * transport's dispatcher instead.
+     * @param maxRequests the maximum number of concurrent requests
+     * @return the builder instance
+     */
+    public DeskClientBuilder maxRequests(int maxRequests) {
+        if (maxRequests < 1) {
+            throw new IllegalArgumentException("maxRequests < 1");
+        }
+        this.maxRequests = maxRequests;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of asynchronous requests executed concurrently against the Desk site. Every call
+     * goes to the same host so this effectively caps async concurrency (OkHttp defaults to 5). When a shared
+     * dispatcher is provided through {@link #dispatcher(Dispatcher)} the limit is applied to it. With a
+     * {@link #sharedTransport(DeskClientFactory)} it requires a dispatcher, set the limit on the shared
+     * transport's dispatcher instead.
+     * @param maxRequestsPerHost the maximum number of concurrent requests per host
+     * @return the builder instance
+     */
+    public DeskClientBuilder maxRequestsPerHost(int maxRequestsPerHost) {
+        if (maxRequestsPerHost < 1) {
+            throw new IllegalArgumentException("maxRequestsPerHost < 1");
+        }
+        this.maxRequestsPerHost = maxRequestsPerHost;
+        return this;
+    }
+
+    /**
+     * Sets the connect timeout of new connections
+     * @param timeout the timeout, 0 for no timeout
+     * @param unit the unit of the timeout
+     * @return the builder instance
+     */
+    public DeskClientBuilder connectTimeout(long timeout, TimeUnit unit) {
+        this.connectTimeoutMillis = checkTimeout(timeout, unit);
+        return this;
+    }
+
+    /**
+     * Sets the read timeout of new connections
+     * @param timeout the timeout, 0 for no timeout
+     * @param unit the unit of the timeout
+     * @return the builder instance
+     */
+    public DeskClientBuilder readTimeout(long timeout, TimeUnit unit) {
+        this.readTimeoutMillis = checkTimeout(timeout, unit);
+        return this;
+    }
+
+    /**
+     * Sets the write timeout of new connections
+     * @param timeout the timeout, 0 for no timeout
+     * @param unit the unit of the timeout
+     * @return the builder instance
+     */
+    public DeskClientBuilder writeTimeout(long timeout, TimeUnit unit) {
+        this.writeTimeoutMillis = checkTimeout(timeout, unit);
+        return this;
+    }
+
+    /**
+     * Sets the protocols the client prefers, in order of preference (ex: only {@link Protocol#HTTP_1_1} to
+     * disable HTTP/2). The list must contain {@link Protocol#HTTP_1_1}.
+     * @param protocols the protocols
+     * @return the builder instance
+     */
+    public DeskClientBuilder protocols(List<Protocol> protocols) {
+        this.protocols = protocols;
+        return this;
+    }
+
+    /**
+     * Builds the client on top of the transport shared by the provided {@link DeskClientFactory} instead of
+     * creating a new {@link OkHttpClient} and {@link com.google.gson.Gson} for this client.
+     * @param factory the factory owning the shared transport
+     * @return the builder instance
+     */
+    public DeskClientBuilder sharedTransport(DeskClientFactory factory) {
+        this.sharedTransport = factory;
+        return this;
+    }
+
+    /**
+     * Throttles requests client side to {@code permits} requests per {@code period}. The limiter also follows the
+     * rate limit headers returned by Desk so it slows down before the site limit is reached instead of letting
+     * requests fail with a 429.
+     * @param permits the number of requests allowed per period
+     * @param period the period
+     * @param unit the unit of the period
+     * @return the builder instance
+     */
+    public DeskClientBuilder rateLimit(int permits, long period, TimeUnit unit) {
+        this.rateLimiter = new RateLimitInterceptor(permits, period, unit);
+        return this;
+    }
+
+    /**
+     * Throttles requests with the provided rate limiter. Pass the same limiter to every client talking to the
+     * same Desk site so they share the site's limit.
+     * @param rateLimiter the rate limiter
+     * @return the builder instance
+     */
+    public DeskClientBuilder rateLimiter(RateLimitInterceptor rateLimiter) {
+        this.rateLimiter = rateLimiter;
+        return this;
+    }
+
+    /**
+     * Retries failed requests with {@code maxAttempts} attempts per request and the default backoff. Only
+     * idempotent requests are retried, use {@link #retry(RetryInterceptor)} to retry POST and PATCH requests.
+     * @param maxAttempts the maximum number of attempts per request including the first one
+     * @return the builder instance
+     */
+    public DeskClientBuilder retry(int maxAttempts) {
+        this.retrier = new RetryInterceptor(maxAttempts);
+        return this;
+    }
+
+    /**
+     * Retries failed requests with the provided retry interceptor. Each retry is signed again and goes through
+     * the rate limiter again.
+     * @param retrier the retry interceptor
+     * @return the builder instance
+     */
+    public DeskClientBuilder retry(RetryInterceptor retrier) {
+        this.retrier = retrier;
+        return this;
+    }
+
+    /**
+     * Coalesces identical concurrent GET requests so they share one network call and receive the same parsed
+     * response. Only service methods returning {@link retrofit2.Call} are coalesced.
+     * @param coalesceRequests true to coalesce identical concurrent GET requests
+     * @return the builder instance
+     */
+    public DeskClientBuilder coalesceRequests(boolean coalesceRequests) {
+        this.coalesceRequests = coalesceRequests;
+        return this;
+    }
+
+    /**
+     * Caches parsed entities in memory so single entity GET requests (ex: {@code users().getUser(id)}) are served
+     * without going to the network.
+     * @param entityCache the entity cache
+     * @return the builder instance
+     */
+    public DeskClientBuilder entityCache(EntityCache entityCache) {
+        this.entityCache = entityCache;
+        return this;
+    }
+
+    /**
+     * Remembers the validator and parsed entity of single entity GET requests (ex: {@code cases().getCaseById(id)})
+     * so fetching them again sends a conditional request and an unchanged entity isn't downloaded or parsed again.
+     * This is an optional layer on top of the {@link #responseCache(Cache)}, which remains the canonical HTTP cache.
+     * @param conditionalRequestCache the conditional request cache
+     * @return the builder instance
+     */
+    public DeskClientBuilder conditionalRequestCache(ConditionalRequestCache conditionalRequestCache) {
+        this.conditionalRequestCache = conditionalRequestCache;
+        return this;
+    }
+
+    /**
+     * Sets the projection used by GET requests listing or searching a resource (ex: {@code cases}) which don't
+     * pass their own {@code fields}.
+     * @param resource the resource (ex: {@link com.desk.java.apiclient.service.CaseService#CASES_URI})
+     * @param projection the projection
+     * @return the builder instance
+     * @throws IllegalArgumentException if the projection isn't defined for the resource
+     */
+    public DeskClientBuilder defaultProjection(String resource, Projection projection) {
+        return defaultFields(resource, projection.fields(resource));
+    }
+
+    /**
+     * Sets the fields returned by GET requests listing or searching a resource (ex: {@code cases}) which don't
+     * pass their own {@code fields}.
+     * @param resource the resource (ex: {@link com.desk.java.apiclient.service.CaseService#CASES_URI})
+     * @param fields the fields or null to request every field
+     * @return the builder instance
+     */
+    public DeskClientBuilder defaultFields(String resource, Fields fields) {
+        if (defaultFields == null) {
+            defaultFields = new HashMap<>();
+        }
+        defaultFields.put(resource, fields);
+        return this;
+    }
+
+    private static long checkTimeout(long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("timeout < 0");
+        }
+        return unit.toMillis(timeout);
+    }
 }
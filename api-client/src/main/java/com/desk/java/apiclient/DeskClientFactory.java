@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient;
+
+import com.google.gson.Gson;
+
+import org.jetbrains.annotations.NotNull;
+
+import okhttp3.OkHttpClient;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+/**
+ * <p>
+ *     Creates {@link DeskClient}s for many Desk sites (tenants) which share a single transport: one
+ *     {@link OkHttpClient} (connection pool, dispatcher thread pool and response cache), one {@link Gson} and
+ *     one converter factory. Each client derives a lightweight {@link OkHttpClient} from the shared one which only
+ *     adds the tenant's authentication, user agent and interceptors, so adding a tenant does not create any new
+ *     pools or threads.
+ * </p>
+ *
+ * <pre>
+ * DeskClientFactory factory = new DeskClientFactory(new OkHttpClient.Builder()
+ *         .connectionPool(new ConnectionPool(50, 5, TimeUnit.MINUTES))
+ *         .build());
+ * DeskClient tenant = factory.create(new DeskClientBuilder("tenant.desk.com", "apiToken"));
+ * </pre>
+ *
+ * <p>
+ *     Transport options set on a tenant's {@link DeskClientBuilder} (timeouts, protocols, etc.) are applied to
+ *     that tenant only. Options which would give a tenant its own pool ({@code maxRequests},
+ *     {@code maxRequestsPerHost} without a dispatcher and {@code connectionPool(int, long, TimeUnit)}) are
+ *     rejected, configure them on the shared {@link OkHttpClient} instead.
+ * </p>
+ *
+ * <p>
+ *     Each tenant keeps its own {@link retrofit2.Retrofit}, as the call adapters a tenant may configure (entity
+ *     cache, conditional request cache, request coalescing, rate limiting) are fixed when a Retrofit is built. A
+ *     tenant costs about 1.5 KB of heap when created. Retrofit parses a service method the first time the tenant
+ *     calls it, which adds up to about 33 KB and 4 ms per tenant once every method has been used. Avoid
+ *     {@link DeskClient#warmUp()} on every tenant when there are many of them: the Gson adapters it builds are
+ *     shared by the factory and warmed up by the first tenant, the rest of its cost is per tenant.
+ * </p>
+ */
+public class DeskClientFactory {
+
+    private final OkHttpClient transport;
+    private final Gson gson;
+    private final GsonConverterFactory converterFactory;
+
+    /**
+     * Creates a factory with a default {@link OkHttpClient}
+     */
+    public DeskClientFactory() {
+        this(new OkHttpClient());
+    }
+
+    /**
+     * Creates a factory sharing the provided {@link OkHttpClient}. Interceptors already added to it run for
+     * every tenant.
+     *
+     * @param transport the shared client
+     */
+    public DeskClientFactory(@NotNull OkHttpClient transport) {
+        this.transport = transport;
+        this.gson = DeskClient.createGson();
+        this.converterFactory = GsonConverterFactory.create(gson);
+    }
+
+    /**
+     * Creates a {@link DeskClient} for a tenant on top of the shared transport. The builder is left unchanged.
+     *
+     * @param builder the tenant's builder
+     * @return the desk client
+     * @throws IllegalArgumentException if the builder sets options which would create a pool for the tenant
+     */
+    @NotNull
+    public DeskClient create(@NotNull DeskClientBuilder builder) {
+        return DeskClient.create(new DeskClientBuilder(builder).sharedTransport(this));
+    }
+
+    /**
+     * Gets the shared {@link OkHttpClient}
+     *
+     * @return the shared client
+     */
+    @NotNull
+    public OkHttpClient getTransport() {
+        return transport;
+    }
+
+    /**
+     * Gets the shared {@link Gson}
+     *
+     * @return the shared gson
+     */
+    @NotNull
+    public Gson getGson() {
+        return gson;
+    }
+
+    @NotNull
+    GsonConverterFactory getConverterFactory() {
+        return converterFactory;
+    }
+}
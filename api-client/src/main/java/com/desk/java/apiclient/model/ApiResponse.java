@@ -27,16 +27,34 @@
 package com.desk.java.apiclient.model;
 
 import com.desk.java.apiclient.util.StringUtils;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 public class ApiResponse<T extends Serializable> implements Serializable {
 
+    /**
+     * Reads pages of entities without Gson's reflective adapter, see {@link StreamingTypeAdapter}. Only
+     * parameterized {@code ApiResponse} types are handled, subclasses are left to Gson.
+     */
+    public static final TypeAdapterFactory TYPE_ADAPTER_FACTORY = new GsonTypeAdapterFactory();
+
     private static final long serialVersionUID = 916547674914954714L;
 
     private int totalEntries;
@@ -109,4 +127,99 @@ public class ApiResponse<T extends Serializable> implements Serializable {
     public boolean isFirstPage() {
         return (page == 1);
     }
+
+    private static final class GsonTypeAdapterFactory implements TypeAdapterFactory {
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public <R> TypeAdapter<R> create(Gson gson, TypeToken<R> type) {
+            if (type.getRawType() != ApiResponse.class || !(type.getType() instanceof ParameterizedType)) {
+                return null;
+            }
+            Type entryType = ((ParameterizedType) type.getType()).getActualTypeArguments()[0];
+            Class<?> entryClass = TypeToken.get(entryType).getRawType();
+            if (!Serializable.class.isAssignableFrom(entryClass)) {
+                return null;
+            }
+            return (TypeAdapter<R>) adapter(gson, (TypeToken<ApiResponse<Serializable>>) type,
+                    (TypeToken<Serializable>) TypeToken.get(entryType));
+        }
+
+        private <T extends Serializable> TypeAdapter<ApiResponse<T>> adapter(Gson gson,
+                                                                               TypeToken<ApiResponse<T>> type,
+                                                                               TypeToken<T> entryType) {
+            @SuppressWarnings("unchecked")
+            Class<T> entryClass = (Class<T>) entryType.getRawType();
+            return new GsonTypeAdapter<>(gson, gson.getDelegateAdapter(this, type), gson.getAdapter(entryType),
+                    entryClass);
+        }
+    }
+
+    private static final class GsonTypeAdapter<T extends Serializable> extends StreamingTypeAdapter<ApiResponse<T>> {
+
+        private final TypeAdapter<Links> links;
+        private final TypeAdapter<T> entries;
+        private final Class<T> entryClass;
+
+        GsonTypeAdapter(Gson gson, TypeAdapter<ApiResponse<T>> delegate, TypeAdapter<T> entries, Class<T> entryClass) {
+            super(delegate);
+            this.links = gson.getAdapter(Links.class);
+            this.entries = entries;
+            this.entryClass = entryClass;
+        }
+
+        @Override
+        ApiResponse<T> newInstance() {
+            return new ApiResponse<>();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, ApiResponse<T> value) throws IOException {
+            switch (name) {
+                case "total_entries":
+                    value.totalEntries = nextInt(in, value.totalEntries);
+                    return true;
+                case "page":
+                    value.page = nextInt(in, value.page);
+                    return true;
+                case "_links":
+                    value._links = links.read(in);
+                    return true;
+                case "_embedded":
+                    value._embedded = readEmbedded(in);
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        private Entries<T> readEmbedded(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            Entries<T> embedded = new Entries<>();
+            in.beginObject();
+            while (in.hasNext()) {
+                if (!"entries".equals(in.nextName())) {
+                    in.skipValue();
+                } else if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    embedded.setEntries(null);
+                } else {
+                    List<T> list = new ArrayList<>();
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        list.add(entries.read(in));
+                    }
+                    in.endArray();
+                    @SuppressWarnings("unchecked")
+                    T[] array = (T[]) Array.newInstance(entryClass, list.size());
+                    embedded.setEntries(list.toArray(array));
+                }
+            }
+            in.endObject();
+            return embedded;
+        }
+    }
 }
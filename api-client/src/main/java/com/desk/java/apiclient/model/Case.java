@@ -26,9 +26,16 @@
 
 package com.desk.java.apiclient.model;
 
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.Date;
 import java.util.HashMap;
@@ -37,6 +44,17 @@ public class Case implements Serializable {
 
     public static final long NO_ID = 0L;
 
+    /**
+     * Reads cases without Gson's reflective adapter, see {@link StreamingTypeAdapter}
+     */
+    public static final TypeAdapterFactory TYPE_ADAPTER_FACTORY =
+            new StreamingTypeAdapter.Factory<Case>(Case.class) {
+                @Override
+                TypeAdapter<Case> create(Gson gson, TypeAdapter<Case> delegate) {
+                    return new GsonTypeAdapter(gson, delegate);
+                }
+            };
+
     private static final long serialVersionUID = 1402935802936985307L;
 
     private long id;
@@ -483,4 +501,104 @@ public class Case implements Serializable {
     public int hashCode() {
         return (int) (id ^ (id >>> 32));
     }
+
+    private static final class GsonTypeAdapter extends StreamingTypeAdapter<Case> {
+
+        private final TypeAdapter<String> strings;
+        private final TypeAdapter<CaseType> types;
+        private final TypeAdapter<CaseStatus> statuses;
+        private final TypeAdapter<String[]> labels;
+        private final TypeAdapter<long[]> labelIds;
+        private final TypeAdapter<LabelAction> labelActions;
+        private final TypeAdapter<HashMap<String, String>> customFields;
+        private final TypeAdapter<CaseEmbedded> embedded;
+        private final TypeAdapter<Date> dates;
+        private final TypeAdapter<CaseLinks> links;
+        private final TypeAdapter<Message> messages;
+
+        GsonTypeAdapter(Gson gson, TypeAdapter<Case> delegate) {
+            super(delegate);
+            strings = gson.getAdapter(String.class);
+            types = gson.getAdapter(CaseType.class);
+            statuses = gson.getAdapter(CaseStatus.class);
+            labels = gson.getAdapter(String[].class);
+            labelIds = gson.getAdapter(long[].class);
+            labelActions = gson.getAdapter(LabelAction.class);
+            customFields = gson.getAdapter(new TypeToken<HashMap<String, String>>() {});
+            embedded = gson.getAdapter(CaseEmbedded.class);
+            dates = gson.getAdapter(Date.class);
+            links = gson.getAdapter(CaseLinks.class);
+            messages = gson.getAdapter(Message.class);
+        }
+
+        @Override
+        Case newInstance() {
+            return new Case();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, Case value) throws IOException {
+            switch (name) {
+                case "id":
+                    value.id = nextLong(in, value.id);
+                    return true;
+                case "subject":
+                    value.subject = strings.read(in);
+                    return true;
+                case "priority":
+                    value.priority = strings.read(in);
+                    return true;
+                case "description":
+                    value.description = strings.read(in);
+                    return true;
+                case "name":
+                    value.name = strings.read(in);
+                    return true;
+                case "type":
+                    value.type = types.read(in);
+                    return true;
+                case "blurb":
+                    value.blurb = strings.read(in);
+                    return true;
+                case "status":
+                    value.status = statuses.read(in);
+                    return true;
+                case "labels":
+                    value.labels = labels.read(in);
+                    return true;
+                case "label_ids":
+                    value.labelIds = labelIds.read(in);
+                    return true;
+                case "label_action":
+                    value.labelAction = labelActions.read(in);
+                    return true;
+                case "custom_fields":
+                    value.customFields = customFields.read(in);
+                    return true;
+                case "_embedded":
+                    value._embedded = embedded.read(in);
+                    return true;
+                case "created_at":
+                    value.createdAt = dates.read(in);
+                    return true;
+                case "updated_at":
+                    value.updatedAt = dates.read(in);
+                    return true;
+                case "_links":
+                    value._links = links.read(in);
+                    return true;
+                case "locked_until":
+                    value.lockedUntil = dates.read(in);
+                    return true;
+                case "message":
+                    value.message = messages.read(in);
+                    return true;
+                case "reply":
+                    value.reply = messages.read(in);
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
 }
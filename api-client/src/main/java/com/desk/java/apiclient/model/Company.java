@@ -31,6 +31,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.Serializable;
+import java.util.Date;
 import java.util.HashMap;
 
 public class Company implements Serializable {
@@ -42,6 +43,8 @@ public class Company implements Serializable {
     private String[] domains;
     private CompanyLinks _links;
     private HashMap<String, String> customFields;
+    private Date createdAt;
+    private Date updatedAt;
 
     public long getId() {
         return id;
@@ -86,4 +89,12 @@ public class Company implements Serializable {
     public void setCustomFields(HashMap<String, String> customFields) {
         this.customFields = customFields;
     }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
 }
@@ -28,17 +28,35 @@ package com.desk.java.apiclient.model;
 
 
 import com.desk.java.apiclient.util.StringUtils;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 
 public class Customer implements Serializable {
 
+    /**
+     * Reads customers without Gson's reflective adapter, see {@link StreamingTypeAdapter}
+     */
+    public static final TypeAdapterFactory TYPE_ADAPTER_FACTORY =
+            new StreamingTypeAdapter.Factory<Customer>(Customer.class) {
+                @Override
+                TypeAdapter<Customer> create(Gson gson, TypeAdapter<Customer> delegate) {
+                    return new GsonTypeAdapter(gson, delegate);
+                }
+            };
+
     private static final long serialVersionUID = 5362546629837209181L;
 
     private long id;
@@ -56,6 +74,8 @@ public class Customer implements Serializable {
     private CustomerLinks _links;
     private HashMap<String, String> customFields;
     private CustomerEmbedded _embedded;
+    private Date createdAt;
+    private Date updatedAt;
 
     public void setId(long id) {
         this.id = id;
@@ -209,6 +229,14 @@ public class Customer implements Serializable {
         this._embedded = embedded;
     }
 
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
+
     /**
      * Gets the first email
      * @return the first email or null if no email
@@ -280,4 +308,88 @@ public class Customer implements Serializable {
     public Link getCompanyLink() {
         return getLinks().getCompany();
     }
+
+    private static final class GsonTypeAdapter extends StreamingTypeAdapter<Customer> {
+
+        private final TypeAdapter<String> strings;
+        private final TypeAdapter<CustomerContact[]> contacts;
+        private final TypeAdapter<CustomerLinks> links;
+        private final TypeAdapter<HashMap<String, String>> customFields;
+        private final TypeAdapter<CustomerEmbedded> embedded;
+        private final TypeAdapter<Date> dates;
+
+        GsonTypeAdapter(Gson gson, TypeAdapter<Customer> delegate) {
+            super(delegate);
+            strings = gson.getAdapter(String.class);
+            contacts = gson.getAdapter(CustomerContact[].class);
+            links = gson.getAdapter(CustomerLinks.class);
+            customFields = gson.getAdapter(new TypeToken<HashMap<String, String>>() {});
+            embedded = gson.getAdapter(CustomerEmbedded.class);
+            dates = gson.getAdapter(Date.class);
+        }
+
+        @Override
+        Customer newInstance() {
+            return new Customer();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, Customer value) throws IOException {
+            switch (name) {
+                case "id":
+                    value.id = nextLong(in, value.id);
+                    return true;
+                case "first_name":
+                    value.firstName = strings.read(in);
+                    return true;
+                case "last_name":
+                    value.lastName = strings.read(in);
+                    return true;
+                case "avatar":
+                    value.avatar = strings.read(in);
+                    return true;
+                case "title":
+                    value.title = strings.read(in);
+                    return true;
+                case "language":
+                    value.language = strings.read(in);
+                    return true;
+                case "background":
+                    value.background = strings.read(in);
+                    return true;
+                case "company_name":
+                    value.companyName = strings.read(in);
+                    return true;
+                case "display_name":
+                    value.displayName = strings.read(in);
+                    return true;
+                case "emails":
+                    value.emails = contacts.read(in);
+                    return true;
+                case "addresses":
+                    value.addresses = contacts.read(in);
+                    return true;
+                case "phone_numbers":
+                    value.phoneNumbers = contacts.read(in);
+                    return true;
+                case "_links":
+                    value._links = links.read(in);
+                    return true;
+                case "custom_fields":
+                    value.customFields = customFields.read(in);
+                    return true;
+                case "_embedded":
+                    value._embedded = embedded.read(in);
+                    return true;
+                case "created_at":
+                    value.createdAt = dates.read(in);
+                    return true;
+                case "updated_at":
+                    value.updatedAt = dates.read(in);
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
 }
@@ -26,19 +26,59 @@
 
 package com.desk.java.apiclient.model;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * Created by Matt Kranzler on 7/28/15.
  * Copyright (c) 2016 Desk.com. All rights reserved.
  */
 public class Embed extends QueryFields {
 
+    private static final ConcurrentMap<List<?>, Embed> INTERNED = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Embed> SINGLES = new ConcurrentHashMap<>();
+
     private Embed() {}
 
     private Embed(String... fields) {
         super((Object[])fields);
     }
 
+    /**
+     * Gets the Embed for the provided field. It is looked up without allocating.
+     *
+     * @param field the field
+     * @return the Embed
+     */
+    public static Embed fields(String field) {
+        Embed single = field != null ? SINGLES.get(field) : null;
+        if (single != null) {
+            return single;
+        }
+        single = fields(new String[] {field});
+        if (field != null && SINGLES.size() < MAX_INTERNED && single == INTERNED.get(single.key())) {
+            SINGLES.putIfAbsent(field, single);
+        }
+        return single;
+    }
+
+    /**
+     * Gets the Embed for the provided fields. Identical lists share one immutable instance, but each lookup
+     * allocates the arguments and the key they are looked up with, so hot paths should keep the result in a
+     * constant (ex: {@code CaseService.EMBED_MESSAGE_CUSTOMER}).
+     *
+     * @param fields the fields
+     * @return the Embed
+     */
     public static Embed fields(String... fields) {
-        return new Embed(fields);
+        Embed interned = INTERNED.get(Arrays.asList(fields));
+        return interned != null ? interned : intern(INTERNED, new Embed(fields));
+    }
+
+    private Object readResolve() {
+        Embed interned = INTERNED.get(key());
+        return interned != null ? interned : intern(INTERNED, this);
     }
 }
@@ -26,19 +26,70 @@
 
 package com.desk.java.apiclient.model;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * Created by Matt Kranzler on 7/28/15.
  * Copyright (c) 2016 Desk.com. All rights reserved.
  */
 public class Fields extends QueryFields {
 
+    private static final ConcurrentMap<List<?>, Fields> INTERNED = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Fields> SINGLES = new ConcurrentHashMap<>();
+    private static final Fields ALL = include();
+
     private Fields() {}
 
     private Fields(String... fields) {
         super((Object[])fields);
     }
 
+    /**
+     * Gets the Fields for the provided field. It is looked up without allocating.
+     *
+     * @param field the field
+     * @return the Fields
+     */
+    public static Fields include(String field) {
+        Fields single = field != null ? SINGLES.get(field) : null;
+        if (single != null) {
+            return single;
+        }
+        single = include(new String[] {field});
+        if (field != null && SINGLES.size() < MAX_INTERNED && single == INTERNED.get(single.key())) {
+            SINGLES.putIfAbsent(field, single);
+        }
+        return single;
+    }
+
+    /**
+     * Gets the Fields for the provided fields. Identical lists share one immutable instance, but each lookup
+     * allocates the arguments and the key they are looked up with, so hot paths should keep the result in a
+     * constant.
+     *
+     * @param fields the fields
+     * @return the Fields
+     */
     public static Fields include(String... fields) {
-        return new Fields(fields);
+        Fields interned = INTERNED.get(Arrays.asList(fields));
+        return interned != null ? interned : intern(INTERNED, new Fields(fields));
+    }
+
+    /**
+     * Gets the Fields requesting every field. It renders as an empty {@code fields} parameter which overrides a
+     * default projection and is removed before the request is sent.
+     *
+     * @return the Fields
+     */
+    public static Fields all() {
+        return ALL;
+    }
+
+    private Object readResolve() {
+        Fields interned = INTERNED.get(key());
+        return interned != null ? interned : intern(INTERNED, this);
     }
 }
@@ -64,7 +64,7 @@ public class Job implements Serializable {
   }
 
   public int getProgress() {
-    return progress;
+    return progress != null ? progress : 0;
   }
 
   public Date getCreatedAt() {
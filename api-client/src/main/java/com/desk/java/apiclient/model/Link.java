@@ -26,7 +26,6 @@
 
 package com.desk.java.apiclient.model;
 
-import com.desk.java.apiclient.util.StringUtils;
 import com.google.gson.annotations.SerializedName;
 
 import org.jetbrains.annotations.NotNull;
@@ -43,6 +42,8 @@ public class Link implements Serializable {
     private int userMessagesCount;
     @SerializedName("class")
     private String className;
+    // the bitwise complement of the parsed id so the default value of 0 means "not parsed yet"
+    private transient volatile long parsedLinkId;
 
     public Link() {
     }
@@ -57,6 +58,7 @@ public class Link implements Serializable {
 
     public void setHref(String h) {
         this.href = h;
+        this.parsedLinkId = 0;
     }
 
     public int getCount() {
@@ -84,19 +86,49 @@ public class Link implements Serializable {
     }
 
     /**
-     * Returns the integer value of the last path segment
+     * Returns the integer value of the last path segment. The id is parsed once and cached.
      *
      * @return the integer value if exists and is numeric, 0 if it doesn't exist or is not numeric
      */
     public long getLinkId() {
-        if (StringUtils.isEmpty(href)) {
+        long parsed = parsedLinkId;
+        if (parsed == 0) {
+            parsed = ~parseLinkId(href);
+            parsedLinkId = parsed;
+        }
+        return ~parsed;
+    }
+
+    /**
+     * Parses the last path segment of an href (ignoring the query and trailing slashes) as a positive long
+     * without allocating
+     *
+     * @param href the href
+     * @return the id or 0 if the segment is empty, isn't numeric or overflows
+     */
+    static long parseLinkId(String href) {
+        if (href == null) {
             return 0L;
         }
-        String segment = StringUtils.getLastPathSegment(href);
-        if (StringUtils.isEmpty(segment)
-                || !StringUtils.isDigitsOnly(segment)) {
+        int end = href.indexOf('?');
+        if (end < 0) {
+            end = href.length();
+        }
+        while (end > 0 && href.charAt(end - 1) == '/') {
+            end--;
+        }
+        int start = href.lastIndexOf('/', end - 1) + 1;
+        if (start >= end) {
             return 0L;
         }
-        return Long.valueOf(segment);
+        long id = 0;
+        for (int i = start; i < end; i++) {
+            int digit = href.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || id > (Long.MAX_VALUE - digit) / 10) {
+                return 0L;
+            }
+            id = id * 10 + digit;
+        }
+        return id;
     }
 }
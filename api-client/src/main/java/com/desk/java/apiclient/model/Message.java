@@ -29,10 +29,15 @@ package com.desk.java.apiclient.model;
 
 import com.desk.java.apiclient.service.CaseService;
 import com.desk.java.apiclient.util.StringUtils;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.stream.JsonReader;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.Date;
 
@@ -40,6 +45,17 @@ public class Message implements Serializable {
 
     public static final long NO_ID = 0L;
 
+    /**
+     * Reads messages without Gson's reflective adapter, see {@link StreamingTypeAdapter}
+     */
+    public static final TypeAdapterFactory TYPE_ADAPTER_FACTORY =
+            new StreamingTypeAdapter.Factory<Message>(Message.class) {
+                @Override
+                TypeAdapter<Message> create(Gson gson, TypeAdapter<Message> delegate) {
+                    return new GsonTypeAdapter(gson, delegate);
+                }
+            };
+
     private static final long serialVersionUID = -6186413612833980054L;
 
     private long id;
@@ -383,4 +399,116 @@ public class Message implements Serializable {
     }
 
     public enum MessageType {REPLY, NOTE, DRAFT, MESSAGE}
+
+    private static final class GsonTypeAdapter extends StreamingTypeAdapter<Message> {
+
+        private final TypeAdapter<String> strings;
+        private final TypeAdapter<MessageDirection> directions;
+        private final TypeAdapter<MessageStatus> statuses;
+        private final TypeAdapter<CaseStatus> caseStatuses;
+        private final TypeAdapter<Date> dates;
+        private final TypeAdapter<MessageEventType> eventTypes;
+        private final TypeAdapter<MessageEmbedded> embedded;
+        private final TypeAdapter<MessageLinks> links;
+
+        GsonTypeAdapter(Gson gson, TypeAdapter<Message> delegate) {
+            super(delegate);
+            strings = gson.getAdapter(String.class);
+            directions = gson.getAdapter(MessageDirection.class);
+            statuses = gson.getAdapter(MessageStatus.class);
+            caseStatuses = gson.getAdapter(CaseStatus.class);
+            dates = gson.getAdapter(Date.class);
+            eventTypes = gson.getAdapter(MessageEventType.class);
+            embedded = gson.getAdapter(MessageEmbedded.class);
+            links = gson.getAdapter(MessageLinks.class);
+        }
+
+        @Override
+        Message newInstance() {
+            return new Message();
+        }
+
+        @Override
+        boolean readField(JsonReader in, String name, Message value) throws IOException {
+            switch (name) {
+                case "id":
+                    value.id = nextLong(in, value.id);
+                    return true;
+                case "subject":
+                    value.subject = strings.read(in);
+                    return true;
+                case "body":
+                    value.body = strings.read(in);
+                    return true;
+                case "direction":
+                    value.direction = directions.read(in);
+                    return true;
+                case "status":
+                    value.status = statuses.read(in);
+                    return true;
+                case "ticket_status":
+                    value.ticketStatus = caseStatuses.read(in);
+                    return true;
+                case "to":
+                    value.to = strings.read(in);
+                    return true;
+                case "from":
+                    value.from = strings.read(in);
+                    return true;
+                case "cc":
+                    value.cc = strings.read(in);
+                    return true;
+                case "bcc":
+                    value.bcc = strings.read(in);
+                    return true;
+                case "type":
+                    value.type = strings.read(in);
+                    return true;
+                case "hidden":
+                    value.hidden = strings.read(in);
+                    return true;
+                case "is_best_answer":
+                    value.isBestAnswer = strings.read(in);
+                    return true;
+                case "hidden_at":
+                    value.hiddenAt = strings.read(in);
+                    return true;
+                case "from_facebook_name":
+                    value.fromFacebookName = strings.read(in);
+                    return true;
+                case "answers_disallowed_at":
+                    value.answersDisallowedAt = strings.read(in);
+                    return true;
+                case "disallow_community_answers":
+                    value.disallowCommunityAnswers = strings.read(in);
+                    return true;
+                case "are_answers_disallowed":
+                    value.areAnswersDisallowed = strings.read(in);
+                    return true;
+                case "client_type":
+                    value.clientType = strings.read(in);
+                    return true;
+                case "entered_at":
+                    value.enteredAt = dates.read(in);
+                    return true;
+                case "created_at":
+                    value.createdAt = dates.read(in);
+                    return true;
+                case "updated_at":
+                    value.updatedAt = dates.read(in);
+                    return true;
+                case "event_type":
+                    value.eventType = eventTypes.read(in);
+                    return true;
+                case "_embedded":
+                    value._embedded = embedded.read(in);
+                    return true;
+                case "_links":
+                    value._links = links.read(in);
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
 }
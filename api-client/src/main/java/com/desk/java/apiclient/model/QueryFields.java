@@ -29,11 +29,17 @@ package com.desk.java.apiclient.model;
 import com.desk.java.apiclient.util.StringUtils;
 
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Represents a list of fields in a query parameter taking the string array and joining each
  * string with a ',' in {@link #toString()} (ex: ?fields=field_one,field_two,field_three)
  *
+ * Instances are immutable and the joined string is rendered once. Subclasses intern their instances so identical
+ * lists share one instance (see {@link #intern(ConcurrentMap, QueryFields)}).
+ *
  * Created by Matt Kranzler on 4/30/15.
  * Copyright (c) 2016 Desk.com. All rights reserved.
  */
@@ -41,16 +47,64 @@ public abstract class QueryFields implements Serializable {
 
     private static final long serialVersionUID = 2413360469384583607L;
 
-    private Object[] fields;
+    /**
+     * The maximum number of instances interned per subclass, past which new lists are no longer interned
+     */
+    static final int MAX_INTERNED = 512;
 
-    private QueryFields() {}
+    private final Object[] fields;
+    private transient String value;
 
     protected QueryFields(Object... fields) {
-        this.fields = fields;
+        this.fields = fields.clone();
+        this.value = StringUtils.join(",", this.fields);
+    }
+
+    /**
+     * Gets the interned instance with the same fields, interning the candidate if there is none
+     *
+     * @param interned the interned instances of a subclass keyed by their fields
+     * @param candidate the new instance
+     * @param <T> the subclass
+     * @return the interned instance or the candidate
+     */
+    static <T extends QueryFields> T intern(ConcurrentMap<List<?>, T> interned, T candidate) {
+        if (interned.size() >= MAX_INTERNED) {
+            return candidate;
+        }
+        T existing = interned.putIfAbsent(candidate.key(), candidate);
+        return existing != null ? existing : candidate;
+    }
+
+    /**
+     * Gets the fields as a list to look up interned instances
+     *
+     * @return the fields
+     */
+    List<?> key() {
+        return Arrays.asList(fields);
     }
 
     @Override
     public String toString() {
-        return StringUtils.join(",", fields);
+        String value = this.value;
+        if (value == null) {
+            // deserialized instance
+            value = this.value = StringUtils.join(",", fields);
+        }
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        return Arrays.equals(fields, ((QueryFields) o).fields);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(fields);
     }
 }
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.desk.java.apiclient.model;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * <p>
+ *     A {@link TypeAdapter} reading a model field by field through a {@code switch} on the json names instead of
+ *     Gson's reflective adapter. Writing is left to the reflective adapter so request bodies are unchanged.
+ *     Subclasses read the fields of their model, named as {@code DeskClient}'s
+ *     {@code LOWER_CASE_WITH_UNDERSCORES} naming policy names them, and unknown fields are skipped.
+ * </p>
+ *
+ * @param <T> the type of the model
+ */
+abstract class StreamingTypeAdapter<T> extends TypeAdapter<T> {
+
+    private final TypeAdapter<T> delegate;
+
+    StreamingTypeAdapter(TypeAdapter<T> delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Creates an empty instance of the model
+     */
+    abstract T newInstance();
+
+    /**
+     * Reads the value of a field into the model
+     *
+     * @return false if the field is unknown and its value must be skipped
+     */
+    abstract boolean readField(JsonReader in, String name, T value) throws IOException;
+
+    @Override
+    public void write(JsonWriter out, T value) throws IOException {
+        delegate.write(out, value);
+    }
+
+    @Override
+    public T read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        T value = newInstance();
+        in.beginObject();
+        while (in.hasNext()) {
+            if (!readField(in, in.nextName(), value)) {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return value;
+    }
+
+    /**
+     * Reads a primitive long like Gson does, keeping the current value on null
+     */
+    static long nextLong(JsonReader in, long current) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return current;
+        }
+        try {
+            return in.nextLong();
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    /**
+     * Reads a primitive int like Gson does, keeping the current value on null
+     */
+    static int nextInt(JsonReader in, int current) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return current;
+        }
+        try {
+            return in.nextInt();
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    /**
+     * Creates the adapter of exactly one model class, subclasses are left to Gson
+     *
+     * @param <T> the type of the model
+     */
+    abstract static class Factory<T> implements TypeAdapterFactory {
+
+        private final Class<T> type;
+
+        Factory(Class<T> type) {
+            this.type = type;
+        }
+
+        abstract TypeAdapter<T> create(Gson gson, TypeAdapter<T> delegate);
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public <R> TypeAdapter<R> create(Gson gson, TypeToken<R> typeToken) {
+            if (typeToken.getRawType() != type) {
+                return null;
+            }
+            return (TypeAdapter<R>) create(gson, gson.getDelegateAdapter(this, TypeToken.get(type)));
+        }
+    }
+}
@@ -91,6 +91,10 @@ public interface CaseService {
     String EMBED_SENT_BY = "sent_by";
     String EMBED_ENTERED_BY = "entered_by";
 
+    // Common embeds
+    Embed EMBED_CUSTOMER_ASSIGNED_USER_ASSIGNED_GROUP = Embed.fields(EMBED_CUSTOMER, EMBED_ASSIGNED_USER, EMBED_ASSIGNED_GROUP);
+    Embed EMBED_MESSAGE_CUSTOMER = Embed.fields(EMBED_MESSAGE, EMBED_CUSTOMER);
+
     /**
      * Retrieves cases for a given filter
      * @see <a href="http://dev.desk.com/API/cases/#list">http://dev.desk.com/API/cases/#list</a>
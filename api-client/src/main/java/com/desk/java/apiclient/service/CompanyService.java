@@ -29,6 +29,7 @@ package com.desk.java.apiclient.service;
 import com.desk.java.apiclient.model.ApiResponse;
 import com.desk.java.apiclient.model.Company;
 import com.desk.java.apiclient.model.FeatureCheck;
+import com.desk.java.apiclient.model.Fields;
 import com.desk.java.apiclient.model.SortDirection;
 
 import retrofit2.Call;
@@ -52,6 +53,13 @@ public interface CompanyService {
     String COMPANY_URI = "companies";
     String FILTERS_URI = "company_filters";
 
+    // Fields
+    String FIELD_ID = "id";
+    String FIELD_NAME = "name";
+    String FIELD_CREATED_AT = "created_at";
+    String FIELD_UPDATED_AT = "updated_at";
+
+    // Sorts fields
     String SORT_FIELD_CREATED_AT = "created_at";
     String SORT_FIELD_UPDATED_AT = "updated_at";
     String SORT_FIELD_NAME = "name";
@@ -91,6 +99,24 @@ public interface CompanyService {
                                          @Query("page") int page, @Query("sort_field") String sortField,
                                          @Query("sort_direction") SortDirection sortDirection);
 
+    /**
+     * Search for companies returning the given fields
+     * @see <a href="http://dev.desk.com/API/companies/#show">http://dev.desk.com/API/companies/#show</a>
+     *
+     * @param query the search query
+     * @param perPage the total companies per page
+     * @param page the page requested
+     * @param sortField the field to sort on
+     * @param sortDirection the direction to sort
+     * @param fields the fields to return, {@link Fields#all()} for every field
+     * @return a company api response
+     */
+    @GET(COMPANY_URI + "/search")
+    Call<ApiResponse<Company>> searchCompanies(@Query("q") String query, @Query("per_page") int perPage,
+                                         @Query("page") int page, @Query("sort_field") String sortField,
+                                         @Query("sort_direction") SortDirection sortDirection,
+                                         @Query("fields") Fields fields);
+
     /**
      * Retrieves companies for a given filter
      * @see <a href="http://dev.desk.com/API/cases/#list">http://dev.desk.com/API/companies/#list</a>
@@ -105,4 +131,21 @@ public interface CompanyService {
     @GET(FILTERS_URI + "/{id}/" + COMPANY_URI)
     Call<ApiResponse<Company>> getCompaniesByFilter(@Path("id") long filterId, @Query("per_page") int perPage, @Query("page") int page,
                                              @Query("sort_field") String sortField, @Query("sort_direction") SortDirection sortDirection);
+
+    /**
+     * Retrieves companies for a given filter returning the given fields
+     * @see <a href="http://dev.desk.com/API/cases/#list">http://dev.desk.com/API/companies/#list</a>
+     *
+     * @param filterId the id of the filter
+     * @param perPage the total filters per page
+     * @param page the page requested
+     * @param sortField the field to sort on
+     * @param sortDirection the direction to sort
+     * @param fields the fields to return, {@link Fields#all()} for every field
+     * @return a company api response
+     */
+    @GET(FILTERS_URI + "/{id}/" + COMPANY_URI)
+    Call<ApiResponse<Company>> getCompaniesByFilter(@Path("id") long filterId, @Query("per_page") int perPage, @Query("page") int page,
+                                             @Query("sort_field") String sortField, @Query("sort_direction") SortDirection sortDirection,
+                                             @Query("fields") Fields fields);
 }
@@ -28,6 +28,7 @@ package com.desk.java.apiclient.service;
 
 import com.desk.java.apiclient.model.ApiResponse;
 import com.desk.java.apiclient.model.CustomField;
+import com.desk.java.apiclient.model.Fields;
 
 import retrofit2.Call;
 import retrofit2.http.GET;
@@ -60,4 +61,16 @@ public interface CustomFieldsService {
     @GET(CUSTOM_FIELDS_URI)
     Call<ApiResponse<CustomField>> getCustomFields(@Query("per_page") int perPage, @Query("page") int page);
 
+    /**
+     * Retrieve a paginated list of all custom fields
+     * @see <a href="http://dev.desk.com/API/custom-fields/#list">http://dev.desk.com/API/custom-fields/#list</a>
+     *
+     * @param perPage the amount of custom fields per page
+     * @param page the page
+     * @param fields the fields requested
+     * @return a custom field api response
+     */
+    @GET(CUSTOM_FIELDS_URI)
+    Call<ApiResponse<CustomField>> getCustomFields(@Query("per_page") int perPage, @Query("page") int page, @Query("fields") Fields fields);
+
 }
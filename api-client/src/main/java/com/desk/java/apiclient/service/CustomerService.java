@@ -70,6 +70,8 @@ public interface CustomerService {
     String FIELD_ADDRESSES = "addresses";
     String FIELD_CUSTOM_FIELDS = "custom_fields";
     String FIELD_DISPLAY_NAME = "display_name";
+    String FIELD_CREATED_AT = "created_at";
+    String FIELD_UPDATED_AT = "updated_at";
 
     // Sorts fields
     String SORT_FIELD_CREATED_AT = "created_at";
@@ -167,6 +169,26 @@ public interface CustomerService {
                                                 @Query("sort_field") String sortField,
                                                 @Query("sort_direction") SortDirection sortDirection);
 
+    /**
+     * Searches for customers returning the given fields
+     * @see <a href="http://dev.desk.com/API/customers/#search">http://dev.desk.com/API/customers/#search</a>
+     *
+     * @param query the query searching across the following fields: firstname, lastname, name, email &amp; phone
+     * @param embed the fields to embed
+     * @param perPage       the total customers per page
+     * @param page          the page requested
+     * @param sortField     the field to sort on
+     * @param sortDirection the direction to sort
+     * @param fields        the fields to return, {@link Fields#all()} for every field
+     * @return a customer api response
+     */
+    @GET(CUSTOMERS_URI + "/search")
+    Call<ApiResponse<Customer>> searchCustomers(@Query("q") String query, @Query("embed") Embed embed,
+                                                @Query("per_page") int perPage, @Query("page") int page,
+                                                @Query("sort_field") String sortField,
+                                                @Query("sort_direction") SortDirection sortDirection,
+                                                @Query("fields") Fields fields);
+
     /**
      * Retrieves customers by the company provided.
      *
@@ -27,6 +27,7 @@
 package com.desk.java.apiclient.service;
 
 import com.desk.java.apiclient.model.ApiResponse;
+import com.desk.java.apiclient.model.Fields;
 import com.desk.java.apiclient.model.Group;
 import com.desk.java.apiclient.model.User;
 
@@ -62,6 +63,18 @@ public interface GroupService {
     @GET(GROUPS_URI)
     Call<ApiResponse<Group>> getGroups(@Query("per_page") int perPage, @Query("page") int page);
 
+    /**
+     * Retrieve a paginated list of all groups
+     * @see <a href="http://dev.desk.com/API/groups/#list">http://dev.desk.com/API/groups/#list</a>
+     *
+     * @param perPage the amount of groups per page
+     * @param page the page
+     * @param fields the fields requested
+     * @return a group api response
+     */
+    @GET(GROUPS_URI)
+    Call<ApiResponse<Group>> getGroups(@Query("per_page") int perPage, @Query("page") int page, @Query("fields") Fields fields);
+
     /**
      * Retrieve a paginated list of all users for the given group
      * @see <a href="http://dev.desk.com/API/groups/#list-users">http://dev.desk.com/API/groups/#list-users</a>
@@ -27,6 +27,7 @@
 package com.desk.java.apiclient.service;
 
 import com.desk.java.apiclient.model.ApiResponse;
+import com.desk.java.apiclient.model.Fields;
 import com.desk.java.apiclient.model.Label;
 
 import retrofit2.Call;
@@ -59,4 +60,16 @@ public interface LabelService {
      */
     @GET(LABELS_URI)
     Call<ApiResponse<Label>> getLabels(@Query("per_page") int perPage, @Query("page") int page);
+
+    /**
+     * Retrieve a paginated list of all labels
+     * @see <a href="http://dev.desk.com/API/labels/#list">http://dev.desk.com/API/labels/#list</a>
+     *
+     * @param perPage the amount of labels per page
+     * @param page the page
+     * @param fields the fields requested
+     * @return a label api response
+     */
+    @GET(LABELS_URI)
+    Call<ApiResponse<Label>> getLabels(@Query("per_page") int perPage, @Query("page") int page, @Query("fields") Fields fields);
 }
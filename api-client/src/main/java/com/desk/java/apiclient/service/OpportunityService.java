@@ -86,6 +86,23 @@ public interface OpportunityService {
                                                             @Query("page") int page,
                                                             @Query("embed") Embed embed);
 
+    /**
+     * Retrieve a paginated list of opportunities by filter returning the given fields
+     *
+     * @param filterId the id of the filter
+     * @param perPage the amount per page
+     * @param page the page to retrieve
+     * @param embed the fields to embed
+     * @param fields the fields to return, {@link Fields#all()} for every field
+     * @return an opportunity api response
+     */
+    @GET(FILTERS_URI + "/{id}/" + OPPORTUNITIES_URI)
+    Call<ApiResponse<Opportunity>> getOpportunitiesByFilter(@Path("id") long filterId,
+                                                            @Query("per_page") int perPage,
+                                                            @Query("page") int page,
+                                                            @Query("embed") Embed embed,
+                                                            @Query("fields") Fields fields);
+
     /**
      * Retrieve an opportunity by id
      *
@@ -71,6 +71,18 @@ public interface UserService {
     @GET(USERS_URI)
     Call<ApiResponse<User>> getUsers(@Query("per_page") int perPage, @Query("page") int page);
 
+    /**
+     * Retrieve a paginated list of all users
+     *
+     * @param perPage the amount of users per page
+     * @param page    the page
+     * @param fields  the fields requested
+     * @return a user api response
+     * @see <a href="http://dev.desk.com/API/users/#list">http://dev.desk.com/API/users/#list</a>
+     */
+    @GET(USERS_URI)
+    Call<ApiResponse<User>> getUsers(@Query("per_page") int perPage, @Query("page") int page, @Query("fields") Fields fields);
+
     /**
      * Retrieves the current user (API authentication must be present)
      *
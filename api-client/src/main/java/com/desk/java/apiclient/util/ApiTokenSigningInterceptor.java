@@ -54,7 +54,7 @@ public class ApiTokenSigningInterceptor implements Interceptor {
     public Response intercept(Chain chain) throws IOException {
         Request request = chain.request();
         Request newRequest = request.newBuilder()
-                .addHeader(AUTHORIZATION_HEADER, BEARER + " " + apiToken)
+                .header(AUTHORIZATION_HEADER, BEARER + " " + apiToken)
                 .build();
         return chain.proceed(newRequest);
     }
@@ -0,0 +1,461 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import com.desk.java.apiclient.DeskApiException;
+import com.desk.java.apiclient.DeskClient;
+import com.desk.java.apiclient.model.BulkCaseUpdateRequest;
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.model.Job;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * <p>
+ *     Applies the same change to any number of cases with bulk case update jobs instead of one PATCH per case.
+ * </p>
+ *
+ * <p>
+ *     The case ids are split into chunks of {@link #chunkSize(int)} ids, one job per chunk, and at most
+ *     {@link #maxConcurrentJobs(int)} jobs run at a time. Each running job is polled on the provided
+ *     {@link ScheduledExecutorService}; the poll interval adapts to the progress the job reports, polling about
+ *     twice before the expected completion and backing off while the job doesn't progress. No thread is blocked
+ *     while jobs run.
+ * </p>
+ *
+ * <p>
+ *     Every chunk is a {@link java.util.concurrent.Future} completed with the finished {@link Job}, or failed with
+ *     a {@link DeskApiException} when the job can't be created or polled, or finishes with a
+ *     {@link Job#getLastError()}. Canceling a chunk stops it from being submitted or polled and frees its job slot
+ *     for the next chunk, a job already running on the server isn't stopped.
+ * </p>
+ */
+public class BulkCaseUpdater {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+    public static final int DEFAULT_MAX_CONCURRENT_JOBS = 2;
+    public static final long DEFAULT_MIN_POLL_MILLIS = 500;
+    public static final long DEFAULT_MAX_POLL_MILLIS = 30000;
+    public static final int MAX_POLL_FAILURES = 5;
+
+    private static final int COMPLETE = 100;
+    private static final Callable<Job> NO_OP = new Callable<Job>() {
+        @Override
+        public Job call() {
+            return null;
+        }
+    };
+
+    private final DeskClient client;
+    private final ScheduledExecutorService scheduler;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private int maxConcurrentJobs = DEFAULT_MAX_CONCURRENT_JOBS;
+    private long minPollMillis = DEFAULT_MIN_POLL_MILLIS;
+    private long maxPollMillis = DEFAULT_MAX_POLL_MILLIS;
+
+    private final Deque<Chunk> pending = new ArrayDeque<>();
+    private int running;
+
+    /**
+     * Creates an updater
+     *
+     * @param client the client to create and poll the jobs with
+     * @param scheduler the executor jobs are created and polled on
+     */
+    public BulkCaseUpdater(@NotNull DeskClient client, @NotNull ScheduledExecutorService scheduler) {
+        this.client = client;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Sets the number of case ids per job
+     *
+     * @param chunkSize the number of case ids per job
+     * @return the updater instance
+     */
+    public BulkCaseUpdater chunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize < 1");
+        }
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of jobs running at a time
+     *
+     * @param maxConcurrentJobs the maximum number of jobs running at a time
+     * @return the updater instance
+     */
+    public BulkCaseUpdater maxConcurrentJobs(int maxConcurrentJobs) {
+        if (maxConcurrentJobs < 1) {
+            throw new IllegalArgumentException("maxConcurrentJobs < 1");
+        }
+        synchronized (pending) {
+            this.maxConcurrentJobs = maxConcurrentJobs;
+        }
+        return this;
+    }
+
+    /**
+     * Sets the bounds of the interval between two polls of a job
+     *
+     * @param min the minimum interval
+     * @param max the maximum interval
+     * @param unit the unit of the intervals
+     * @return the updater instance
+     */
+    public BulkCaseUpdater pollInterval(long min, long max, TimeUnit unit) {
+        if (min < 0 || max < min) {
+            throw new IllegalArgumentException("invalid poll interval");
+        }
+        this.minPollMillis = unit.toMillis(min);
+        this.maxPollMillis = unit.toMillis(max);
+        return this;
+    }
+
+    /**
+     * Updates cases in bulk
+     *
+     * @param changes the shallow case containing the changes
+     * @param caseIds the ids of the cases to update
+     * @return the chunks the cases were split into, in the order of the ids
+     */
+    @NotNull
+    public List<Chunk> update(@NotNull Case changes, @NotNull int... caseIds) {
+        List<Chunk> chunks = new ArrayList<>();
+        for (int from = 0; from < caseIds.length; from += chunkSize) {
+            int[] ids = Arrays.copyOfRange(caseIds, from, Math.min(from + chunkSize, caseIds.length));
+            chunks.add(new Chunk(this, changes, ids));
+        }
+        synchronized (pending) {
+            pending.addAll(chunks);
+        }
+        dispatch();
+        return Collections.unmodifiableList(chunks);
+    }
+
+    /**
+     * Gets the number of chunks waiting for a job slot
+     *
+     * @return the number of pending chunks
+     */
+    public int getPendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Gets the number of jobs being created or polled
+     *
+     * @return the number of running jobs
+     */
+    public int getRunningCount() {
+        synchronized (pending) {
+            return running;
+        }
+    }
+
+    private void dispatch() {
+        while (true) {
+            final Chunk chunk;
+            synchronized (pending) {
+                if (running >= maxConcurrentJobs || pending.isEmpty()) {
+                    return;
+                }
+                chunk = pending.poll();
+                chunk.holdsSlot = true;
+                running++;
+            }
+            schedule(chunk, new Runnable() {
+                @Override
+                public void run() {
+                    submit(chunk);
+                }
+            }, 0);
+        }
+    }
+
+    private void schedule(Chunk chunk, Runnable task, long delayMillis) {
+        try {
+            scheduler.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            finish(chunk, null, new DeskApiException("bulk case update scheduler rejected the job", e));
+        }
+    }
+
+    void submit(Chunk chunk) {
+        // a canceled chunk released its slot when it was canceled
+        if (chunk.isCancelled()) {
+            return;
+        }
+        Job job;
+        try {
+            job = execute(client.jobs().createBulkCaseUpdateJob(new BulkCaseUpdateRequest(chunk.changes, chunk.ids)));
+        } catch (DeskApiException e) {
+            finish(chunk, null, e);
+            return;
+        }
+        chunk.job = job;
+        chunk.lastProgress = job.getProgress();
+        chunk.lastPollNanos = System.nanoTime();
+        onJob(chunk, job);
+    }
+
+    void poll(Chunk chunk) {
+        if (chunk.isCancelled()) {
+            return;
+        }
+        Job job;
+        try {
+            job = execute(client.jobs().getJobById(chunk.job.getId()));
+        } catch (DeskApiException e) {
+            if (++chunk.pollFailures >= MAX_POLL_FAILURES) {
+                finish(chunk, null, e);
+            } else {
+                schedulePoll(chunk, Math.min(maxPollMillis, minPollMillis << chunk.pollFailures));
+            }
+            return;
+        }
+        chunk.pollFailures = 0;
+        chunk.job = job;
+        onJob(chunk, job);
+    }
+
+    private void onJob(Chunk chunk, Job job) {
+        if (job.getCompletedAt() != null) {
+            if (!StringUtils.isEmpty(job.getLastError())) {
+                finish(chunk, null, new DeskApiException("bulk case update job " + job.getId() + " failed: "
+                        + job.getLastError(), DeskApiException.NO_RESPONSE));
+            } else {
+                finish(chunk, job, null);
+            }
+            return;
+        }
+        long now = System.nanoTime();
+        long delay = nextPollMillis(chunk.lastProgress, job.getProgress(),
+                TimeUnit.NANOSECONDS.toMillis(now - chunk.lastPollNanos), chunk.lastDelayMillis);
+        chunk.lastProgress = job.getProgress();
+        chunk.lastPollNanos = now;
+        chunk.lastDelayMillis = delay;
+        schedulePoll(chunk, delay);
+    }
+
+    /**
+     * Estimates when to poll a job next from the progress made since the previous poll
+     *
+     * @param previousProgress the progress at the previous poll
+     * @param progress the current progress
+     * @param elapsedMillis the time since the previous poll
+     * @param previousDelayMillis the previous interval or 0 for the first one
+     * @return the interval until the next poll
+     */
+    long nextPollMillis(int previousProgress, int progress, long elapsedMillis, long previousDelayMillis) {
+        long delay;
+        if (progress > previousProgress && elapsedMillis > 0) {
+            // poll about twice before the job is expected to complete at its current rate
+            long remainingMillis = elapsedMillis * (COMPLETE - Math.min(progress, COMPLETE)) / (progress - previousProgress);
+            delay = remainingMillis / 2;
+        } else if (previousDelayMillis > 0) {
+            delay = previousDelayMillis * 2;
+        } else {
+            delay = minPollMillis;
+        }
+        return Math.max(minPollMillis, Math.min(maxPollMillis, delay));
+    }
+
+    private void schedulePoll(final Chunk chunk, long delayMillis) {
+        schedule(chunk, new Runnable() {
+            @Override
+            public void run() {
+                poll(chunk);
+            }
+        }, delayMillis);
+    }
+
+    private void finish(Chunk chunk, @Nullable Job job, @Nullable Throwable error) {
+        // release the slot before completing so a caller woken by the chunk never sees it running
+        release(chunk);
+        if (error != null) {
+            chunk.result.setException(error);
+        } else {
+            chunk.result.set(job);
+        }
+        dispatch();
+    }
+
+    /**
+     * Removes a canceled chunk from the queue or frees its job slot right away instead of at its next poll
+     */
+    void onCancel(Chunk chunk) {
+        release(chunk);
+        dispatch();
+    }
+
+    private void release(Chunk chunk) {
+        synchronized (pending) {
+            if (chunk.holdsSlot) {
+                chunk.holdsSlot = false;
+                running--;
+            } else {
+                pending.remove(chunk);
+            }
+        }
+    }
+
+    private static Job execute(Call<Job> call) {
+        Response<Job> response;
+        try {
+            response = call.execute();
+        } catch (IOException e) {
+            throw DeskApiException.fromIOException(e);
+        }
+        if (!response.isSuccessful() || response.body() == null) {
+            throw DeskApiException.fromResponse(response);
+        }
+        return response.body();
+    }
+
+    /**
+     * A chunk of case ids updated by one job, completed with the finished job
+     */
+    public static final class Chunk implements Future<Job> {
+
+        private final BulkCaseUpdater updater;
+        private final Result result = new Result();
+        private final Case changes;
+        private final int[] ids;
+        private volatile Job job;
+        private int lastProgress;
+        private long lastPollNanos;
+        private long lastDelayMillis;
+        private int pollFailures;
+        // guarded by the updater's pending queue
+        private boolean holdsSlot;
+
+        Chunk(BulkCaseUpdater updater, Case changes, int[] ids) {
+            this.updater = updater;
+            this.changes = changes;
+            this.ids = ids;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (!result.cancel(false)) {
+                return false;
+            }
+            updater.onCancel(this);
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return result.isCancelled();
+        }
+
+        @Override
+        public boolean isDone() {
+            return result.isDone();
+        }
+
+        @Override
+        public Job get() throws InterruptedException, ExecutionException {
+            return result.get();
+        }
+
+        @Override
+        public Job get(long timeout, @NotNull TimeUnit unit)
+                throws InterruptedException, ExecutionException, TimeoutException {
+            return result.get(timeout, unit);
+        }
+
+        /**
+         * @return the ids of the cases updated by this chunk
+         */
+        @NotNull
+        public int[] getCaseIds() {
+            return ids.clone();
+        }
+
+        /**
+         * @return the job as of its last poll or null if it hasn't been created yet
+         */
+        @Nullable
+        public Job getJob() {
+            return job;
+        }
+
+        /**
+         * @return the progress of the job as of its last poll
+         */
+        public int getProgress() {
+            Job current = job;
+            return current != null ? current.getProgress() : 0;
+        }
+    }
+
+    /**
+     * The outcome of a chunk, only ever completed by the updater as it is never run
+     */
+    private static final class Result extends FutureTask<Job> {
+
+        Result() {
+            super(NO_OP);
+        }
+
+        @Override
+        public void set(Job job) {
+            super.set(job);
+        }
+
+        @Override
+        public void setException(Throwable error) {
+            super.setException(error);
+        }
+    }
+}
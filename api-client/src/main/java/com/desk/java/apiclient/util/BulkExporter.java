@@ -0,0 +1,476 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import com.desk.java.apiclient.DeskApiException;
+import com.desk.java.apiclient.DeskClient;
+import com.desk.java.apiclient.model.ApiResponse;
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.model.Company;
+import com.desk.java.apiclient.model.Customer;
+import com.desk.java.apiclient.model.Fields;
+import com.desk.java.apiclient.model.Opportunity;
+import com.desk.java.apiclient.model.SortDirection;
+import com.google.gson.Gson;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Date;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import retrofit2.Call;
+
+/**
+ * <p>
+ *     Exports every entity of a list endpoint to a gzipped, newline delimited JSON file ({@code name.ndjson.gz}),
+ *     one entity per line, and resumes an interrupted export where it stopped.
+ * </p>
+ *
+ * <p>
+ *     Entities are streamed from the response body ({@link DeskClient#streamPage(Call, Class)}) and written as they
+ *     are read, so memory use doesn't depend on the page size. Each page is written as its own gzip member and,
+ *     once it is synced to disk, a {@link Checkpoint} ({@code name.checkpoint}) records the page, the length of
+ *     the file and the newest {@code updated_at} exported. Running the same export again truncates whatever was
+ *     written after the last checkpoint and continues with the next page. Concatenated gzip members are read as a
+ *     single stream by {@link java.util.zip.GZIPInputStream} and {@code zcat}.
+ * </p>
+ *
+ * <p>
+ *     Pages are requested by number, so the list must keep a stable order while it's exported. The built in
+ *     exports sort by {@code created_at} ascending where the endpoint allows it.
+ * </p>
+ */
+public class BulkExporter {
+
+    public static final int PER_PAGE = 100;
+    public static final String SORT_FIELD = "created_at";
+
+    static final String OUTPUT_SUFFIX = ".ndjson.gz";
+    static final String CHECKPOINT_SUFFIX = ".checkpoint";
+
+    private final DeskClient client;
+    private final File directory;
+    private Fields fields = Fields.all();
+
+    /**
+     * Creates an exporter
+     *
+     * @param client the client to read the entities with
+     * @param directory the directory the exports and their checkpoints are written to
+     */
+    public BulkExporter(@NotNull DeskClient client, @NotNull File directory) {
+        this.client = client;
+        this.directory = directory;
+    }
+
+    /**
+     * Sets the fields exported by {@link #exportCases(long)}, {@link #exportCustomers(String, String)},
+     * {@link #exportCompanies(String, String)} and {@link #exportOpportunities(long)}. Every field is exported by
+     * default, overriding the client's default projection.
+     *
+     * @param fields the fields, which must include {@code id} and {@code updated_at}, or null to use the client's default projection
+     * @return the exporter instance
+     */
+    public BulkExporter fields(@Nullable Fields fields) {
+        this.fields = fields;
+        return this;
+    }
+
+    /**
+     * Exports the cases of a filter to {@code cases-filter-<filterId>}
+     */
+    public Result exportCases(final long filterId) throws IOException {
+        return export("cases-filter-" + filterId, Case.class, new PageRequest<Case>() {
+            @Override
+            public Call<ApiResponse<Case>> page(int page) {
+                return client.cases().getCasesByFilter(filterId, PER_PAGE, page, SORT_FIELD, SortDirection.ASC,
+                        null, fields);
+            }
+        }, ChangeFeed.CASES);
+    }
+
+    /**
+     * Exports the customers matching a search to {@code name}
+     */
+    public Result exportCustomers(String name, final String query) throws IOException {
+        return export(name, Customer.class, new PageRequest<Customer>() {
+            @Override
+            public Call<ApiResponse<Customer>> page(int page) {
+                return client.customers().searchCustomers(query, null, PER_PAGE, page, SORT_FIELD,
+                        SortDirection.ASC, fields);
+            }
+        }, ChangeFeed.CUSTOMERS);
+    }
+
+    /**
+     * Exports the companies matching a search to {@code name}
+     */
+    public Result exportCompanies(String name, final String query) throws IOException {
+        return export(name, Company.class, new PageRequest<Company>() {
+            @Override
+            public Call<ApiResponse<Company>> page(int page) {
+                return client.companies().searchCompanies(query, PER_PAGE, page, SORT_FIELD, SortDirection.ASC,
+                        fields);
+            }
+        }, ChangeFeed.COMPANIES);
+    }
+
+    /**
+     * Exports the opportunities of a filter to {@code opportunities-filter-<filterId>}
+     */
+    public Result exportOpportunities(final long filterId) throws IOException {
+        return export("opportunities-filter-" + filterId, Opportunity.class, new PageRequest<Opportunity>() {
+            @Override
+            public Call<ApiResponse<Opportunity>> page(int page) {
+                return client.opportunities().getOpportunitiesByFilter(filterId, PER_PAGE, page, null, fields);
+            }
+        }, ChangeFeed.OPPORTUNITIES);
+    }
+
+    /**
+     * Exports every page of a list, resuming from its checkpoint if a previous run didn't complete. An export
+     * which already completed isn't run again until it's {@link #reset(String)}.
+     *
+     * @param name the name of the export, used for its file names
+     * @param type the type of the entities
+     * @param request creates the call for each page
+     * @param accessor reads the update time of the entities
+     * @param <T> the type of the entities
+     * @return the result of this run
+     * @throws IOException if the export or its checkpoint can't be written
+     * @throws DeskApiException if a page can't be read, the export can then be resumed
+     */
+    @NotNull
+    public <T extends Serializable> Result export(@NotNull String name, @NotNull Class<T> type,
+                                                  @NotNull PageRequest<T> request,
+                                                  @NotNull ChangeFeed.Accessor<T> accessor) throws IOException {
+        Checkpoint checkpoint = readCheckpoint(name);
+        if (checkpoint == null) {
+            checkpoint = new Checkpoint(name, 0, 1, 0, 0, 0, false);
+        }
+        long start = System.nanoTime();
+        int pages = 0;
+        long entities = 0;
+        if (checkpoint.isCompleted()) {
+            return new Result(checkpoint, pages, entities, 0);
+        }
+
+        File output = getOutputFile(name);
+        truncate(output, checkpoint.getBytes());
+        Gson gson = client.getGson();
+        try (FileOutputStream out = new FileOutputStream(output, true)) {
+            int page = checkpoint.getNextPage();
+            while (page > 0) {
+                StreamingPage<T> entries = client.streamPage(request.page(page), type);
+                long updatedAt = checkpoint.updatedAt;
+                long count = 0;
+                // closing the writer finishes the gzip member and releases its deflater but leaves the file open
+                try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                        new GZIPOutputStream(new UnclosableOutputStream(out), 8192), StandardCharsets.UTF_8))) {
+                    while (entries.hasNext()) {
+                        T entity = entries.next();
+                        gson.toJson(entity, type, writer);
+                        writer.write('\n');
+                        count++;
+                        Date date = accessor.updatedAt(entity);
+                        if (date != null && date.getTime() > updatedAt) {
+                            updatedAt = date.getTime();
+                        }
+                    }
+                } finally {
+                    entries.close();
+                }
+                // make the page durable before checkpointing
+                out.flush();
+                out.getFD().sync();
+
+                int next = entries.getNextPage();
+                checkpoint = new Checkpoint(name, page, next, output.length(), checkpoint.getEntities() + count,
+                        updatedAt, next == 0);
+                writeCheckpoint(checkpoint);
+                pages++;
+                entities += count;
+                page = next;
+            }
+        }
+        return new Result(checkpoint, pages, entities, System.nanoTime() - start);
+    }
+
+    /**
+     * Reads the checkpoint of an export
+     *
+     * @param name the name of the export
+     * @return the checkpoint or null if the export hasn't written a page yet
+     * @throws IOException if the checkpoint can't be read
+     */
+    @Nullable
+    public Checkpoint readCheckpoint(@NotNull String name) throws IOException {
+        File file = getCheckpointFile(name);
+        if (!file.exists()) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+        }
+        try {
+            return new Checkpoint(
+                    properties.getProperty("name", name),
+                    Integer.parseInt(properties.getProperty("page")),
+                    Integer.parseInt(properties.getProperty("next_page")),
+                    Long.parseLong(properties.getProperty("bytes")),
+                    Long.parseLong(properties.getProperty("entities")),
+                    Long.parseLong(properties.getProperty("updated_at")),
+                    Boolean.parseBoolean(properties.getProperty("completed")));
+        } catch (NumberFormatException e) {
+            throw new IOException("invalid checkpoint " + file, e);
+        }
+    }
+
+    /**
+     * Deletes an export and its checkpoint so the next run starts from the first page
+     *
+     * @param name the name of the export
+     * @throws IOException if the files can't be deleted
+     */
+    public void reset(@NotNull String name) throws IOException {
+        Files.deleteIfExists(getCheckpointFile(name).toPath());
+        Files.deleteIfExists(getOutputFile(name).toPath());
+    }
+
+    @NotNull
+    public File getOutputFile(@NotNull String name) {
+        return new File(directory, name + OUTPUT_SUFFIX);
+    }
+
+    @NotNull
+    public File getCheckpointFile(@NotNull String name) {
+        return new File(directory, name + CHECKPOINT_SUFFIX);
+    }
+
+    private void writeCheckpoint(Checkpoint checkpoint) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("name", checkpoint.getName());
+        properties.setProperty("page", String.valueOf(checkpoint.getPage()));
+        properties.setProperty("next_page", String.valueOf(checkpoint.getNextPage()));
+        properties.setProperty("bytes", String.valueOf(checkpoint.getBytes()));
+        properties.setProperty("entities", String.valueOf(checkpoint.getEntities()));
+        properties.setProperty("updated_at", String.valueOf(checkpoint.updatedAt));
+        properties.setProperty("completed", String.valueOf(checkpoint.isCompleted()));
+
+        // replace the previous checkpoint atomically so a crash never leaves a partial one
+        File file = getCheckpointFile(checkpoint.getName());
+        File temp = new File(directory, file.getName() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            properties.store(out, null);
+            out.getFD().sync();
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void truncate(File output, long bytes) throws IOException {
+        if (!output.exists()) {
+            if (bytes > 0) {
+                throw new IOException("missing export " + output);
+            }
+            return;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(output, "rw")) {
+            if (file.length() < bytes) {
+                throw new IOException("export " + output + " is shorter than its checkpoint");
+            }
+            file.setLength(bytes);
+        }
+    }
+
+    /**
+     * An output stream which is flushed but left open when closed
+     */
+    private static final class UnclosableOutputStream extends FilterOutputStream {
+
+        UnclosableOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(@NotNull byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+    /**
+     * The progress of an export, written after each page
+     */
+    public static final class Checkpoint {
+
+        private final String name;
+        private final int page;
+        private final int nextPage;
+        private final long bytes;
+        private final long entities;
+        private final long updatedAt;
+        private final boolean completed;
+
+        Checkpoint(String name, int page, int nextPage, long bytes, long entities, long updatedAt,
+                   boolean completed) {
+            this.name = name;
+            this.page = page;
+            this.nextPage = nextPage;
+            this.bytes = bytes;
+            this.entities = entities;
+            this.updatedAt = updatedAt;
+            this.completed = completed;
+        }
+
+        /**
+         * @return the name of the export
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the last page written
+         */
+        public int getPage() {
+            return page;
+        }
+
+        /**
+         * @return the page the export resumes from or 0 if it completed
+         */
+        public int getNextPage() {
+            return nextPage;
+        }
+
+        /**
+         * @return the length of the export file after the last page
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * @return the number of entities written
+         */
+        public long getEntities() {
+            return entities;
+        }
+
+        /**
+         * @return the newest update time exported or null if no entity had one
+         */
+        @Nullable
+        public Date getUpdatedAt() {
+            return updatedAt > 0 ? new Date(updatedAt) : null;
+        }
+
+        public boolean isCompleted() {
+            return completed;
+        }
+    }
+
+    /**
+     * The result of one run of an export
+     */
+    public static final class Result {
+
+        private final Checkpoint checkpoint;
+        private final int pages;
+        private final long entities;
+        private final long elapsedNanos;
+
+        Result(Checkpoint checkpoint, int pages, long entities, long elapsedNanos) {
+            this.checkpoint = checkpoint;
+            this.pages = pages;
+            this.entities = entities;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * @return the checkpoint after this run
+         */
+        @NotNull
+        public Checkpoint getCheckpoint() {
+            return checkpoint;
+        }
+
+        /**
+         * @return the number of pages written by this run
+         */
+        public int getPages() {
+            return pages;
+        }
+
+        /**
+         * @return the number of entities written by this run
+         */
+        public long getEntities() {
+            return entities;
+        }
+
+        public long getElapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        }
+
+        /**
+         * @return the throughput of this run in entities per second
+         */
+        public double getEntitiesPerSecond() {
+            return elapsedNanos > 0 ? entities * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d entities in %d pages, %d ms (%.1f entities/s)", checkpoint.getName(),
+                    entities, pages, getElapsedMillis(), getEntitiesPerSecond());
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import com.desk.java.apiclient.DeskApiException;
+import com.desk.java.apiclient.model.ApiResponse;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * <p>
+ *     Fetches every page of a paginated endpoint concurrently. The first page is fetched on the calling thread
+ *     to learn {@code total_entries} and the page size, then the remaining pages are requested on the provided
+ *     {@link Executor} with at most {@link #parallelism(int)} requests in flight.
+ * </p>
+ *
+ * <p>
+ *     Entries are handed to the {@link EntryHandler} on the calling thread, either in page order (the default)
+ *     or in the order pages complete. At most {@code parallelism} pages are held in memory at a time.
+ * </p>
+ *
+ * @param <T> the type of the entries
+ */
+public class BulkPageFetcher<T extends Serializable> {
+
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    private static final String PER_PAGE_PARAM = "per_page";
+
+    private final PageRequest<T> request;
+    private final Executor executor;
+    private int parallelism = DEFAULT_PARALLELISM;
+    private boolean ordered = true;
+
+    /**
+     * Creates a fetcher
+     *
+     * @param request creates the call for each page
+     * @param executor the executor to fetch pages on
+     */
+    public BulkPageFetcher(@NotNull PageRequest<T> request, @NotNull Executor executor) {
+        this.request = request;
+        this.executor = executor;
+    }
+
+    /**
+     * Sets the maximum number of pages requested concurrently
+     *
+     * @param parallelism the maximum number of concurrent requests
+     * @return the fetcher instance
+     */
+    public BulkPageFetcher<T> parallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Sets whether entries are emitted in page order or as soon as their page completes
+     *
+     * @param ordered true to emit entries in page order
+     * @return the fetcher instance
+     */
+    public BulkPageFetcher<T> ordered(boolean ordered) {
+        this.ordered = ordered;
+        return this;
+    }
+
+    /**
+     * Fetches every page and hands each entry to the handler on the calling thread
+     *
+     * @param handler receives the entries
+     * @return the number of entries handled
+     * @throws DeskApiException if a page fails to load, in which case outstanding requests are cancelled
+     */
+    public int fetch(@NotNull EntryHandler<? super T> handler) {
+        ApiResponse<T> first = Pager.execute(request.page(1));
+        int handled = emit(first, handler);
+        if (Pager.nextPage(first, 1) == 0) {
+            return handled;
+        }
+
+        int perPage = perPage(first);
+        // the first page links to a second one even if total_entries is missing or stale
+        int lastPage = Math.max(2, perPage > 0 ? (first.getTotalEntries() + perPage - 1) / perPage : 2);
+        CompletionService<FetchedPage<T>> completion = new ExecutorCompletionService<>(executor);
+        Deque<Future<FetchedPage<T>>> inFlight = new ArrayDeque<>();
+        int nextToSubmit = 2;
+
+        try {
+            while (nextToSubmit <= lastPage || !inFlight.isEmpty()) {
+                while (nextToSubmit <= lastPage && inFlight.size() < parallelism) {
+                    inFlight.addLast(submit(completion, fetchPage(nextToSubmit++)));
+                }
+
+                FetchedPage<T> page;
+                if (ordered) {
+                    page = inFlight.removeFirst().get();
+                } else {
+                    Future<FetchedPage<T>> done = completion.take();
+                    inFlight.remove(done);
+                    page = done.get();
+                }
+                handled += emit(page.response, handler);
+
+                // entries were added since the first page, keep going past the computed last page
+                if (page.number >= lastPage && Pager.nextPage(page.response, page.number) != 0) {
+                    lastPage = Math.max(lastPage, page.number + 1);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DeskApiException("Interrupted while fetching pages", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DeskApiException) {
+                throw (DeskApiException) e.getCause();
+            }
+            throw new DeskApiException("Failed to fetch page", e.getCause());
+        } finally {
+            for (Future<FetchedPage<T>> future : inFlight) {
+                future.cancel(true);
+            }
+        }
+        return handled;
+    }
+
+    private Future<FetchedPage<T>> submit(CompletionService<FetchedPage<T>> completion,
+                                          Callable<FetchedPage<T>> task) {
+        if (!ordered) {
+            return completion.submit(task);
+        }
+        // ordered pages are awaited directly, keep them out of the completion queue so they can be collected
+        FutureTask<FetchedPage<T>> future = new FutureTask<>(task);
+        executor.execute(future);
+        return future;
+    }
+
+    private Callable<FetchedPage<T>> fetchPage(final int page) {
+        return new Callable<FetchedPage<T>>() {
+            @Override
+            public FetchedPage<T> call() throws Exception {
+                return new FetchedPage<>(page, Pager.execute(request.page(page)));
+            }
+        };
+    }
+
+    private static <T extends Serializable> int emit(ApiResponse<T> page, EntryHandler<? super T> handler) {
+        T[] entries = page.getEntries();
+        if (entries == null) {
+            return 0;
+        }
+        for (T entry : entries) {
+            handler.onEntry(entry);
+        }
+        return entries.length;
+    }
+
+    private static int perPage(ApiResponse<?> first) {
+        String perPage = Pager.linkQueryParameter(first.getLinks().getNext(), PER_PAGE_PARAM);
+        if (!StringUtils.isEmpty(perPage) && StringUtils.isDigitsOnly(perPage)) {
+            return Integer.parseInt(perPage);
+        }
+        return first.getEntries() != null ? first.getEntries().length : 0;
+    }
+
+    /**
+     * A fetched page and the number it was requested with. The response may be shared with coalesced callers
+     * so the number is kept here rather than set on it.
+     */
+    private static final class FetchedPage<T extends Serializable> {
+
+        final int number;
+        final ApiResponse<T> response;
+
+        FetchedPage(int number, ApiResponse<T> response) {
+            this.number = number;
+            this.response = response;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import okhttp3.Cache;
+
+/**
+ * <p>
+ *     A snapshot of the response cache counters of a client.
+ * </p>
+ *
+ * <p>
+ *     A hit is served from the cache without touching the network, a conditional hit is revalidated with a
+ *     {@code 304 Not Modified} and reuses the cached body, and a miss downloads the full response. The counters of
+ *     a {@link Cache} shared between clients include the requests of all of them.
+ * </p>
+ */
+public final class CacheStats {
+
+    private final long requestCount;
+    private final long hitCount;
+    private final long conditionalHitCount;
+    private final long missCount;
+
+    CacheStats(long requestCount, long hitCount, long conditionalHitCount, long missCount) {
+        this.requestCount = requestCount;
+        this.hitCount = hitCount;
+        this.conditionalHitCount = conditionalHitCount;
+        this.missCount = missCount;
+    }
+
+    /**
+     * Creates a snapshot from the counters of a cache and the conditional hits seen by an interceptor
+     *
+     * @param cache the response cache
+     * @param interceptor the interceptor counting conditional hits
+     * @return the snapshot
+     */
+    public static CacheStats of(Cache cache, ConditionalCacheInterceptor interceptor) {
+        long requests;
+        long hits;
+        long network;
+        synchronized (cache) {
+            requests = cache.requestCount();
+            hits = cache.hitCount();
+            network = cache.networkCount();
+        }
+        // the cache counts a 304 both as a network request and as a hit
+        long conditionalHits = Math.min(interceptor.getConditionalHitCount(), Math.min(hits, network));
+        return new CacheStats(requests, hits - conditionalHits, conditionalHits, network - conditionalHits);
+    }
+
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getConditionalHitCount() {
+        return conditionalHitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{requests=" + requestCount + ", hits=" + hitCount + ", conditionalHits="
+                + conditionalHitCount + ", misses=" + missCount + "}";
+    }
+}
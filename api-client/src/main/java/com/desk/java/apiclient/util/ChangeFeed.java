@@ -0,0 +1,374 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import com.desk.java.apiclient.DeskApiException;
+import com.desk.java.apiclient.DeskClient;
+import com.desk.java.apiclient.model.ApiResponse;
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.model.Company;
+import com.desk.java.apiclient.model.Customer;
+import com.desk.java.apiclient.model.Fields;
+import com.desk.java.apiclient.model.Opportunity;
+import com.desk.java.apiclient.model.SortDirection;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+
+import retrofit2.Call;
+
+/**
+ * <p>
+ *     Polls a list sorted by {@code updated_at} descending and emits only the entities which changed since the
+ *     previous poll, so a sync can stay current without scanning every page.
+ * </p>
+ *
+ * <p>
+ *     A poll walks the pages newest first and stops at the first entity older than the {@link Checkpoint}. The
+ *     checkpoint remembers the newest {@code updated_at} emitted and the ids emitted at exactly that time, so
+ *     entities sharing the boundary timestamp are neither lost nor emitted twice. Entities shifting between pages
+ *     while a poll runs are emitted once per poll.
+ * </p>
+ *
+ * <p>
+ *     The checkpoint only advances once a poll completes, so a failed poll is retried from the previous
+ *     checkpoint and entities are delivered at least once. Persist {@link #getCheckpoint()} (ex: as its
+ *     {@link Checkpoint#toString()}) after each poll to resume after a restart.
+ * </p>
+ *
+ * @param <T> the type of the entities
+ */
+public class ChangeFeed<T extends Serializable> {
+
+    public static final String SORT_FIELD = "updated_at";
+
+    /**
+     * Reads the id and update time of an entity
+     *
+     * @param <T> the type of the entities
+     */
+    public interface Accessor<T> {
+
+        long id(T entity);
+
+        @Nullable
+        Date updatedAt(T entity);
+    }
+
+    static final Accessor<Case> CASES = new Accessor<Case>() {
+        @Override
+        public long id(Case entity) {
+            return entity.getId();
+        }
+
+        @Override
+        public Date updatedAt(Case entity) {
+            return entity.getUpdatedAt();
+        }
+    };
+
+    static final Accessor<Customer> CUSTOMERS = new Accessor<Customer>() {
+        @Override
+        public long id(Customer entity) {
+            return entity.getId();
+        }
+
+        @Override
+        public Date updatedAt(Customer entity) {
+            return entity.getUpdatedAt();
+        }
+    };
+
+    static final Accessor<Company> COMPANIES = new Accessor<Company>() {
+        @Override
+        public long id(Company entity) {
+            return entity.getId();
+        }
+
+        @Override
+        public Date updatedAt(Company entity) {
+            return entity.getUpdatedAt();
+        }
+    };
+
+    static final Accessor<Opportunity> OPPORTUNITIES = new Accessor<Opportunity>() {
+        @Override
+        public long id(Opportunity entity) {
+            return entity.getId();
+        }
+
+        @Override
+        public Date updatedAt(Opportunity entity) {
+            return entity.getUpdatedAt();
+        }
+    };
+
+    private final PageRequest<T> request;
+    private final Accessor<T> accessor;
+    private volatile Checkpoint checkpoint;
+
+    /**
+     * Creates a change feed
+     *
+     * @param request creates the call for each page, which must be sorted by {@code updated_at} descending
+     * @param accessor reads the id and update time of the entities
+     * @param checkpoint the checkpoint to resume from or null to emit every entity on the first poll
+     */
+    public ChangeFeed(@NotNull PageRequest<T> request, @NotNull Accessor<T> accessor, @Nullable Checkpoint checkpoint) {
+        this.request = request;
+        this.accessor = accessor;
+        this.checkpoint = checkpoint != null ? checkpoint : Checkpoint.INITIAL;
+    }
+
+    /**
+     * Creates a change feed of the cases of a filter
+     *
+     * @param fields the fields to request, which must include {@code id} and {@code updated_at}, or null to use
+     *               the client's default projection
+     */
+    public static ChangeFeed<Case> cases(final DeskClient client, final long filterId, final int perPage,
+                                         @Nullable final Fields fields, @Nullable Checkpoint checkpoint) {
+        return new ChangeFeed<>(new PageRequest<Case>() {
+            @Override
+            public Call<ApiResponse<Case>> page(int page) {
+                return client.cases().getCasesByFilter(filterId, perPage, page, SORT_FIELD, SortDirection.DESC,
+                        null, fields);
+            }
+        }, CASES, checkpoint);
+    }
+
+    /**
+     * Creates a change feed of the customers of a filter
+     *
+     * @param fields the fields to request, which must include {@code id} and {@code updated_at}, or null to use
+     *               the client's default projection
+     */
+    public static ChangeFeed<Customer> customers(final DeskClient client, final long filterId, final int perPage,
+                                                 @Nullable final Fields fields, @Nullable Checkpoint checkpoint) {
+        return new ChangeFeed<>(new PageRequest<Customer>() {
+            @Override
+            public Call<ApiResponse<Customer>> page(int page) {
+                return client.customers().getCustomersByFilterObservable(filterId, perPage, page, SORT_FIELD,
+                        SortDirection.DESC, null, fields);
+            }
+        }, CUSTOMERS, checkpoint);
+    }
+
+    /**
+     * Creates a change feed of the companies of a filter
+     *
+     * @param fields the fields to request, which must include {@code id} and {@code updated_at}, or null to use
+     *               the client's default projection
+     */
+    public static ChangeFeed<Company> companies(final DeskClient client, final long filterId, final int perPage,
+                                                @Nullable final Fields fields, @Nullable Checkpoint checkpoint) {
+        return new ChangeFeed<>(new PageRequest<Company>() {
+            @Override
+            public Call<ApiResponse<Company>> page(int page) {
+                return client.companies().getCompaniesByFilter(filterId, perPage, page, SORT_FIELD,
+                        SortDirection.DESC, fields);
+            }
+        }, COMPANIES, checkpoint);
+    }
+
+    /**
+     * Creates a change feed of the opportunities matching a search
+     *
+     * @param fields the fields to request, which must include {@code id} and {@code updated_at}, or null to use
+     *               the client's default projection
+     */
+    public static ChangeFeed<Opportunity> opportunities(final DeskClient client, final String query, final int perPage,
+                                                        @Nullable final Fields fields,
+                                                        @Nullable Checkpoint checkpoint) {
+        return new ChangeFeed<>(new PageRequest<Opportunity>() {
+            @Override
+            public Call<ApiResponse<Opportunity>> page(int page) {
+                return client.opportunities().searchOpportunities(query, perPage, page, SORT_FIELD,
+                        SortDirection.DESC, null, fields);
+            }
+        }, OPPORTUNITIES, checkpoint);
+    }
+
+    /**
+     * Emits the entities which changed since the previous poll, newest first, and advances the checkpoint
+     *
+     * @param handler receives each changed entity
+     * @return the number of entities emitted
+     * @throws DeskApiException if a page could not be fetched, the checkpoint is then left unchanged
+     */
+    public synchronized int poll(@NotNull EntryHandler<T> handler) {
+        Checkpoint from = checkpoint;
+        Set<Long> seen = new HashSet<>();
+        long newest = from.updatedAt;
+        Set<Long> newestIds = new HashSet<>(from.ids);
+
+        Pager.PageIterator<T> entries = new Pager<>(request).iterator();
+        try {
+            while (entries.hasNext()) {
+                T entity = entries.next();
+                long id = accessor.id(entity);
+                Date date = accessor.updatedAt(entity);
+                long updatedAt = date != null ? date.getTime() : 0;
+                if (updatedAt < from.updatedAt) {
+                    break;
+                }
+                if (updatedAt == from.updatedAt && from.ids.contains(id) || !seen.add(id)) {
+                    continue;
+                }
+                if (updatedAt > newest) {
+                    newest = updatedAt;
+                    newestIds.clear();
+                }
+                if (updatedAt == newest) {
+                    newestIds.add(id);
+                }
+                handler.onEntry(entity);
+            }
+        } finally {
+            entries.close();
+        }
+
+        if (!seen.isEmpty()) {
+            checkpoint = new Checkpoint(newest, newestIds);
+        }
+        return seen.size();
+    }
+
+    /**
+     * Gets the checkpoint of the last completed poll
+     *
+     * @return the checkpoint
+     */
+    @NotNull
+    public Checkpoint getCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * The high water mark of a {@link ChangeFeed}: the newest {@code updated_at} emitted and the ids emitted at
+     * exactly that time.
+     */
+    public static final class Checkpoint implements Serializable {
+
+        private static final long serialVersionUID = -3022531958546328742L;
+
+        static final Checkpoint INITIAL = new Checkpoint(Long.MIN_VALUE, Collections.<Long>emptySet());
+
+        private final long updatedAt;
+        private final Set<Long> ids;
+
+        Checkpoint(long updatedAt, Set<Long> ids) {
+            this.updatedAt = updatedAt;
+            this.ids = Collections.unmodifiableSet(new HashSet<>(ids));
+        }
+
+        /**
+         * Creates a checkpoint emitting the entities updated at or after a time
+         *
+         * @param updatedAt the time
+         * @return the checkpoint
+         */
+        public static Checkpoint since(@NotNull Date updatedAt) {
+            return new Checkpoint(updatedAt.getTime(), Collections.<Long>emptySet());
+        }
+
+        /**
+         * Parses a checkpoint persisted with {@link #toString()}
+         *
+         * @param value the persisted checkpoint
+         * @return the checkpoint
+         * @throws IllegalArgumentException if the value isn't a checkpoint
+         */
+        public static Checkpoint parse(@NotNull String value) {
+            int separator = value.indexOf(':');
+            try {
+                if (separator < 0) {
+                    return new Checkpoint(Long.parseLong(value), Collections.<Long>emptySet());
+                }
+                Set<Long> ids = new HashSet<>();
+                for (String id : value.substring(separator + 1).split(",")) {
+                    if (!id.isEmpty()) {
+                        ids.add(Long.parseLong(id));
+                    }
+                }
+                return new Checkpoint(Long.parseLong(value.substring(0, separator)), ids);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("invalid checkpoint: " + value, e);
+            }
+        }
+
+        /**
+         * Gets the newest update time emitted
+         *
+         * @return the time or null for a feed which hasn't emitted anything yet
+         */
+        @Nullable
+        public Date getUpdatedAt() {
+            return updatedAt == Long.MIN_VALUE ? null : new Date(updatedAt);
+        }
+
+        /**
+         * Gets the ids emitted at exactly {@link #getUpdatedAt()}
+         *
+         * @return the ids
+         */
+        @NotNull
+        public Set<Long> getIds() {
+            return ids;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Checkpoint)) return false;
+            Checkpoint that = (Checkpoint) o;
+            return updatedAt == that.updatedAt && ids.equals(that.ids);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (int) (updatedAt ^ (updatedAt >>> 32)) + ids.hashCode();
+        }
+
+        /**
+         * Formats the checkpoint as {@code updatedAtMillis:id,id,...} for persistence
+         */
+        @Override
+        public String toString() {
+            Long[] sorted = ids.toArray(new Long[ids.size()]);
+            Arrays.sort(sorted);
+            return updatedAt + ":" + StringUtils.join(",", sorted);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.CacheControl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * <p>
+ *     A network {@link Interceptor} which makes single entity GETs (e.g. {@code /cases/1}) revalidate against the
+ *     response cache instead of being refetched in full.
+ * </p>
+ *
+ * <p>
+ *     Entity responses carrying a validator ({@code ETag} or {@code Last-Modified}) and no caching directive of
+ *     their own are marked {@code Cache-Control: no-cache}, so OkHttp stores them and sends {@code If-None-Match} /
+ *     {@code If-Modified-Since} on the next fetch. The entity is never served stale, but an unchanged one costs a
+ *     body-less {@code 304 Not Modified}. Responses which set their freshness ({@code max-age}, {@code s-maxage},
+ *     {@code Expires}) or restrict storage ({@code no-store}, {@code private}, {@code no-cache}) are left as the
+ *     server sent them. The number of {@code 304}s seen is available as {@link #getConditionalHitCount()}.
+ * </p>
+ *
+ * <p>
+ *     Install it as a network interceptor of a client with a response cache.
+ * </p>
+ */
+public class ConditionalCacheInterceptor implements Interceptor {
+
+    static final String HEADER_CACHE_CONTROL = "Cache-Control";
+    static final String HEADER_ETAG = "ETag";
+    static final String HEADER_LAST_MODIFIED = "Last-Modified";
+    static final String HEADER_EXPIRES = "Expires";
+    static final String HEADER_IF_NONE_MATCH = "If-None-Match";
+    static final String HEADER_IF_MODIFIED_SINCE = "If-Modified-Since";
+    static final int HTTP_NOT_MODIFIED = 304;
+
+    private final AtomicLong conditionalHits = new AtomicLong();
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        Response response = chain.proceed(request);
+
+        if (response.code() == HTTP_NOT_MODIFIED && isConditional(request)) {
+            conditionalHits.incrementAndGet();
+        }
+
+        if (!isEntityGet(request) || !hasValidator(response) || hasCachingDirective(response)) {
+            return response;
+        }
+        String cacheControl = response.header(HEADER_CACHE_CONTROL);
+        return response.newBuilder()
+                .header(HEADER_CACHE_CONTROL, cacheControl != null ? cacheControl + ", no-cache" : "no-cache")
+                .build();
+    }
+
+    /**
+     * Gets the number of conditional requests answered with {@code 304 Not Modified}
+     *
+     * @return the number of conditional hits
+     */
+    public long getConditionalHitCount() {
+        return conditionalHits.get();
+    }
+
+    static boolean isEntityGet(Request request) {
+        if (!"GET".equals(request.method())) {
+            return false;
+        }
+        List<String> segments = request.url().pathSegments();
+        String last = segments.get(segments.size() - 1);
+        return !last.isEmpty() && StringUtils.isDigitsOnly(last);
+    }
+
+    private static boolean isConditional(Request request) {
+        return request.header(HEADER_IF_NONE_MATCH) != null || request.header(HEADER_IF_MODIFIED_SINCE) != null;
+    }
+
+    private static boolean hasValidator(Response response) {
+        return response.header(HEADER_ETAG) != null || response.header(HEADER_LAST_MODIFIED) != null;
+    }
+
+    /**
+     * Checks whether the server set the freshness of a response or restricted its storage
+     */
+    private static boolean hasCachingDirective(Response response) {
+        CacheControl cacheControl = response.cacheControl();
+        return cacheControl.noStore() || cacheControl.isPrivate() || cacheControl.noCache()
+                || cacheControl.maxAgeSeconds() != -1 || cacheControl.sMaxAgeSeconds() != -1
+                || response.header(HEADER_EXPIRES) != null;
+    }
+}
@@ -0,0 +1,367 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import retrofit2.Call;
+import retrofit2.CallAdapter;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+
+/**
+ * <p>
+ *     A size bounded, in-memory cache of parsed entities and their validators, used to refetch single entities
+ *     (ex: {@code CaseService.getCaseById(id)}, {@code CustomerService.getCustomer(id)}) with conditional requests.
+ * </p>
+ *
+ * <p>
+ *     As a {@link CallAdapter.Factory}, it remembers the {@code ETag} and {@code Last-Modified} of every
+ *     successful GET to a path ending with an entity id together with the parsed entity, keyed by url. The next
+ *     fetch of the same url sends {@code If-None-Match} / {@code If-Modified-Since}, added by
+ *     {@link #interceptor()}, and a {@code 304 Not Modified} is answered with the remembered entity, without
+ *     parsing a body. Like a response cache hit, the response is a {@code 200} whose raw {@code networkResponse()}
+ *     is the {@code 304}. Entries are evicted in least recently used order once the cache is full.
+ * </p>
+ *
+ * <p>
+ *     The HTTP response cache ({@code DeskClientBuilder.responseCache(Cache)}) is the canonical cache: it applies
+ *     to every request, including RxJava services. This cache is an optional layer for {@link Call} services which
+ *     also saves parsing an unchanged entity. When both are set, a request carrying this cache's validators is
+ *     sent to the network and its {@code 304} is handled here rather than by the response cache.
+ * </p>
+ *
+ * <p>
+ *     Remembered entities are shared by every caller and must not be modified.
+ * </p>
+ */
+public class ConditionalRequestCache extends CallAdapter.Factory {
+
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    static final String HEADER_ETAG = "ETag";
+    static final String HEADER_LAST_MODIFIED = "Last-Modified";
+    static final String HEADER_IF_NONE_MATCH = "If-None-Match";
+    static final String HEADER_IF_MODIFIED_SINCE = "If-Modified-Since";
+    static final int HTTP_NOT_MODIFIED = 304;
+
+    private final int maxEntries;
+    private final LinkedHashMap<String, Entry> entries;
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong modified = new AtomicLong();
+    // the remembered entity of each call's request, keyed by the request's tag which is kept when an interceptor
+    // rebuilds the request, and held until the request (and any response to it) is collected
+    private final Map<Object, Entry> armed = Collections.synchronizedMap(new WeakHashMap<Object, Entry>());
+    private final Interceptor interceptor = new ValidatorInterceptor();
+
+    /**
+     * Creates a cache of {@link #DEFAULT_MAX_ENTRIES} entries
+     */
+    public ConditionalRequestCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Creates a cache
+     *
+     * @param maxEntries the maximum number of entities held
+     */
+    public ConditionalRequestCache(final int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries < 1");
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > ConditionalRequestCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Removes every entity from the cache
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Gets the number of entities held
+     *
+     * @return the number of entities
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Gets the number of conditional requests answered with {@code 304 Not Modified}
+     *
+     * @return the number of unchanged entities served from the cache
+     */
+    public long getNotModifiedCount() {
+        return notModified.get();
+    }
+
+    /**
+     * Gets the number of conditional requests answered with a new version of the entity
+     *
+     * @return the number of changed entities
+     */
+    public long getModifiedCount() {
+        return modified.get();
+    }
+
+    /**
+     * Gets the interceptor adding the validators of the remembered entity to the requests of this cache's calls.
+     * Requests are recognized by their {@link Request#tag()}, so interceptors running before it may rebuild the
+     * request with {@link Request#newBuilder()} but must not replace its tag.
+     *
+     * @return the interceptor
+     */
+    public Interceptor interceptor() {
+        return interceptor;
+    }
+
+    @Override
+    public CallAdapter<?> get(Type returnType, Annotation[] annotations, Retrofit retrofit) {
+        if (getRawType(returnType) != Call.class) {
+            return null;
+        }
+        final CallAdapter<?> delegate = retrofit.nextCallAdapter(this, returnType, annotations);
+        final Type responseType = delegate.responseType();
+        if (!(responseType instanceof Class)) {
+            return null;
+        }
+        return new CallAdapter<Call<?>>() {
+            @Override
+            public Type responseType() {
+                return responseType;
+            }
+
+            @Override
+            public <R> Call<?> adapt(Call<R> call) {
+                @SuppressWarnings("unchecked")
+                Call<R> adapted = (Call<R>) delegate.adapt(call);
+                return new ConditionalCall<>(adapted);
+            }
+        };
+    }
+
+    @Nullable
+    private Entry entry(Request request) {
+        if (!ConditionalCacheInterceptor.isEntityGet(request)) {
+            return null;
+        }
+        synchronized (entries) {
+            return entries.get(request.url().toString());
+        }
+    }
+
+    private void store(Request request, Response<?> response) {
+        if (!response.isSuccessful() || response.body() == null
+                || !ConditionalCacheInterceptor.isEntityGet(request)) {
+            return;
+        }
+        String etag = response.headers().get(HEADER_ETAG);
+        String lastModified = response.headers().get(HEADER_LAST_MODIFIED);
+        if (etag == null && lastModified == null) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(request.url().toString(), new Entry(response.body(), etag, lastModified));
+        }
+    }
+
+    /**
+     * Adds the validators of the entity remembered for a request made by a {@link ConditionalCall}
+     */
+    final class ValidatorInterceptor implements Interceptor {
+
+        @Override
+        public okhttp3.Response intercept(Chain chain) throws IOException {
+            Request request = chain.request();
+            Entry entry = armed.get(request.tag());
+            if (entry == null || request.header(HEADER_IF_NONE_MATCH) != null
+                    || request.header(HEADER_IF_MODIFIED_SINCE) != null) {
+                return chain.proceed(request);
+            }
+            Request.Builder builder = request.newBuilder();
+            if (entry.etag != null) {
+                builder.header(HEADER_IF_NONE_MATCH, entry.etag);
+            }
+            if (entry.lastModified != null) {
+                builder.header(HEADER_IF_MODIFIED_SINCE, entry.lastModified);
+            }
+            return chain.proceed(builder.build());
+        }
+    }
+
+    /**
+     * A {@link Call} which revalidates a remembered entity instead of fetching it again. The request goes through
+     * the delegate call, so the call adapters after this one and the callback executor apply as for any other call.
+     */
+    final class ConditionalCall<T> implements Call<T> {
+
+        private final Call<T> delegate;
+
+        ConditionalCall(Call<T> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Response<T> execute() throws IOException {
+            Request request = delegate.request();
+            return complete(request, arm(request), delegate.execute());
+        }
+
+        @Override
+        public void enqueue(final Callback<T> callback) {
+            final Request request = delegate.request();
+            final Entry entry = arm(request);
+            delegate.enqueue(new Callback<T>() {
+                @Override
+                public void onResponse(Call<T> call, Response<T> response) {
+                    Response<T> completed;
+                    try {
+                        completed = complete(request, entry, response);
+                    } catch (Throwable t) {
+                        callback.onFailure(ConditionalCall.this, t);
+                        return;
+                    }
+                    callback.onResponse(ConditionalCall.this, completed);
+                }
+
+                @Override
+                public void onFailure(Call<T> call, Throwable t) {
+                    callback.onFailure(ConditionalCall.this, t);
+                }
+            });
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return delegate.isExecuted();
+        }
+
+        @Override
+        public void cancel() {
+            delegate.cancel();
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return delegate.isCanceled();
+        }
+
+        @SuppressWarnings("CloneDoesntCallSuperClone")
+        @Override
+        public Call<T> clone() {
+            return new ConditionalCall<>(delegate.clone());
+        }
+
+        @Override
+        public Request request() {
+            return delegate.request();
+        }
+
+        @Nullable
+        private Entry arm(Request request) {
+            Entry entry = entry(request);
+            if (entry != null) {
+                armed.put(request.tag(), entry);
+            }
+            return entry;
+        }
+
+        private Response<T> complete(Request request, @Nullable Entry entry, Response<T> response) {
+            if (response.code() != HTTP_NOT_MODIFIED) {
+                if (entry != null && response.isSuccessful()) {
+                    modified.incrementAndGet();
+                }
+                store(request, response);
+                return response;
+            }
+            if (entry == null) {
+                // a coalesced call shares the 304 of the call which sent the validators, even if the url's entry
+                // was evicted or replaced since, so use the entity that call revalidated
+                entry = armed.get(response.raw().request().tag());
+                if (entry == null) {
+                    return response;
+                }
+            }
+            if (response.errorBody() != null) {
+                response.errorBody().close();
+            }
+            notModified.incrementAndGet();
+            @SuppressWarnings("unchecked")
+            T value = (T) entry.value;
+            // served like a cache hit: a 200 whose network response is the 304
+            okhttp3.Response raw = response.raw().newBuilder().body(null).build();
+            okhttp3.Response networkResponse = raw.newBuilder()
+                    .networkResponse(null)
+                    .cacheResponse(null)
+                    .priorResponse(null)
+                    .build();
+            return Response.success(value, raw.newBuilder()
+                    .code(200)
+                    .message("OK")
+                    .networkResponse(networkResponse)
+                    .build());
+        }
+    }
+
+    private static final class Entry {
+
+        final Object value;
+        final String etag;
+        final String lastModified;
+
+        Entry(Object value, String etag, String lastModified) {
+            this.value = value;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -0,0 +1,523 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import com.desk.java.apiclient.model.CustomField;
+import com.desk.java.apiclient.model.Filter;
+import com.desk.java.apiclient.model.Group;
+import com.desk.java.apiclient.model.InboundMailbox;
+import com.desk.java.apiclient.model.Label;
+import com.desk.java.apiclient.model.OpportunityStage;
+import com.desk.java.apiclient.model.OutboundMailbox;
+import com.desk.java.apiclient.model.User;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import retrofit2.Call;
+import retrofit2.CallAdapter;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+
+/**
+ * <p>
+ *     A size bounded, in-memory cache of parsed entities keyed by type and id. Entries are evicted in least
+ *     recently used order once the cache is full and expire after the time to live of their type.
+ * </p>
+ *
+ * <p>
+ *     As a {@link CallAdapter.Factory}, the cache serves service methods returning {@code Call<T>} for a cached
+ *     type (ex: {@code UserService.getUser(id)}) when the request is a GET to a path ending with the entity id and
+ *     has no query. A successful PATCH, POST, PUT or DELETE invalidates the entities whose id is part of its path.
+ *     An enqueued call served from the cache calls back on the same executor a network response would: the
+ *     {@link Retrofit#callbackExecutor()} if set, otherwise the executor of the {@link OkHttpClient}'s dispatcher.
+ * </p>
+ *
+ * <p>
+ *     Cached entities are shared by every caller and must not be modified.
+ * </p>
+ */
+public class EntityCache extends CallAdapter.Factory {
+
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+    public static final long DEFAULT_TTL_MINUTES = 5;
+
+    private final int maxEntries;
+    private final Map<Class<?>, Long> ttlNanos = new ConcurrentHashMap<>();
+    private final LinkedHashMap<Key, Entry> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Creates a cache of {@link #DEFAULT_MAX_ENTRIES} entries
+     */
+    public EntityCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Creates a cache which caches users, groups, labels, custom fields, filters, mailboxes and opportunity
+     * stages for {@link #DEFAULT_TTL_MINUTES} minutes
+     *
+     * @param maxEntries the maximum number of entities held
+     */
+    public EntityCache(final int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries < 1");
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > EntityCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        Class<?>[] types = {User.class, Group.class, Label.class, CustomField.class, Filter.class,
+                OutboundMailbox.class, InboundMailbox.class, OpportunityStage.class};
+        for (Class<?> type : types) {
+            ttl(type, DEFAULT_TTL_MINUTES, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * Sets the time to live of a type. A time to live of 0 stops caching the type.
+     *
+     * @param type the entity type
+     * @param ttl the time to live
+     * @param unit the unit of the time to live
+     * @return the cache instance
+     */
+    public EntityCache ttl(Class<?> type, long ttl, TimeUnit unit) {
+        if (ttl < 0) {
+            throw new IllegalArgumentException("ttl < 0");
+        }
+        if (ttl == 0) {
+            ttlNanos.remove(type);
+            invalidateAll(type);
+        } else {
+            ttlNanos.put(type, unit.toNanos(ttl));
+        }
+        return this;
+    }
+
+    /**
+     * Checks whether a type is cached
+     *
+     * @param type the entity type
+     * @return true if entities of the type are cached
+     */
+    public boolean isCached(Class<?> type) {
+        return ttlNanos.containsKey(type);
+    }
+
+    /**
+     * Gets a cached entity
+     *
+     * @param type the entity type
+     * @param id the entity id
+     * @return the entity or null if it isn't cached or expired
+     */
+    @Nullable
+    public <T> T get(Class<T> type, long id) {
+        if (!isCached(type)) {
+            return null;
+        }
+        Key key = new Key(type, id);
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAtNanos - System.nanoTime() > 0) {
+                hits.incrementAndGet();
+                return type.cast(entry.value);
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Caches an entity. Entities of types which aren't cached are ignored.
+     *
+     * @param type the entity type
+     * @param id the entity id
+     * @param entity the entity
+     */
+    public <T> void put(Class<T> type, long id, T entity) {
+        Long ttl = ttlNanos.get(type);
+        if (ttl == null || entity == null) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(new Key(type, id), new Entry(entity, System.nanoTime() + ttl));
+        }
+    }
+
+    /**
+     * Removes an entity from the cache
+     *
+     * @param type the entity type
+     * @param id the entity id
+     */
+    public void invalidate(Class<?> type, long id) {
+        synchronized (entries) {
+            entries.remove(new Key(type, id));
+        }
+    }
+
+    /**
+     * Removes every entity of a type from the cache
+     *
+     * @param type the entity type
+     */
+    public void invalidateAll(Class<?> type) {
+        synchronized (entries) {
+            for (Iterator<Key> keys = entries.keySet().iterator(); keys.hasNext(); ) {
+                if (keys.next().type == type) {
+                    keys.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes every entity from the cache
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Gets the number of entities held, including expired ones not evicted yet
+     *
+     * @return the number of entities
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    @Override
+    public CallAdapter<?> get(Type returnType, Annotation[] annotations, Retrofit retrofit) {
+        if (getRawType(returnType) != Call.class) {
+            return null;
+        }
+        final CallAdapter<?> delegate = retrofit.nextCallAdapter(this, returnType, annotations);
+        final Type responseType = delegate.responseType();
+        final Executor callbackExecutor = callbackExecutor(retrofit);
+        return new CallAdapter<Call<?>>() {
+            @Override
+            public Type responseType() {
+                return responseType;
+            }
+
+            @Override
+            public <R> Call<?> adapt(Call<R> call) {
+                @SuppressWarnings("unchecked")
+                Call<R> adapted = (Call<R>) delegate.adapt(call);
+                return new CachingCall<>(adapted, responseType instanceof Class ? (Class<?>) responseType : null,
+                        callbackExecutor, true);
+            }
+        };
+    }
+
+    /**
+     * Gets a call which fetches its entity without looking it up first, for callers which already missed it in
+     * this cache, so the miss isn't counted twice. The fetched entity is still cached.
+     *
+     * @param call a call of a service of the client using this cache
+     * @return the call skipping the lookup, or the call itself if it isn't served by this cache
+     */
+    <T> Call<T> skipLookup(Call<T> call) {
+        if (!(call instanceof CachingCall) || ((CachingCall<T>) call).cache() != this) {
+            return call;
+        }
+        CachingCall<T> caching = (CachingCall<T>) call;
+        return new CachingCall<>(caching.delegate, caching.type, caching.callbackExecutor, false);
+    }
+
+    /**
+     * Gets the executor network responses are delivered on
+     *
+     * @return the executor or null if responses are delivered on the thread of the call factory
+     */
+    @Nullable
+    private static Executor callbackExecutor(Retrofit retrofit) {
+        if (retrofit.callbackExecutor() != null) {
+            return retrofit.callbackExecutor();
+        }
+        if (retrofit.callFactory() instanceof OkHttpClient) {
+            return ((OkHttpClient) retrofit.callFactory()).dispatcher().executorService();
+        }
+        return null;
+    }
+
+    /**
+     * Gets the id of the entity a GET request is for
+     *
+     * @return the id or -1 if the request can't be served from the cache
+     */
+    static long entityId(Request request) {
+        HttpUrl url = request.url();
+        if (!"GET".equals(request.method()) || url.encodedQuery() != null) {
+            return -1;
+        }
+        List<String> segments = url.pathSegments();
+        return parseId(segments.get(segments.size() - 1));
+    }
+
+    private static long parseId(String segment) {
+        if (segment.isEmpty() || segment.length() > 18 || !StringUtils.isDigitsOnly(segment)) {
+            return -1;
+        }
+        return Long.parseLong(segment);
+    }
+
+    /**
+     * Invalidates the entities whose id is part of the path of a successful write
+     */
+    void onWrite(Request request) {
+        for (String segment : request.url().pathSegments()) {
+            long id = parseId(segment);
+            if (id < 0) {
+                continue;
+            }
+            synchronized (entries) {
+                for (Class<?> type : ttlNanos.keySet()) {
+                    entries.remove(new Key(type, id));
+                }
+            }
+        }
+    }
+
+    /**
+     * A {@link Call} which is served from the cache when possible
+     */
+    final class CachingCall<T> implements Call<T> {
+
+        private final Call<T> delegate;
+        private final Class<?> type;
+        private final Executor callbackExecutor;
+        private final boolean lookup;
+        private volatile boolean executed;
+
+        CachingCall(Call<T> delegate, Class<?> type, Executor callbackExecutor, boolean lookup) {
+            this.delegate = delegate;
+            this.type = type;
+            this.callbackExecutor = callbackExecutor;
+            this.lookup = lookup;
+        }
+
+        @Override
+        public Response<T> execute() throws IOException {
+            Response<T> cached = cached();
+            if (cached != null) {
+                return cached;
+            }
+            return store(delegate.execute());
+        }
+
+        @Override
+        public void enqueue(final Callback<T> callback) {
+            final Response<T> cached = cached();
+            if (cached != null) {
+                Runnable delivery = new Runnable() {
+                    @Override
+                    public void run() {
+                        if (isCanceled()) {
+                            callback.onFailure(CachingCall.this, new IOException("Canceled"));
+                        } else {
+                            callback.onResponse(CachingCall.this, cached);
+                        }
+                    }
+                };
+                if (callbackExecutor != null) {
+                    callbackExecutor.execute(delivery);
+                } else {
+                    delivery.run();
+                }
+                return;
+            }
+            delegate.enqueue(new Callback<T>() {
+                @Override
+                public void onResponse(Call<T> call, Response<T> response) {
+                    callback.onResponse(CachingCall.this, store(response));
+                }
+
+                @Override
+                public void onFailure(Call<T> call, Throwable t) {
+                    callback.onFailure(CachingCall.this, t);
+                }
+            });
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return executed || delegate.isExecuted();
+        }
+
+        @Override
+        public void cancel() {
+            delegate.cancel();
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return delegate.isCanceled();
+        }
+
+        @SuppressWarnings("CloneDoesntCallSuperClone")
+        @Override
+        public Call<T> clone() {
+            return new CachingCall<>(delegate.clone(), type, callbackExecutor, lookup);
+        }
+
+        @Override
+        public Request request() {
+            return delegate.request();
+        }
+
+        EntityCache cache() {
+            return EntityCache.this;
+        }
+
+        @Nullable
+        private Response<T> cached() {
+            if (!lookup || type == null || !isCached(type)) {
+                return null;
+            }
+            long id = entityId(delegate.request());
+            if (id < 0) {
+                return null;
+            }
+            @SuppressWarnings("unchecked")
+            T entity = (T) EntityCache.this.get(type, id);
+            if (entity == null) {
+                return null;
+            }
+            synchronized (this) {
+                if (executed) {
+                    throw new IllegalStateException("Already executed.");
+                }
+                executed = true;
+            }
+            return Response.success(entity);
+        }
+
+        private Response<T> store(Response<T> response) {
+            if (!response.isSuccessful()) {
+                return response;
+            }
+            Request request = delegate.request();
+            if (!"GET".equals(request.method()) && !"HEAD".equals(request.method())) {
+                onWrite(request);
+            } else if (type != null && response.body() != null) {
+                long id = entityId(request);
+                if (id >= 0) {
+                    putUnchecked(type, id, response.body());
+                }
+            }
+            return response;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void putUnchecked(Class<T> type, long id, Object entity) {
+        put(type, id, (T) entity);
+    }
+
+    private static final class Key {
+
+        final Class<?> type;
+        final long id;
+
+        Key(Class<?> type, long id) {
+            this.type = type;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return id == key.id && type == key.type;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * type.hashCode() + (int) (id ^ (id >>> 32));
+        }
+    }
+
+    private static final class Entry {
+
+        final Object value;
+        final long expiresAtNanos;
+
+        Entry(Object value, long expiresAtNanos) {
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+}
@@ -47,10 +47,14 @@ import okio.Buffer;
 public class HttpRequestAdapter implements HttpRequest {
 
     private static final String DEFAULT_CONTENT_TYPE = "application/json";
+    private static final String FORM_ENCODED = "application/x-www-form-urlencoded";
 
     private Request request;
     private String contentType = DEFAULT_CONTENT_TYPE;
 
+    // header and url updates made while signing are batched here and applied in a single rebuild
+    private Request.Builder pending;
+
     /**
      * Constructs a new {@code OkHttpRequestAdapter}.
      *
@@ -67,6 +71,7 @@ public class HttpRequestAdapter implements HttpRequest {
 
     @Override
     public Map<String, String> getAllHeaders() {
+        Request request = request();
         HashMap<String, String> headers = new HashMap<>();
         for (String key : request.headers().names()) {
             headers.put(key, request.header(key));
@@ -76,6 +81,7 @@ public class HttpRequestAdapter implements HttpRequest {
 
     @Override
     public String getContentType() {
+        Request request = request();
         if (request.body() != null && request.body().contentType() != null) {
             return request.body().contentType().toString();
         }
@@ -84,12 +90,20 @@ public class HttpRequestAdapter implements HttpRequest {
 
     @Override
     public String getHeader(String key) {
-        return request.header(key);
+        return request().header(key);
     }
 
+    /**
+     * Returns the request body for signing. Only form-encoded bodies take part in the OAuth signature base
+     * string, so any other body (e.g. JSON) is never copied and {@code null} is returned instead.
+     *
+     * @return the form-encoded body or {@code null}
+     * @throws IOException if the body could not be written
+     */
     @Override
     public InputStream getMessagePayload() throws IOException {
-        if (request.body() == null) {
+        Request request = request();
+        if (request.body() == null || !isFormEncoded(getContentType())) {
             return null;
         }
         Buffer buf = new Buffer();
@@ -99,26 +113,45 @@ public class HttpRequestAdapter implements HttpRequest {
 
     @Override
     public String getMethod() {
-        return request.method();
+        return request().method();
     }
 
     @Override
     public String getRequestUrl() {
-        return request.url().toString();
+        return request().url().toString();
     }
 
     @Override
     public void setHeader(String key, String value) {
-        request = request.newBuilder().header(key, value).build();
+        pending().header(key, value);
     }
 
     @Override
     public void setRequestUrl(String url) {
-        request = request.newBuilder().url(url).build();
+        pending().url(url);
     }
 
     @Override
     public Object unwrap() {
+        return request();
+    }
+
+    static boolean isFormEncoded(String contentType) {
+        return contentType != null && contentType.regionMatches(true, 0, FORM_ENCODED, 0, FORM_ENCODED.length());
+    }
+
+    private Request.Builder pending() {
+        if (pending == null) {
+            pending = request.newBuilder();
+        }
+        return pending;
+    }
+
+    private Request request() {
+        if (pending != null) {
+            request = pending.build();
+            pending = null;
+        }
         return request;
     }
 }
\ No newline at end of file
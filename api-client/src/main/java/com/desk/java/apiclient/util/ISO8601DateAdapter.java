@@ -37,25 +37,34 @@ import com.google.gson.JsonSyntaxException;
 
 import java.lang.reflect.Type;
 import java.sql.Timestamp;
-import java.text.DateFormat;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.Locale;
-import java.util.TimeZone;
 
 /**
- * Gson date adapter which serializes and deserializes an ISO-8601 date
+ * <p>
+ *     Gson date adapter which serializes and deserializes an ISO-8601 date.
+ * </p>
+ *
+ * <p>
+ *     Parsing and formatting are done by a fixed-width scanner which holds no mutable state, so a single
+ *     instance can be shared by any number of threads without locking. Dates are always formatted in UTC
+ *     with second precision (ex: 2020-05-20T11:20:14Z). Parsing additionally accepts fractional seconds
+ *     and numeric offsets (ex: 2020-05-20T11:20:14.250+02:00).
+ * </p>
  */
 public class ISO8601DateAdapter implements JsonSerializer<Date>, JsonDeserializer<Date> {
 
     public static final ISO8601DateAdapter TYPE_ADAPTER = new ISO8601DateAdapter();
 
-    private final DateFormat dateFormat;
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private static final long MILLIS_PER_MINUTE = 60 * MILLIS_PER_SECOND;
+    private static final long MILLIS_PER_HOUR = 60 * MILLIS_PER_MINUTE;
+    private static final long MILLIS_PER_DAY = 24 * MILLIS_PER_HOUR;
+
+    // length of yyyy-MM-ddTHH:mm:ss
+    private static final int DATE_TIME_LENGTH = 19;
 
     private ISO8601DateAdapter() {
-        this.dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US);
-        this.dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
     }
 
     public JsonElement serialize(Date src, Type typeOfSrc, JsonSerializationContext context) {
@@ -63,9 +72,36 @@ public class ISO8601DateAdapter implements JsonSerializer<Date>, JsonDeserialize
     }
 
     String formatDate(Date date) {
-        synchronized (dateFormat) {
-            return dateFormat.format(date);
-        }
+        long millis = date.getTime();
+        long days = floorDiv(millis, MILLIS_PER_DAY);
+        int millisOfDay = (int) (millis - days * MILLIS_PER_DAY);
+
+        // civil date from days since epoch (proleptic gregorian)
+        long z = days + 719468;
+        long era = floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        int secondOfDay = millisOfDay / 1000;
+        char[] out = new char[DATE_TIME_LENGTH + 1];
+        writeDigits(out, 0, (int) year, 4);
+        out[4] = '-';
+        writeDigits(out, 5, month, 2);
+        out[7] = '-';
+        writeDigits(out, 8, day, 2);
+        out[10] = 'T';
+        writeDigits(out, 11, secondOfDay / 3600, 2);
+        out[13] = ':';
+        writeDigits(out, 14, (secondOfDay / 60) % 60, 2);
+        out[16] = ':';
+        writeDigits(out, 17, secondOfDay % 60, 2);
+        out[19] = 'Z';
+        return new String(out);
     }
 
     public Date deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context)
@@ -94,8 +130,161 @@ public class ISO8601DateAdapter implements JsonSerializer<Date>, JsonDeserialize
     }
 
     Date parse(String dateString) throws ParseException {
-        synchronized (dateFormat) {
-            return dateFormat.parse(dateString);
+        return new Date(parseMillis(dateString));
+    }
+
+    /**
+     * Parses an ISO-8601 timestamp of the form yyyy-MM-ddTHH:mm:ss[.S+](Z|+HH[:mm]|-HH[:mm]) to milliseconds
+     * since the epoch.
+     *
+     * @param s the timestamp
+     * @return the milliseconds since the epoch
+     * @throws ParseException if the timestamp is not a valid ISO-8601 date time
+     */
+    static long parseMillis(String s) throws ParseException {
+        if (s == null || s.length() < DATE_TIME_LENGTH + 1) {
+            throw new ParseException("Unparseable date: \"" + s + "\"", 0);
+        }
+
+        int year = readDigits(s, 0, 4);
+        expect(s, 4, '-');
+        int month = readDigits(s, 5, 2);
+        expect(s, 7, '-');
+        int day = readDigits(s, 8, 2);
+        char t = s.charAt(10);
+        if (t != 'T' && t != 't') {
+            throw new ParseException("Unparseable date: \"" + s + "\"", 10);
+        }
+        int hour = readDigits(s, 11, 2);
+        expect(s, 13, ':');
+        int minute = readDigits(s, 14, 2);
+        expect(s, 16, ':');
+        int second = readDigits(s, 17, 2);
+
+        if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                || hour > 23 || minute > 59 || second > 59) {
+            throw new ParseException("Unparseable date: \"" + s + "\"", 0);
+        }
+
+        int pos = DATE_TIME_LENGTH;
+        int millis = 0;
+        if (s.charAt(pos) == '.' || s.charAt(pos) == ',') {
+            int start = ++pos;
+            int scale = 100;
+            while (pos < s.length() && isDigit(s.charAt(pos))) {
+                millis += (s.charAt(pos) - '0') * scale;
+                scale /= 10;
+                pos++;
+            }
+            if (pos == start) {
+                throw new ParseException("Unparseable date: \"" + s + "\"", pos);
+            }
+        }
+
+        if (pos >= s.length()) {
+            throw new ParseException("Unparseable date: \"" + s + "\"", pos);
+        }
+
+        long offsetMillis;
+        char zone = s.charAt(pos);
+        if (zone == 'Z' || zone == 'z') {
+            offsetMillis = 0;
+            pos++;
+        } else if (zone == '+' || zone == '-') {
+            int offsetHours = readDigits(s, pos + 1, 2);
+            int offsetMinutes = 0;
+            pos += 3;
+            if (pos < s.length()) {
+                if (s.charAt(pos) == ':') {
+                    pos++;
+                }
+                offsetMinutes = readDigits(s, pos, 2);
+                pos += 2;
+            }
+            if (offsetHours > 18 || offsetMinutes > 59) {
+                throw new ParseException("Unparseable date: \"" + s + "\"", pos);
+            }
+            offsetMillis = offsetHours * MILLIS_PER_HOUR + offsetMinutes * MILLIS_PER_MINUTE;
+            if (zone == '-') {
+                offsetMillis = -offsetMillis;
+            }
+        } else {
+            throw new ParseException("Unparseable date: \"" + s + "\"", pos);
+        }
+
+        if (pos != s.length()) {
+            throw new ParseException("Unparseable date: \"" + s + "\"", pos);
+        }
+
+        return daysFromCivil(year, month, day) * MILLIS_PER_DAY
+                + hour * MILLIS_PER_HOUR
+                + minute * MILLIS_PER_MINUTE
+                + second * MILLIS_PER_SECOND
+                + millis
+                - offsetMillis;
+    }
+
+    private static long daysFromCivil(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static int readDigits(String s, int start, int count) throws ParseException {
+        if (start + count > s.length()) {
+            throw new ParseException("Unparseable date: \"" + s + "\"", start);
+        }
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = s.charAt(i);
+            if (!isDigit(c)) {
+                throw new ParseException("Unparseable date: \"" + s + "\"", i);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static void expect(String s, int index, char expected) throws ParseException {
+        if (s.charAt(index) != expected) {
+            throw new ParseException("Unparseable date: \"" + s + "\"", index);
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static void writeDigits(char[] out, int start, int value, int count) {
+        for (int i = start + count - 1; i >= start; i--) {
+            out[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static long floorDiv(long x, long y) {
+        long q = x / y;
+        if ((x % y != 0) && ((x ^ y) < 0)) {
+            q--;
         }
+        return q;
     }
 }
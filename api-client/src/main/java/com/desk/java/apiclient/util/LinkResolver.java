@@ -0,0 +1,328 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import com.desk.java.apiclient.DeskApiException;
+import com.desk.java.apiclient.DeskClient;
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.model.Customer;
+import com.desk.java.apiclient.model.Group;
+import com.desk.java.apiclient.model.Link;
+import com.desk.java.apiclient.model.User;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * <p>
+ *     Resolves {@link Link}s to the entities they point to in batches. The ids of a batch are deduplicated,
+ *     entities held by the client's {@link EntityCache} are used as is and the remaining ones are fetched
+ *     concurrently on the provided {@link Executor}.
+ * </p>
+ *
+ * <p>
+ *     Resolving the customer, assigned user, assigned group and locker of a page of cases with
+ *     {@link #resolveCases(Iterable)} fetches every distinct entity of the page at once instead of issuing one
+ *     request per link.
+ * </p>
+ */
+public class LinkResolver {
+
+    private final DeskClient client;
+    private final Executor executor;
+
+    /**
+     * Creates a link resolver
+     *
+     * @param client the client to fetch entities with
+     * @param executor the executor entities are fetched on concurrently
+     */
+    public LinkResolver(@NotNull DeskClient client, @NotNull Executor executor) {
+        this.client = client;
+        this.executor = executor;
+    }
+
+    /**
+     * Resolves links to entities of any type
+     *
+     * @param type the type of the entities
+     * @param links the links to resolve, null links and links without an id are ignored
+     * @param request creates the call fetching an entity by id
+     * @param <T> the type of the entities
+     * @return the entities keyed by id, entities which don't exist are missing
+     * @throws DeskApiException if an entity can't be fetched
+     */
+    @NotNull
+    public <T> Map<Long, T> resolve(@NotNull Class<T> type, @NotNull Iterable<Link> links,
+                                    @NotNull EntityRequest<T> request) {
+        return start(type, ids(links), request).await();
+    }
+
+    @NotNull
+    public Map<Long, User> resolveUsers(@NotNull Iterable<Link> links) {
+        return start(User.class, ids(links), userRequest()).await();
+    }
+
+    @NotNull
+    public Map<Long, Group> resolveGroups(@NotNull Iterable<Link> links) {
+        return start(Group.class, ids(links), groupRequest()).await();
+    }
+
+    @NotNull
+    public Map<Long, Customer> resolveCustomers(@NotNull Iterable<Link> links) {
+        return start(Customer.class, ids(links), customerRequest()).await();
+    }
+
+    /**
+     * Resolves the customer, assigned user, assigned group and locker of cases. Users, groups and customers are
+     * fetched at the same time.
+     *
+     * @param cases the cases
+     * @return the resolved entities
+     * @throws DeskApiException if an entity can't be fetched
+     */
+    @NotNull
+    public ResolvedCases resolveCases(@NotNull Iterable<Case> cases) {
+        List<Link> users = new ArrayList<>();
+        List<Link> groups = new ArrayList<>();
+        List<Link> customers = new ArrayList<>();
+        for (Case deskCase : cases) {
+            users.add(deskCase.getAssignedUserLink());
+            users.add(deskCase.getLockedByLink());
+            groups.add(deskCase.getAssignedGroupLink());
+            customers.add(deskCase.getCustomerLink());
+        }
+
+        Batch<User> userBatch = start(User.class, ids(users), userRequest());
+        Batch<Group> groupBatch = start(Group.class, ids(groups), groupRequest());
+        Batch<Customer> customerBatch = start(Customer.class, ids(customers), customerRequest());
+        try {
+            return new ResolvedCases(userBatch.await(), groupBatch.await(), customerBatch.await());
+        } catch (RuntimeException e) {
+            userBatch.cancel();
+            groupBatch.cancel();
+            customerBatch.cancel();
+            throw e;
+        }
+    }
+
+    private EntityRequest<User> userRequest() {
+        return new EntityRequest<User>() {
+            @Override
+            public Call<User> get(long id) {
+                return client.users().getUser(id);
+            }
+        };
+    }
+
+    private EntityRequest<Group> groupRequest() {
+        return new EntityRequest<Group>() {
+            @Override
+            public Call<Group> get(long id) {
+                return client.groups().getGroup(id);
+            }
+        };
+    }
+
+    private EntityRequest<Customer> customerRequest() {
+        return new EntityRequest<Customer>() {
+            @Override
+            public Call<Customer> get(long id) {
+                return client.customers().getCustomer(id, null);
+            }
+        };
+    }
+
+    private static Set<Long> ids(Iterable<Link> links) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Link link : links) {
+            long id = link != null ? link.getLinkId() : 0;
+            if (id > 0) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private <T> Batch<T> start(Class<T> type, Set<Long> ids, final EntityRequest<T> request) {
+        Batch<T> batch = new Batch<>();
+        final EntityCache cache = client.getEntityCache();
+        for (final Long id : ids) {
+            T cached = cache != null ? cache.get(type, id) : null;
+            if (cached != null) {
+                batch.resolved.put(id, cached);
+                continue;
+            }
+            FutureTask<T> task = new FutureTask<>(new Callable<T>() {
+                @Override
+                public T call() throws Exception {
+                    // the id already missed the cache, don't look it up (and count a miss) again
+                    Call<T> call = request.get(id);
+                    return fetch(cache != null ? cache.skipLookup(call) : call);
+                }
+            });
+            batch.pending.put(id, task);
+            executor.execute(task);
+        }
+        return batch;
+    }
+
+    @Nullable
+    private static <T> T fetch(Call<T> call) {
+        Response<T> response;
+        try {
+            response = call.execute();
+        } catch (IOException e) {
+            throw DeskApiException.fromIOException(e);
+        }
+        if (response.code() == HttpURLConnection.HTTP_NOT_FOUND) {
+            return null;
+        }
+        if (!response.isSuccessful()) {
+            throw DeskApiException.fromResponse(response);
+        }
+        return response.body();
+    }
+
+    /**
+     * Creates the call fetching an entity by id
+     */
+    public interface EntityRequest<T> {
+        Call<T> get(long id);
+    }
+
+    /**
+     * The entities of a batch, either cached or being fetched
+     */
+    private static final class Batch<T> {
+
+        final Map<Long, T> resolved = new HashMap<>();
+        final Map<Long, FutureTask<T>> pending = new HashMap<>();
+
+        Map<Long, T> await() {
+            try {
+                for (Map.Entry<Long, FutureTask<T>> entry : pending.entrySet()) {
+                    T entity = entry.getValue().get();
+                    if (entity != null) {
+                        resolved.put(entry.getKey(), entity);
+                    }
+                }
+            } catch (InterruptedException e) {
+                cancel();
+                Thread.currentThread().interrupt();
+                throw new DeskApiException("interrupted while resolving links", e);
+            } catch (ExecutionException e) {
+                cancel();
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new DeskApiException("error resolving links", e.getCause());
+            }
+            return Collections.unmodifiableMap(resolved);
+        }
+
+        void cancel() {
+            for (FutureTask<T> task : pending.values()) {
+                task.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * <p>
+     *     The entities linked by a batch of cases
+     * </p>
+     */
+    public static final class ResolvedCases {
+
+        private final Map<Long, User> users;
+        private final Map<Long, Group> groups;
+        private final Map<Long, Customer> customers;
+
+        ResolvedCases(Map<Long, User> users, Map<Long, Group> groups, Map<Long, Customer> customers) {
+            this.users = users;
+            this.groups = groups;
+            this.customers = customers;
+        }
+
+        @Nullable
+        public User getAssignedUser(@NotNull Case deskCase) {
+            return get(users, deskCase.getAssignedUserLink());
+        }
+
+        @Nullable
+        public User getLockedBy(@NotNull Case deskCase) {
+            return get(users, deskCase.getLockedByLink());
+        }
+
+        @Nullable
+        public Group getAssignedGroup(@NotNull Case deskCase) {
+            return get(groups, deskCase.getAssignedGroupLink());
+        }
+
+        @Nullable
+        public Customer getCustomer(@NotNull Case deskCase) {
+            return get(customers, deskCase.getCustomerLink());
+        }
+
+        @NotNull
+        public Map<Long, User> getUsers() {
+            return users;
+        }
+
+        @NotNull
+        public Map<Long, Group> getGroups() {
+            return groups;
+        }
+
+        @NotNull
+        public Map<Long, Customer> getCustomers() {
+            return customers;
+        }
+
+        private static <T> T get(Map<Long, T> entities, Link link) {
+            return link != null ? entities.get(link.getLinkId()) : null;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import com.desk.java.apiclient.model.Link;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * <p>
+ *     A {@link TypeAdapterFactory} providing a streaming {@link TypeAdapter} for {@link Link}, the most frequently
+ *     parsed object in every response (each entity carries several links). It reads and writes the fields directly
+ *     instead of going through Gson's reflective adapter. Subclasses of {@link Link} are left to Gson.
+ * </p>
+ */
+public class LinkTypeAdapterFactory implements TypeAdapterFactory {
+
+    static final String HREF = "href";
+    static final String COUNT = "count";
+    static final String USER_MESSAGES_COUNT = "user_messages_count";
+    static final String CLASS = "class";
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        return type.getRawType() == Link.class ? (TypeAdapter<T>) new LinkAdapter() : null;
+    }
+
+    static final class LinkAdapter extends TypeAdapter<Link> {
+
+        @Override
+        public void write(JsonWriter out, Link link) throws IOException {
+            if (link == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name(HREF).value(link.getUrl());
+            out.name(COUNT).value(link.getCount());
+            out.name(USER_MESSAGES_COUNT).value(link.getUserMessagesCount());
+            out.name(CLASS).value(link.getClassName());
+            out.endObject();
+        }
+
+        @Override
+        public Link read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            Link link = new Link();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case HREF:
+                        link.setHref(in.nextString());
+                        break;
+                    case COUNT:
+                        link.setCount(in.nextInt());
+                        break;
+                    case USER_MESSAGES_COUNT:
+                        link.setUserMessagesCount(in.nextInt());
+                        break;
+                    case CLASS:
+                        link.setClassName(in.nextString());
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return link;
+        }
+    }
+}
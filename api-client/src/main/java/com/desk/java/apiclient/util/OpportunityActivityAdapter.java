@@ -40,6 +40,13 @@ import com.google.gson.JsonPrimitive;
 import java.lang.reflect.Type;
 import java.util.Date;
 
+import static com.desk.java.apiclient.util.OpportunityActivityAdapterFactory.CLASS;
+import static com.desk.java.apiclient.util.OpportunityActivityAdapterFactory.HISTORY;
+import static com.desk.java.apiclient.util.OpportunityActivityAdapterFactory.LINKS;
+import static com.desk.java.apiclient.util.OpportunityActivityAdapterFactory.OPPORTUNITY_ATTACHMENT;
+import static com.desk.java.apiclient.util.OpportunityActivityAdapterFactory.SELF;
+import static com.desk.java.apiclient.util.OpportunityActivityAdapterFactory.TYPE;
+
 /**
  * <p>
  *     Deserializes {@link IOpportunityActivity} marker objects to either {@link OpportunitySystemEvent}
@@ -48,16 +55,13 @@ import java.util.Date;
  *
  * Created by Matt Kranzler on 12/29/15.
  * Copyright (c) 2016 Desk.com. All rights reserved.
+ *
+ * @deprecated use {@link OpportunityActivityAdapterFactory} which reuses the adapters of the {@link Gson}
+ * instance it is registered with instead of a private one
  */
+@Deprecated
 public class OpportunityActivityAdapter implements JsonDeserializer<IOpportunityActivity> {
 
-    static final String LINKS = "_links";
-    static final String SELF = "self";
-    static final String CLASS = "class";
-    static final String HISTORY = "history";
-    static final String OPPORTUNITY_ATTACHMENT = "opportunity_attachment";
-    static final String TYPE = "type";
-
     private final Gson gson;
 
     public OpportunityActivityAdapter() {
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import com.desk.java.apiclient.model.IOpportunityActivity;
+import com.desk.java.apiclient.model.OpportunityActivityType;
+import com.desk.java.apiclient.model.OpportunityAttachment;
+import com.desk.java.apiclient.model.OpportunityCall;
+import com.desk.java.apiclient.model.OpportunityEmail;
+import com.desk.java.apiclient.model.OpportunityEvent;
+import com.desk.java.apiclient.model.OpportunityNote;
+import com.desk.java.apiclient.model.OpportunitySystemEvent;
+import com.desk.java.apiclient.model.OpportunityTask;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * <p>
+ *     A {@link TypeAdapterFactory} which reads {@link IOpportunityActivity} marker objects as either
+ *     {@link OpportunitySystemEvent} objects or {@link com.desk.java.apiclient.model.OpportunityActivity}
+ *     subclasses.
+ * </p>
+ *
+ * <p>
+ *     Unlike {@link OpportunityActivityAdapter} this resolves the adapter for every subtype once, from the
+ *     {@link Gson} instance it is registered with, and dispatches each activity straight to it. The
+ *     discriminators ({@code _links.self.class} and {@code type}) may appear anywhere in the object so each
+ *     activity is still buffered once as a tree before it is bound.
+ * </p>
+ */
+public class OpportunityActivityAdapterFactory implements TypeAdapterFactory {
+
+    static final String LINKS = "_links";
+    static final String SELF = "self";
+    static final String CLASS = "class";
+    static final String HISTORY = "history";
+    static final String OPPORTUNITY_ATTACHMENT = "opportunity_attachment";
+    static final String TYPE = "type";
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (type.getRawType() != IOpportunityActivity.class) {
+            return null;
+        }
+        return (TypeAdapter<T>) new Adapter(gson);
+    }
+
+    private static class Adapter extends TypeAdapter<IOpportunityActivity> {
+
+        private final Gson gson;
+        private final TypeAdapter<JsonElement> elementAdapter;
+        private final TypeAdapter<OpportunitySystemEvent> systemEventAdapter;
+        private final Map<String, TypeAdapter<? extends IOpportunityActivity>> activityAdapters;
+
+        Adapter(Gson gson) {
+            this.gson = gson;
+            this.elementAdapter = gson.getAdapter(JsonElement.class);
+            this.systemEventAdapter = gson.getAdapter(OpportunitySystemEvent.class);
+            this.activityAdapters = new HashMap<>();
+            activityAdapters.put(key(OpportunityActivityType.CALL), gson.getAdapter(OpportunityCall.class));
+            activityAdapters.put(key(OpportunityActivityType.EMAIL), gson.getAdapter(OpportunityEmail.class));
+            activityAdapters.put(key(OpportunityActivityType.EVENT), gson.getAdapter(OpportunityEvent.class));
+            activityAdapters.put(key(OpportunityActivityType.NOTE), gson.getAdapter(OpportunityNote.class));
+            activityAdapters.put(key(OpportunityActivityType.TASK), gson.getAdapter(OpportunityTask.class));
+            activityAdapters.put(OPPORTUNITY_ATTACHMENT, gson.getAdapter(OpportunityAttachment.class));
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void write(JsonWriter out, IOpportunityActivity value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            TypeAdapter<IOpportunityActivity> adapter =
+                    (TypeAdapter<IOpportunityActivity>) gson.getAdapter(value.getClass());
+            adapter.write(out, value);
+        }
+
+        @Override
+        public IOpportunityActivity read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            JsonElement element = elementAdapter.read(in);
+            TypeAdapter<? extends IOpportunityActivity> adapter = adapterFor(element);
+
+            // if we don't have an adapter we don't know what this is
+            return adapter != null ? adapter.fromJsonTree(element) : null;
+        }
+
+        private TypeAdapter<? extends IOpportunityActivity> adapterFor(JsonElement element) {
+            if (!element.isJsonObject()) {
+                return null;
+            }
+            JsonObject object = element.getAsJsonObject();
+
+            // if the class is of type 'history' then it's a system event
+            String clazz = stringMember(memberObject(memberObject(object, LINKS), SELF), CLASS);
+            if (clazz == null) {
+                return null;
+            } else if (HISTORY.equalsIgnoreCase(clazz)) {
+                return systemEventAdapter;
+            }
+
+            // if the class is of type 'opportunity_activity' or 'attachment' dispatch on the type
+            String activityType = stringMember(object, TYPE);
+            return activityType != null ? activityAdapters.get(activityType.toLowerCase(Locale.US)) : null;
+        }
+
+        private static JsonObject memberObject(JsonObject object, String name) {
+            if (object == null) {
+                return null;
+            }
+            JsonElement member = object.get(name);
+            return member != null && member.isJsonObject() ? member.getAsJsonObject() : null;
+        }
+
+        private static String stringMember(JsonObject object, String name) {
+            if (object == null) {
+                return null;
+            }
+            JsonElement member = object.get(name);
+            return member != null && member.isJsonPrimitive() ? member.getAsString() : null;
+        }
+
+        private static String key(OpportunityActivityType type) {
+            return type.name().toLowerCase(Locale.US);
+        }
+    }
+}
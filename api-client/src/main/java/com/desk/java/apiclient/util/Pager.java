@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import com.desk.java.apiclient.DeskApiException;
+import com.desk.java.apiclient.model.ApiResponse;
+import com.desk.java.apiclient.model.Link;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+import okhttp3.HttpUrl;
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * <p>
+ *     Lazily walks every page of a paginated endpoint, following {@code _links.next} until the last page, and
+ *     exposes the entries as a single {@link Iterable}. Only the page currently being consumed is held in memory.
+ * </p>
+ *
+ * <p>
+ *     When created with an {@link Executor} the next page is requested on that executor as soon as the current
+ *     page arrives, so network latency overlaps with the processing of the current page (at most two pages are
+ *     then held in memory).
+ * </p>
+ *
+ * <p>
+ *     Failed requests are surfaced as a {@link DeskApiException} from {@link Iterator#hasNext()}.
+ * </p>
+ *
+ * @param <T> the type of the entries
+ */
+public class Pager<T extends Serializable> implements Iterable<T> {
+
+    private static final String PAGE_PARAM = "page";
+
+    private final PageRequest<T> request;
+    private final Executor prefetchExecutor;
+
+    /**
+     * Creates a pager which requests each page when the previous one has been consumed
+     *
+     * @param request creates the call for each page
+     */
+    public Pager(@NotNull PageRequest<T> request) {
+        this(request, null);
+    }
+
+    /**
+     * Creates a pager which prefetches the next page on the provided executor
+     *
+     * @param request creates the call for each page
+     * @param prefetchExecutor the executor to prefetch pages on, null to disable prefetching
+     */
+    public Pager(@NotNull PageRequest<T> request, @Nullable Executor prefetchExecutor) {
+        this.request = request;
+        this.prefetchExecutor = prefetchExecutor;
+    }
+
+    @Override
+    public PageIterator<T> iterator() {
+        return new PageIterator<>(request, prefetchExecutor);
+    }
+
+    /**
+     * Executes the call for a page
+     *
+     * @param call the call
+     * @param <T> the type of the entries
+     * @return the successful response
+     * @throws DeskApiException if the call fails or returns an unsuccessful response
+     */
+    @NotNull
+    public static <T extends Serializable> ApiResponse<T> execute(Call<ApiResponse<T>> call) {
+        Response<ApiResponse<T>> response;
+        try {
+            response = call.execute();
+        } catch (IOException e) {
+            throw DeskApiException.fromIOException(e);
+        }
+        if (!response.isSuccessful() || response.body() == null) {
+            throw DeskApiException.fromResponse(response);
+        }
+        return response.body();
+    }
+
+    /**
+     * Gets the page linked by {@code _links.next}
+     *
+     * @param response the current page
+     * @param current the number of the current page
+     * @return the next page number or 0 if there is no next page
+     */
+    public static int nextPage(ApiResponse<?> response, int current) {
+        if (!response.hasNextPage()) {
+            return 0;
+        }
+        String page = linkQueryParameter(response.getLinks().getNext(), PAGE_PARAM);
+        if (!StringUtils.isEmpty(page) && StringUtils.isDigitsOnly(page)) {
+            return Integer.parseInt(page);
+        }
+        return current + 1;
+    }
+
+    /**
+     * Gets a query parameter of a link which may be relative to the API host
+     *
+     * @param link the link
+     * @param name the name of the query parameter
+     * @return the value or null if the parameter does not exist
+     */
+    @Nullable
+    static String linkQueryParameter(Link link, String name) {
+        String href = link.getUrl();
+        if (StringUtils.isEmpty(href)) {
+            return null;
+        }
+        HttpUrl url = HttpUrl.parse(href.startsWith("/") ? "https://localhost" + href : href);
+        return url != null ? url.queryParameter(name) : null;
+    }
+
+    /**
+     * Iterator over the entries of every page. Closing the iterator cancels an outstanding prefetch.
+     *
+     * @param <T> the type of the entries
+     */
+    public static class PageIterator<T extends Serializable> implements Iterator<T>, Closeable {
+
+        private final PageRequest<T> request;
+        private final Executor prefetchExecutor;
+
+        private T[] entries;
+        private int index;
+        private int page;
+        private int nextPage = 1;
+        private FutureTask<ApiResponse<T>> prefetched;
+        private Call<ApiResponse<T>> prefetchedCall;
+        private int totalEntries = -1;
+
+        PageIterator(PageRequest<T> request, Executor prefetchExecutor) {
+            this.request = request;
+            this.prefetchExecutor = prefetchExecutor;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (entries == null || index >= entries.length) {
+                if (nextPage == 0) {
+                    return false;
+                }
+                loadNextPage();
+            }
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            // the page may be shared with coalesced callers, so its entries are left untouched
+            return entries[index++];
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("remove");
+        }
+
+        @Override
+        public void close() {
+            nextPage = 0;
+            entries = null;
+            if (prefetchedCall != null) {
+                prefetchedCall.cancel();
+                prefetchedCall = null;
+                prefetched = null;
+            }
+        }
+
+        /**
+         * Gets the number of the page currently being consumed
+         *
+         * @return the page or 0 if no page has been loaded yet
+         */
+        public int getPage() {
+            return page;
+        }
+
+        /**
+         * Gets the total entries reported by the most recent page
+         *
+         * @return the total entries or -1 if no page has been loaded yet
+         */
+        public int getTotalEntries() {
+            return totalEntries;
+        }
+
+        private void loadNextPage() {
+            ApiResponse<T> response = prefetched != null ? awaitPrefetched() : execute(request.page(nextPage));
+            page = nextPage;
+            nextPage = nextPage(response, page);
+            totalEntries = response.getTotalEntries();
+            entries = response.getEntries();
+            index = 0;
+
+            if (nextPage != 0 && prefetchExecutor != null) {
+                prefetch(nextPage);
+            }
+        }
+
+        private void prefetch(int page) {
+            final Call<ApiResponse<T>> call = request.page(page);
+            prefetchedCall = call;
+            prefetched = new FutureTask<>(new Callable<ApiResponse<T>>() {
+                @Override
+                public ApiResponse<T> call() throws Exception {
+                    return execute(call);
+                }
+            });
+            prefetchExecutor.execute(prefetched);
+        }
+
+        private ApiResponse<T> awaitPrefetched() {
+            FutureTask<ApiResponse<T>> task = prefetched;
+            prefetched = null;
+            prefetchedCall = null;
+            try {
+                return task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DeskApiException("Interrupted while waiting for page " + nextPage, e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof DeskApiException) {
+                    throw (DeskApiException) e.getCause();
+                }
+                throw new DeskApiException("Failed to load page " + nextPage, e.getCause());
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import com.desk.java.apiclient.model.Fields;
+import com.desk.java.apiclient.service.CaseService;
+import com.desk.java.apiclient.service.CompanyService;
+import com.desk.java.apiclient.service.CustomerService;
+import com.desk.java.apiclient.service.FilterService;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ *     Named sparse fieldsets which limit the fields Desk returns for a resource (ex: {@code cases}) through the
+ *     {@code fields} query parameter. Use them as defaults with
+ *     {@link com.desk.java.apiclient.DeskClientBuilder#defaultProjection(String, Projection)}.
+ * </p>
+ */
+public enum Projection {
+
+    /**
+     * The fields needed to list a resource, leaving large fields such as a case's {@code description} and
+     * {@code blurb} out
+     */
+    LIST,
+
+    /**
+     * Every field, the same as not passing a {@code fields} query parameter
+     */
+    DETAIL,
+
+    /**
+     * Only the id (and the links Desk always returns)
+     */
+    IDS_ONLY;
+
+    private static final String FIELD_ID = "id";
+    private static final Fields IDS = Fields.include(FIELD_ID);
+    private static final Map<String, Fields> LIST_FIELDS = new HashMap<>();
+
+    static {
+        LIST_FIELDS.put(CaseService.CASES_URI, Fields.include(CaseService.FIELD_ID, CaseService.FIELD_SUBJECT,
+                CaseService.FIELD_STATUS, CaseService.FIELD_TYPE, CaseService.FIELD_PRIORITY,
+                CaseService.FIELD_LABEL_IDS, CaseService.FIELD_CREATED_AT, CaseService.FIELD_UPDATED_AT));
+        LIST_FIELDS.put(CustomerService.CUSTOMERS_URI, Fields.include(CustomerService.FIELD_ID,
+                CustomerService.FIELD_FIRST_NAME, CustomerService.FIELD_LAST_NAME, CustomerService.FIELD_DISPLAY_NAME,
+                CustomerService.FIELD_COMPANY, CustomerService.FIELD_CREATED_AT, CustomerService.FIELD_UPDATED_AT));
+        LIST_FIELDS.put(CompanyService.COMPANY_URI, Fields.include(CompanyService.FIELD_ID,
+                CompanyService.FIELD_NAME, CompanyService.FIELD_CREATED_AT, CompanyService.FIELD_UPDATED_AT));
+        Fields filters = Fields.include(FilterService.FIELD_ID, FilterService.FIELD_NAME, FilterService.FIELD_POSITION,
+                FilterService.FIELD_ACTIVE);
+        LIST_FIELDS.put(FilterService.FILTERS_URI, filters);
+        LIST_FIELDS.put(FilterService.COMPANY_FILTERS_URI, filters);
+        LIST_FIELDS.put(FilterService.CUSTOMER_FILTERS_URI, filters);
+        LIST_FIELDS.put(FilterService.OPPORTUNITY_FILTERS_URI, filters);
+    }
+
+    /**
+     * Gets the fields of this projection for a resource
+     *
+     * @param resource the resource (ex: {@code cases})
+     * @return the fields or null to request every field
+     * @throws IllegalArgumentException if there is no {@link #LIST} projection for the resource
+     */
+    @Nullable
+    public Fields fields(String resource) {
+        switch (this) {
+            case LIST:
+                Fields fields = LIST_FIELDS.get(resource);
+                if (fields == null) {
+                    throw new IllegalArgumentException("no list projection for " + resource);
+                }
+                return fields;
+            case IDS_ONLY:
+                return IDS;
+            default:
+                return null;
+        }
+    }
+}
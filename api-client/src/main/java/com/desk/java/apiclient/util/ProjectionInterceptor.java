@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import com.desk.java.apiclient.model.Fields;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * <p>
+ *     An {@link Interceptor} which adds a default {@code fields} query parameter to GET requests listing or
+ *     searching a resource (ex: {@code /api/v2/cases}, {@code /api/v2/cases/search},
+ *     {@code /api/v2/filters/1/cases}). Requests which already have a {@code fields} parameter and requests for a
+ *     single entity are left as is. An empty {@code fields} parameter (see {@link Fields#all()}) opts out of the
+ *     default and is removed so every field is returned.
+ * </p>
+ */
+public class ProjectionInterceptor implements Interceptor {
+
+    static final String FIELDS_PARAM = "fields";
+    private static final String SEARCH_SEGMENT = "search";
+
+    private final Map<String, String> defaultFields;
+
+    /**
+     * Creates a projection interceptor
+     *
+     * @param defaultFields the default fields keyed by resource (ex: {@code cases})
+     */
+    public ProjectionInterceptor(Map<String, Fields> defaultFields) {
+        this.defaultFields = new HashMap<>();
+        for (Map.Entry<String, Fields> entry : defaultFields.entrySet()) {
+            if (entry.getValue() != null) {
+                this.defaultFields.put(entry.getKey(), entry.getValue().toString());
+            }
+        }
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!"GET".equals(request.method())) {
+            return chain.proceed(request);
+        }
+        String requested = request.url().queryParameter(FIELDS_PARAM);
+        if (requested != null) {
+            if (requested.isEmpty()) {
+                HttpUrl url = request.url().newBuilder().removeAllQueryParameters(FIELDS_PARAM).build();
+                request = request.newBuilder().url(url).build();
+            }
+            return chain.proceed(request);
+        }
+        String fields = defaultFields.get(resource(request.url()));
+        if (fields == null) {
+            return chain.proceed(request);
+        }
+        HttpUrl url = request.url().newBuilder().addEncodedQueryParameter(FIELDS_PARAM, fields).build();
+        return chain.proceed(request.newBuilder().url(url).build());
+    }
+
+    /**
+     * Gets the resource a request lists or searches
+     *
+     * @return the resource or null if the request is for a single entity
+     */
+    static String resource(HttpUrl url) {
+        List<String> segments = url.pathSegments();
+        int last = segments.size() - 1;
+        if (last > 0 && SEARCH_SEGMENT.equals(segments.get(last))) {
+            last--;
+        }
+        String segment = segments.get(last);
+        return segment.isEmpty() || StringUtils.isDigitsOnly(segment) ? null : segment;
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.desk.java.apiclient.util;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Request;
+import retrofit2.Call;
+import retrofit2.CallAdapter;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+
+/**
+ * <p>
+ *     A {@link CallAdapter.Factory} which delays enqueued calls until their {@link RateLimitInterceptor} permit is
+ *     due instead of letting them wait on a dispatcher thread. The permit is reserved when the call is enqueued and
+ *     the call is handed to the dispatcher once the wait is over, so a throttled client doesn't hold dispatcher
+ *     slots other clients of a shared transport need.
+ * </p>
+ *
+ * <p>
+ *     Synchronous calls are left to the interceptor, which blocks the calling thread.
+ * </p>
+ */
+public class RateLimitCallAdapterFactory extends CallAdapter.Factory {
+
+    private final RateLimitInterceptor rateLimiter;
+
+    /**
+     * Creates a factory delaying calls for a rate limiter
+     *
+     * @param rateLimiter the rate limiter installed on the client's network interceptors
+     */
+    public RateLimitCallAdapterFactory(RateLimitInterceptor rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public CallAdapter<?> get(Type returnType, Annotation[] annotations, Retrofit retrofit) {
+        if (getRawType(returnType) != Call.class) {
+            return null;
+        }
+        final CallAdapter<?> delegate = retrofit.nextCallAdapter(this, returnType, annotations);
+        return new CallAdapter<Call<?>>() {
+            @Override
+            public Type responseType() {
+                return delegate.responseType();
+            }
+
+            @Override
+            public <R> Call<?> adapt(Call<R> call) {
+                @SuppressWarnings("unchecked")
+                Call<R> adapted = (Call<R>) delegate.adapt(call);
+                return new ThrottledCall<>(adapted);
+            }
+        };
+    }
+
+    /**
+     * A {@link Call} which is enqueued once its permit is due
+     */
+    final class ThrottledCall<T> implements Call<T> {
+
+        private final Call<T> delegate;
+        private volatile boolean executed;
+
+        ThrottledCall(Call<T> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Response<T> execute() throws IOException {
+            markExecuted();
+            return delegate.execute();
+        }
+
+        @Override
+        public void enqueue(final Callback<T> callback) {
+            markExecuted();
+            long waitNanos = rateLimiter.reserve(delegate.request());
+            if (waitNanos <= 0) {
+                delegate.enqueue(callback);
+            } else {
+                schedule(callback, waitNanos);
+            }
+        }
+
+        private void schedule(final Callback<T> callback, long waitNanos) {
+            Scheduler.INSTANCE.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    // the server may have closed the window since the permit was reserved
+                    long blockedNanos = rateLimiter.blockedNanos();
+                    if (blockedNanos > 0 && !delegate.isCanceled()) {
+                        schedule(callback, blockedNanos);
+                    } else {
+                        // a canceled delegate fails the callback as it would for any canceled call
+                        delegate.enqueue(callback);
+                    }
+                }
+            }, waitNanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return executed || delegate.isExecuted();
+        }
+
+        @Override
+        public void cancel() {
+            delegate.cancel();
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return delegate.isCanceled();
+        }
+
+        @SuppressWarnings("CloneDoesntCallSuperClone")
+        @Override
+        public Call<T> clone() {
+            return new ThrottledCall<>(delegate.clone());
+        }
+
+        @Override
+        public Request request() {
+            return delegate.request();
+        }
+
+        private void markExecuted() {
+            synchronized (this) {
+                if (executed) {
+                    throw new IllegalStateException("Already executed.");
+                }
+                executed = true;
+            }
+        }
+    }
+
+    /**
+     * The timer thread delayed calls wait on, shared by every client and only started when a call is delayed
+     */
+    private static final class Scheduler {
+
+        static final ScheduledExecutorService INSTANCE = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "Desk RateLimit Scheduler");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * <p>
+ *     An {@link Interceptor} which throttles requests client side so bursts do not trip the Desk rate limit.
+ * </p>
+ *
+ * <p>
+ *     Requests take a permit from a token bucket which refills at the configured rate. The bucket is kept in sync
+ *     with the server through the {@code X-Rate-Limit-Remaining} and {@code X-Rate-Limit-Reset} headers of every
+ *     response: when the site has fewer requests remaining than the bucket believes, the bucket is drained to
+ *     match, and when none remain (or a 429 is returned) requests are held until the window resets.
+ * </p>
+ *
+ * <p>
+ *     Waiting callers are served in arrival order. Synchronous (and Rx) calls block the calling thread. Enqueued
+ *     calls must not wait here, as they would hold a slot of the dispatcher (which may be shared with other clients)
+ *     while sleeping: a {@link RateLimitCallAdapterFactory} reserves their permit up front and enqueues them once it
+ *     is due, and the reserved request then passes this interceptor without waiting. Install it as a network
+ *     interceptor so responses served from the response cache do not consume permits.
+ * </p>
+ */
+public class RateLimitInterceptor implements Interceptor {
+
+    static final String HEADER_LIMIT = "X-Rate-Limit-Limit";
+    static final String HEADER_REMAINING = "X-Rate-Limit-Remaining";
+    static final String HEADER_RESET = "X-Rate-Limit-Reset";
+    static final String HEADER_RETRY_AFTER = "Retry-After";
+    static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+    private static final long MAX_SLEEP_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    // fair lock used as a turnstile so waiting callers acquire permits in arrival order
+    private final ReentrantLock turnstile = new ReentrantLock(true);
+    private final Object state = new Object();
+
+    private final long periodNanos;
+    private final double capacity;
+    private double tokens;
+    private long lastRefillNanos;
+    private long blockedUntilNanos;
+    // requests whose permit was reserved, keyed by the request's tag which is kept when interceptors rebuild it
+    private final Map<Object, Boolean> reserved = Collections.synchronizedMap(new WeakHashMap<Object, Boolean>());
+
+    /**
+     * Creates a rate limiter allowing {@code permits} requests per {@code period}
+     *
+     * @param permits the number of requests allowed per period
+     * @param period the period
+     * @param unit the unit of the period
+     */
+    public RateLimitInterceptor(int permits, long period, TimeUnit unit) {
+        if (permits < 1) {
+            throw new IllegalArgumentException("permits < 1");
+        }
+        if (period <= 0) {
+            throw new IllegalArgumentException("period <= 0");
+        }
+        this.periodNanos = unit.toNanos(period);
+        this.capacity = permits;
+        this.tokens = permits;
+        this.lastRefillNanos = System.nanoTime();
+        this.blockedUntilNanos = lastRefillNanos;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        // a reservation covers the first attempt only, retries acquire a permit again
+        if (reserved.remove(chain.request().tag()) == null) {
+            acquire();
+        }
+        Response response = chain.proceed(chain.request());
+        onResponse(response);
+        return response;
+    }
+
+    /**
+     * Gets the number of requests which can currently be made without waiting
+     *
+     * @return the number of available permits
+     */
+    public int getAvailablePermits() {
+        synchronized (state) {
+            long now = System.nanoTime();
+            refill(now);
+            return now - blockedUntilNanos < 0 ? 0 : Math.max(0, (int) tokens);
+        }
+    }
+
+    /**
+     * Takes a permit for a request without waiting for it. Later callers wait behind the reservation.
+     *
+     * @param request the request the permit is for, its first attempt won't wait for another permit
+     * @return the nanoseconds to wait before sending the request
+     */
+    long reserve(Request request) {
+        long waitNanos;
+        synchronized (state) {
+            long now = System.nanoTime();
+            refill(now);
+            waitNanos = Math.max(0, blockedUntilNanos - now);
+            if (tokens < 1) {
+                waitNanos = Math.max(waitNanos, (long) ((1 - tokens) * periodNanos / capacity));
+            }
+            tokens -= 1;
+        }
+        reserved.put(request.tag(), Boolean.TRUE);
+        return waitNanos;
+    }
+
+    /**
+     * Gets how long requests are held because the server reported no remaining requests
+     *
+     * @return the nanoseconds until the window resets, 0 if requests aren't held
+     */
+    long blockedNanos() {
+        synchronized (state) {
+            return Math.max(0, blockedUntilNanos - System.nanoTime());
+        }
+    }
+
+    void acquire() throws IOException {
+        try {
+            turnstile.lockInterruptibly();
+            try {
+                while (true) {
+                    long waitNanos;
+                    synchronized (state) {
+                        long now = System.nanoTime();
+                        refill(now);
+                        waitNanos = blockedUntilNanos - now;
+                        if (waitNanos <= 0) {
+                            if (tokens >= 1) {
+                                tokens -= 1;
+                                return;
+                            }
+                            waitNanos = (long) ((1 - tokens) * periodNanos / capacity);
+                        }
+                    }
+                    // sleep in slices so header updates from in-flight responses are picked up
+                    TimeUnit.NANOSECONDS.sleep(Math.max(1, Math.min(waitNanos, MAX_SLEEP_NANOS)));
+                }
+            } finally {
+                turnstile.unlock();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for a rate limit permit");
+        }
+    }
+
+    void onResponse(Response response) {
+        int limit = intHeader(response, HEADER_LIMIT);
+        int remaining = intHeader(response, HEADER_REMAINING);
+        int reset = intHeader(response, HEADER_RESET);
+        if (response.code() == HTTP_TOO_MANY_REQUESTS) {
+            remaining = 0;
+            int retryAfter = intHeader(response, HEADER_RETRY_AFTER);
+            reset = retryAfter >= 0 ? retryAfter : reset;
+        }
+
+        synchronized (state) {
+            long now = System.nanoTime();
+            refill(now);
+            // the limit applies to the server's window, so it only caps the burst and never changes the local rate
+            if (limit > 0) {
+                tokens = Math.min(tokens, limit);
+            }
+            if (remaining >= 0 && remaining < tokens) {
+                tokens = remaining;
+            }
+            if (remaining == 0 && reset >= 0) {
+                long until = now + TimeUnit.SECONDS.toNanos(reset);
+                if (until - blockedUntilNanos > 0) {
+                    blockedUntilNanos = until;
+                }
+            }
+        }
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * capacity / periodNanos);
+            lastRefillNanos = now;
+        }
+    }
+
+    private static int intHeader(Response response, String name) {
+        String value = response.header(name);
+        if (StringUtils.isEmpty(value)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
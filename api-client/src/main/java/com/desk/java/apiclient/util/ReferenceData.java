@@ -0,0 +1,399 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import com.desk.java.apiclient.DeskApiException;
+import com.desk.java.apiclient.DeskClient;
+import com.desk.java.apiclient.model.ApiResponse;
+import com.desk.java.apiclient.model.CustomField;
+import com.desk.java.apiclient.model.Fields;
+import com.desk.java.apiclient.model.Filter;
+import com.desk.java.apiclient.model.Group;
+import com.desk.java.apiclient.model.Label;
+import com.desk.java.apiclient.model.Link;
+import com.desk.java.apiclient.model.User;
+import com.desk.java.apiclient.service.CustomFieldsService;
+import com.desk.java.apiclient.service.GroupService;
+import com.desk.java.apiclient.service.LabelService;
+import com.desk.java.apiclient.service.UserService;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import retrofit2.Call;
+
+/**
+ * <p>
+ *     An in-memory snapshot of the reference data case processing keeps resolving: labels, groups, users, custom
+ *     fields and case filters. Every list is loaded in parallel, indexed by id and then swapped in at once, so
+ *     lookups never go to the network and always see a consistent {@link Snapshot}. The lists are requested with
+ *     {@link Fields#all()}, so a default projection never leaves their entities (which also seed the client's
+ *     {@link EntityCache}) with missing fields.
+ * </p>
+ *
+ * <p>
+ *     Lookups return null until the first {@link #refresh()} completes. Use
+ *     {@link #scheduleRefresh(ScheduledExecutorService, long, TimeUnit)} to keep the snapshot up to date.
+ * </p>
+ */
+public class ReferenceData {
+
+    private static final int FILTERS_PER_PAGE = 100;
+
+    private final DeskClient client;
+    private final Executor executor;
+    private volatile Snapshot snapshot = new Snapshot();
+    private volatile RuntimeException lastRefreshError;
+
+    /**
+     * Creates the reference data of a client
+     *
+     * @param client the client to load the reference data with
+     * @param executor the executor the lists are loaded on in parallel
+     */
+    public ReferenceData(@NotNull DeskClient client, @NotNull Executor executor) {
+        this.client = client;
+        this.executor = executor;
+    }
+
+    /**
+     * Loads every list and swaps the new snapshot in. The current snapshot is kept if loading fails.
+     *
+     * @return the new snapshot
+     * @throws DeskApiException if a list can't be loaded
+     */
+    @NotNull
+    public Snapshot refresh() {
+        FutureTask<List<Label>> labels = load(new PageRequest<Label>() {
+            @Override
+            public Call<ApiResponse<Label>> page(int page) {
+                return client.labels().getLabels(LabelService.MAX_PER_PAGE, page, Fields.all());
+            }
+        });
+        FutureTask<List<Group>> groups = load(new PageRequest<Group>() {
+            @Override
+            public Call<ApiResponse<Group>> page(int page) {
+                return client.groups().getGroups(GroupService.MAX_PER_PAGE, page, Fields.all());
+            }
+        });
+        FutureTask<List<User>> users = load(new PageRequest<User>() {
+            @Override
+            public Call<ApiResponse<User>> page(int page) {
+                return client.users().getUsers(UserService.MAX_PER_PAGE, page, Fields.all());
+            }
+        });
+        FutureTask<List<CustomField>> customFields = load(new PageRequest<CustomField>() {
+            @Override
+            public Call<ApiResponse<CustomField>> page(int page) {
+                return client.customFields().getCustomFields(CustomFieldsService.MAX_PER_PAGE, page, Fields.all());
+            }
+        });
+        FutureTask<List<Filter>> caseFilters = load(new PageRequest<Filter>() {
+            @Override
+            public Call<ApiResponse<Filter>> page(int page) {
+                return client.filters().getCaseFilters(FILTERS_PER_PAGE, page, Fields.all());
+            }
+        });
+
+        try {
+            Snapshot loaded = new Snapshot(await(labels), await(groups), await(users), await(customFields),
+                    await(caseFilters));
+            populateEntityCache(loaded);
+            snapshot = loaded;
+            lastRefreshError = null;
+            return loaded;
+        } catch (RuntimeException e) {
+            labels.cancel(true);
+            groups.cancel(true);
+            users.cancel(true);
+            customFields.cancel(true);
+            caseFilters.cancel(true);
+            lastRefreshError = e;
+            throw e;
+        }
+    }
+
+    /**
+     * Refreshes the snapshot periodically. A failed refresh keeps the current snapshot and is reported by
+     * {@link #getLastRefreshError()}.
+     *
+     * @param scheduler the scheduler to refresh on
+     * @param period the delay between the end of a refresh and the start of the next one
+     * @param unit the unit of the period
+     * @return the scheduled refresh, cancel it to stop refreshing
+     */
+    @NotNull
+    public ScheduledFuture<?> scheduleRefresh(@NotNull ScheduledExecutorService scheduler, long period, TimeUnit unit) {
+        return scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    refresh();
+                } catch (RuntimeException ignored) {
+                    // kept in lastRefreshError, throwing would cancel the schedule
+                }
+            }
+        }, period, period, unit);
+    }
+
+    /**
+     * Gets the current snapshot
+     *
+     * @return the snapshot, empty until the first refresh completes
+     */
+    @NotNull
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Gets the error of the last refresh
+     *
+     * @return the error or null if the last refresh succeeded
+     */
+    @Nullable
+    public RuntimeException getLastRefreshError() {
+        return lastRefreshError;
+    }
+
+    @Nullable
+    public Label getLabel(long id) {
+        return snapshot.getLabel(id);
+    }
+
+    @Nullable
+    public Group getGroup(long id) {
+        return snapshot.getGroup(id);
+    }
+
+    @Nullable
+    public Group getGroup(@Nullable Link link) {
+        return link != null ? getGroup(link.getLinkId()) : null;
+    }
+
+    @Nullable
+    public User getUser(long id) {
+        return snapshot.getUser(id);
+    }
+
+    @Nullable
+    public User getUser(@Nullable Link link) {
+        return link != null ? getUser(link.getLinkId()) : null;
+    }
+
+    @Nullable
+    public CustomField getCustomField(String name) {
+        return snapshot.getCustomField(name);
+    }
+
+    @Nullable
+    public Filter getCaseFilter(long id) {
+        return snapshot.getCaseFilter(id);
+    }
+
+    private <T extends Serializable> FutureTask<List<T>> load(final PageRequest<T> request) {
+        FutureTask<List<T>> task = new FutureTask<>(new Callable<List<T>>() {
+            @Override
+            public List<T> call() throws Exception {
+                List<T> entries = new ArrayList<>();
+                for (T entry : new Pager<>(request)) {
+                    entries.add(entry);
+                }
+                return entries;
+            }
+        });
+        executor.execute(task);
+        return task;
+    }
+
+    private static <T> List<T> await(FutureTask<List<T>> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DeskApiException("interrupted while loading reference data", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new DeskApiException("error loading reference data", e.getCause());
+        }
+    }
+
+    private void populateEntityCache(Snapshot loaded) {
+        EntityCache cache = client.getEntityCache();
+        if (cache == null) {
+            return;
+        }
+        for (Label label : loaded.getLabels()) {
+            cache.put(Label.class, label.getId(), label);
+        }
+        for (Group group : loaded.getGroups()) {
+            cache.put(Group.class, group.getId(), group);
+        }
+        for (User user : loaded.getUsers()) {
+            cache.put(User.class, user.getId(), user);
+        }
+        for (Filter filter : loaded.getCaseFilters()) {
+            cache.put(Filter.class, filter.getId(), filter);
+        }
+    }
+
+    /**
+     * <p>
+     *     An immutable view of the reference data at the time it was loaded
+     * </p>
+     */
+    public static final class Snapshot {
+
+        private final List<Label> labelList;
+        private final List<Group> groupList;
+        private final List<User> userList;
+        private final List<CustomField> customFieldList;
+        private final List<Filter> caseFilterList;
+        private final LongObjectMap<Label> labels;
+        private final LongObjectMap<Group> groups;
+        private final LongObjectMap<User> users;
+        private final LongObjectMap<Filter> caseFilters;
+        private final Map<String, CustomField> customFields;
+        private final long loadedAt;
+
+        Snapshot() {
+            this(Collections.<Label>emptyList(), Collections.<Group>emptyList(), Collections.<User>emptyList(),
+                    Collections.<CustomField>emptyList(), Collections.<Filter>emptyList(), 0);
+        }
+
+        Snapshot(List<Label> labels, List<Group> groups, List<User> users, List<CustomField> customFields,
+                 List<Filter> caseFilters) {
+            this(labels, groups, users, customFields, caseFilters, System.currentTimeMillis());
+        }
+
+        private Snapshot(List<Label> labels, List<Group> groups, List<User> users, List<CustomField> customFields,
+                         List<Filter> caseFilters, long loadedAt) {
+            this.labelList = Collections.unmodifiableList(labels);
+            this.groupList = Collections.unmodifiableList(groups);
+            this.userList = Collections.unmodifiableList(users);
+            this.customFieldList = Collections.unmodifiableList(customFields);
+            this.caseFilterList = Collections.unmodifiableList(caseFilters);
+            this.labels = new LongObjectMap<>(labels.size());
+            for (Label label : labels) {
+                this.labels.put(label.getId(), label);
+            }
+            this.groups = new LongObjectMap<>(groups.size());
+            for (Group group : groups) {
+                this.groups.put(group.getId(), group);
+            }
+            this.users = new LongObjectMap<>(users.size());
+            for (User user : users) {
+                this.users.put(user.getId(), user);
+            }
+            this.caseFilters = new LongObjectMap<>(caseFilters.size());
+            for (Filter filter : caseFilters) {
+                this.caseFilters.put(filter.getId(), filter);
+            }
+            Map<String, CustomField> byName = new HashMap<>(customFields.size() * 2);
+            for (CustomField customField : customFields) {
+                byName.put(customField.getName(), customField);
+            }
+            this.customFields = Collections.unmodifiableMap(byName);
+            this.loadedAt = loadedAt;
+        }
+
+        @NotNull
+        public List<Label> getLabels() {
+            return labelList;
+        }
+
+        @NotNull
+        public List<Group> getGroups() {
+            return groupList;
+        }
+
+        @NotNull
+        public List<User> getUsers() {
+            return userList;
+        }
+
+        @NotNull
+        public List<CustomField> getCustomFields() {
+            return customFieldList;
+        }
+
+        @NotNull
+        public List<Filter> getCaseFilters() {
+            return caseFilterList;
+        }
+
+        @Nullable
+        public Label getLabel(long id) {
+            return labels.get(id);
+        }
+
+        @Nullable
+        public Group getGroup(long id) {
+            return groups.get(id);
+        }
+
+        @Nullable
+        public User getUser(long id) {
+            return users.get(id);
+        }
+
+        @Nullable
+        public CustomField getCustomField(String name) {
+            return customFields.get(name);
+        }
+
+        @Nullable
+        public Filter getCaseFilter(long id) {
+            return caseFilters.get(id);
+        }
+
+        /**
+         * Gets when the snapshot was loaded
+         *
+         * @return the load time in milliseconds since the epoch or 0 if nothing was loaded yet
+         */
+        public long getLoadedAt() {
+            return loadedAt;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * <p>
+ *     An {@link Interceptor} which retries requests failing with a connection error, a 429 or a 5xx (500, 502,
+ *     503, 504) using exponential backoff with full jitter. A {@code Retry-After} header (or Desk's
+ *     {@code X-Rate-Limit-Reset} on a 429) takes precedence over the computed backoff but is capped by the maximum
+ *     delay. Canceled calls are never retried.
+ * </p>
+ *
+ * <p>
+ *     Only idempotent requests (GET, HEAD, OPTIONS, PUT, DELETE) are retried by default. Retrying POST and PATCH
+ *     requests (ex: {@code createCase}, {@code updateCase}) must be enabled with {@link #retryNonIdempotent(boolean)}.
+ * </p>
+ *
+ * <p>
+ *     The number of retries is counted per endpoint, where numeric path segments are replaced by {@code :id}
+ *     (ex: {@code PATCH /api/v2/cases/:id}).
+ * </p>
+ */
+public class RetryInterceptor implements Interceptor {
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    public static final long DEFAULT_BASE_DELAY_MILLIS = 500;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 30000;
+
+    private static final List<String> IDEMPOTENT_METHODS = Arrays.asList("GET", "HEAD", "OPTIONS", "PUT", "DELETE");
+
+    // message of the IOException thrown by OkHttp when proceeding on a canceled call
+    private static final String CANCELED = "Canceled";
+
+    private static final ThreadLocal<DateFormat> HTTP_DATE = new ThreadLocal<DateFormat>() {
+        @Override
+        protected DateFormat initialValue() {
+            DateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+            format.setTimeZone(TimeZone.getTimeZone("GMT"));
+            return format;
+        }
+    };
+
+    private final int maxAttempts;
+    private final ConcurrentHashMap<String, AtomicLong> retryCounts = new ConcurrentHashMap<>();
+    private final Random random = new Random();
+    private long baseDelayMillis = DEFAULT_BASE_DELAY_MILLIS;
+    private long maxDelayMillis = DEFAULT_MAX_DELAY_MILLIS;
+    private boolean retryNonIdempotent;
+
+    /**
+     * Creates a retry interceptor with {@link #DEFAULT_MAX_ATTEMPTS}
+     */
+    public RetryInterceptor() {
+        this(DEFAULT_MAX_ATTEMPTS);
+    }
+
+    /**
+     * Creates a retry interceptor
+     *
+     * @param maxAttempts the maximum number of attempts per request including the first one
+     */
+    public RetryInterceptor(int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts < 1");
+        }
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Sets the backoff. The delay before retry {@code n} is a random duration between 0 and
+     * {@code min(maxDelay, baseDelay * 2^(n - 1))}.
+     *
+     * @param baseDelay the base delay
+     * @param maxDelay the maximum delay
+     * @param unit the unit of the delays
+     * @return the interceptor instance
+     */
+    public RetryInterceptor backoff(long baseDelay, long maxDelay, TimeUnit unit) {
+        if (baseDelay < 0 || maxDelay < baseDelay) {
+            throw new IllegalArgumentException("0 <= baseDelay <= maxDelay required");
+        }
+        this.baseDelayMillis = unit.toMillis(baseDelay);
+        this.maxDelayMillis = unit.toMillis(maxDelay);
+        return this;
+    }
+
+    /**
+     * Sets whether POST and PATCH requests are retried
+     *
+     * @param retryNonIdempotent true to retry POST and PATCH requests
+     * @return the interceptor instance
+     */
+    public RetryInterceptor retryNonIdempotent(boolean retryNonIdempotent) {
+        this.retryNonIdempotent = retryNonIdempotent;
+        return this;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        boolean retryable = retryNonIdempotent || IDEMPOTENT_METHODS.contains(request.method());
+
+        for (int attempt = 1; ; attempt++) {
+            boolean lastAttempt = !retryable || attempt >= maxAttempts;
+            Response response;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException e) {
+                if (lastAttempt || isCanceled(e)) {
+                    throw e;
+                }
+                retry(request, backoffMillis(attempt));
+                continue;
+            }
+
+            if (lastAttempt || !isRetryable(response.code())) {
+                return response;
+            }
+            long delay = retryAfterMillis(response);
+            if (response.body() != null) {
+                response.body().close();
+            }
+            retry(request, delay >= 0 ? Math.min(delay, maxDelayMillis) : backoffMillis(attempt));
+        }
+    }
+
+    /**
+     * Gets the number of retries performed per endpoint
+     *
+     * @return a snapshot of the retry counts keyed by endpoint (ex: {@code GET /api/v2/cases/:id})
+     */
+    @NotNull
+    public Map<String, Long> getRetryCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        for (Map.Entry<String, AtomicLong> entry : retryCounts.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().get());
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+
+    /**
+     * Gets the total number of retries performed
+     *
+     * @return the number of retries
+     */
+    public long getTotalRetries() {
+        long total = 0;
+        for (AtomicLong count : retryCounts.values()) {
+            total += count.get();
+        }
+        return total;
+    }
+
+    static boolean isRetryable(int code) {
+        return code == RateLimitInterceptor.HTTP_TOO_MANY_REQUESTS || code == 500 || code == 502 || code == 503
+                || code == 504;
+    }
+
+    /**
+     * A canceled call (or an interrupted thread) must not be retried. OkHttp 3.2 does not expose the call to
+     * interceptors, so a cancellation is recognized by the exception it raises on the next {@code proceed}.
+     */
+    static boolean isCanceled(IOException e) {
+        return CANCELED.equals(e.getMessage())
+                || e instanceof InterruptedIOException && Thread.currentThread().isInterrupted();
+    }
+
+    static String endpoint(Request request) {
+        StringBuilder key = new StringBuilder(request.method()).append(' ');
+        for (String segment : request.url().pathSegments()) {
+            key.append('/');
+            key.append(!segment.isEmpty() && StringUtils.isDigitsOnly(segment) ? ":id" : segment);
+        }
+        return key.toString();
+    }
+
+    long backoffMillis(int attempt) {
+        long ceiling = baseDelayMillis << Math.min(attempt - 1, 30);
+        if (ceiling <= 0 || ceiling > maxDelayMillis) {
+            ceiling = maxDelayMillis;
+        }
+        synchronized (random) {
+            return ceiling > 0 ? (long) (random.nextDouble() * ceiling) : 0;
+        }
+    }
+
+    static long retryAfterMillis(Response response) {
+        String retryAfter = response.header(RateLimitInterceptor.HEADER_RETRY_AFTER);
+        if (StringUtils.isEmpty(retryAfter) && response.code() == RateLimitInterceptor.HTTP_TOO_MANY_REQUESTS) {
+            retryAfter = response.header(RateLimitInterceptor.HEADER_RESET);
+        }
+        if (StringUtils.isEmpty(retryAfter)) {
+            return -1;
+        }
+        retryAfter = retryAfter.trim();
+        if (StringUtils.isDigitsOnly(retryAfter)) {
+            try {
+                return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter));
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        try {
+            Date date = HTTP_DATE.get().parse(retryAfter);
+            return Math.max(0, date.getTime() - System.currentTimeMillis());
+        } catch (ParseException e) {
+            return -1;
+        }
+    }
+
+    private void retry(Request request, long delayMillis) throws IOException {
+        String endpoint = endpoint(request);
+        AtomicLong count = retryCounts.get(endpoint);
+        if (count == null) {
+            AtomicLong existing = retryCounts.putIfAbsent(endpoint, count = new AtomicLong());
+            if (existing != null) {
+                count = existing;
+            }
+        }
+        count.incrementAndGet();
+
+        try {
+            Thread.sleep(delayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting to retry " + endpoint);
+        }
+    }
+}
@@ -0,0 +1,371 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import retrofit2.Call;
+import retrofit2.CallAdapter;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+
+/**
+ * <p>
+ *     A {@link CallAdapter.Factory} which coalesces identical concurrent GET requests: while a request for a URL
+ *     is in flight, other calls for the same URL wait for it and receive the same {@link Response} (and so the same
+ *     parsed body) instead of going to the network.
+ * </p>
+ *
+ * <p>
+ *     Only service methods returning {@link Call} are coalesced. In-flight requests are tracked per factory, so a
+ *     factory must not be shared by clients using different credentials.
+ * </p>
+ */
+public class SingleFlightCallAdapterFactory extends CallAdapter.Factory {
+
+    private final ConcurrentMap<String, Flight<?>> flights = new ConcurrentHashMap<>();
+
+    @Override
+    public CallAdapter<?> get(Type returnType, Annotation[] annotations, Retrofit retrofit) {
+        if (getRawType(returnType) != Call.class) {
+            return null;
+        }
+        final CallAdapter<?> delegate = retrofit.nextCallAdapter(this, returnType, annotations);
+        return new CallAdapter<Call<?>>() {
+            @Override
+            public Type responseType() {
+                return delegate.responseType();
+            }
+
+            @Override
+            public <R> Call<?> adapt(Call<R> call) {
+                @SuppressWarnings("unchecked")
+                Call<R> adapted = (Call<R>) delegate.adapt(call);
+                return new SingleFlightCall<>(adapted, delegate.responseType());
+            }
+        };
+    }
+
+    /**
+     * Gets the number of requests currently in flight
+     *
+     * @return the number of in-flight requests
+     */
+    public int getInFlightCount() {
+        return flights.size();
+    }
+
+    /**
+     * A {@link Call} which joins the in-flight request for the same URL if there is one
+     */
+    final class SingleFlightCall<T> implements Call<T> {
+
+        private final Call<T> delegate;
+        private final Type responseType;
+        private volatile boolean executed;
+        private volatile boolean canceled;
+
+        SingleFlightCall(Call<T> delegate, Type responseType) {
+            this.delegate = delegate;
+            this.responseType = responseType;
+        }
+
+        @Override
+        public Response<T> execute() throws IOException {
+            markExecuted();
+            String key = key();
+            if (key == null) {
+                return delegate.execute();
+            }
+
+            while (true) {
+                Flight<T> flight = new Flight<>(this);
+                Flight<T> existing = join(key, flight);
+                if (existing == null) {
+                    Response<T> response = null;
+                    Throwable failure = null;
+                    try {
+                        response = buffer(delegate.execute());
+                    } catch (IOException | RuntimeException e) {
+                        failure = e;
+                    }
+                    flights.remove(key, flight);
+                    flight.complete(response, failure);
+                    return flight.get();
+                }
+                if (canceled) {
+                    throw new IOException("Canceled");
+                }
+                try {
+                    existing.done.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("interrupted while waiting for " + key);
+                }
+                if (!existing.isLeaderCanceled()) {
+                    return existing.get();
+                }
+                // the leader gave up, try again with our own request
+            }
+        }
+
+        @Override
+        public void enqueue(Callback<T> callback) {
+            markExecuted();
+            enqueueFlight(callback);
+        }
+
+        void enqueueFlight(final Callback<T> callback) {
+            final String key = key();
+            if (key == null) {
+                delegate.enqueue(callback);
+                return;
+            }
+
+            while (true) {
+                final Flight<T> flight = new Flight<>(this);
+                flight.addCallback(this, callback);
+                Flight<T> existing = join(key, flight);
+                if (existing == null) {
+                    delegate.enqueue(new Callback<T>() {
+                        @Override
+                        public void onResponse(Call<T> call, Response<T> response) {
+                            Response<T> shared;
+                            try {
+                                shared = buffer(response);
+                            } catch (IOException e) {
+                                onFailure(call, e);
+                                return;
+                            }
+                            flights.remove(key, flight);
+                            flight.complete(shared, null);
+                        }
+
+                        @Override
+                        public void onFailure(Call<T> call, Throwable t) {
+                            flights.remove(key, flight);
+                            flight.complete(null, t);
+                        }
+                    });
+                    return;
+                }
+                if (existing.addCallback(this, callback)) {
+                    return;
+                }
+                // the flight completed in the meantime, start a new one
+            }
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return executed;
+        }
+
+        @Override
+        public void cancel() {
+            canceled = true;
+            delegate.cancel();
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return canceled || delegate.isCanceled();
+        }
+
+        @SuppressWarnings("CloneDoesntCallSuperClone")
+        @Override
+        public Call<T> clone() {
+            return new SingleFlightCall<>(delegate.clone(), responseType);
+        }
+
+        @Override
+        public Request request() {
+            return delegate.request();
+        }
+
+        private void markExecuted() {
+            synchronized (this) {
+                if (executed) {
+                    throw new IllegalStateException("Already executed.");
+                }
+                executed = true;
+            }
+        }
+
+        private String key() {
+            Request request = delegate.request();
+            return "GET".equals(request.method()) ? responseType + " " + request.url() : null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Flight<T> join(String key, Flight<T> flight) {
+            return (Flight<T>) flights.putIfAbsent(key, flight);
+        }
+
+        /**
+         * Reads the error body into memory so that every caller can read it
+         */
+        private Response<T> buffer(Response<T> response) throws IOException {
+            ResponseBody errorBody = response.errorBody();
+            if (response.isSuccessful() || errorBody == null) {
+                return response;
+            }
+            try {
+                ResponseBody buffered = new SharedResponseBody(errorBody.contentType(), errorBody.bytes());
+                return Response.error(buffered, response.raw());
+            } finally {
+                errorBody.close();
+            }
+        }
+    }
+
+    /**
+     * A {@link ResponseBody} held in memory which can be read once by every caller
+     */
+    static final class SharedResponseBody extends ResponseBody {
+
+        private final MediaType contentType;
+        private final byte[] bytes;
+
+        SharedResponseBody(MediaType contentType, byte[] bytes) {
+            this.contentType = contentType;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return contentType;
+        }
+
+        @Override
+        public long contentLength() {
+            return bytes.length;
+        }
+
+        @Override
+        public BufferedSource source() {
+            return new Buffer().write(bytes);
+        }
+    }
+
+    /**
+     * A request in flight and the callers waiting for it
+     */
+    static final class Flight<T> {
+
+        final CountDownLatch done = new CountDownLatch(1);
+        private final List<SingleFlightCall<T>> calls = new ArrayList<>();
+        private final List<Callback<T>> callbacks = new ArrayList<>();
+        private final SingleFlightCall<T> leader;
+        private boolean completed;
+        private Response<T> response;
+        private Throwable failure;
+
+        Flight(SingleFlightCall<T> leader) {
+            this.leader = leader;
+        }
+
+        /**
+         * Registers a callback, returns false if the flight already completed
+         */
+        synchronized boolean addCallback(SingleFlightCall<T> call, Callback<T> callback) {
+            if (completed) {
+                return false;
+            }
+            calls.add(call);
+            callbacks.add(callback);
+            return true;
+        }
+
+        void complete(Response<T> response, Throwable failure) {
+            List<SingleFlightCall<T>> calls;
+            List<Callback<T>> callbacks;
+            synchronized (this) {
+                this.response = response;
+                this.failure = failure;
+                this.completed = true;
+                calls = new ArrayList<>(this.calls);
+                callbacks = new ArrayList<>(this.callbacks);
+            }
+            done.countDown();
+            boolean leaderCanceled = isLeaderCanceled();
+            for (int i = 0; i < callbacks.size(); i++) {
+                SingleFlightCall<T> call = calls.get(i);
+                if (call != leader && call.isCanceled()) {
+                    callbacks.get(i).onFailure(call, new IOException("Canceled"));
+                } else if (call != leader && leaderCanceled) {
+                    // the leader gave up, try again with our own request
+                    call.enqueueFlight(callbacks.get(i));
+                } else if (response != null) {
+                    callbacks.get(i).onResponse(call, response);
+                } else {
+                    callbacks.get(i).onFailure(call, failure);
+                }
+            }
+        }
+
+        synchronized boolean isLeaderCanceled() {
+            return failure != null && leader.isCanceled();
+        }
+
+        Response<T> get() throws IOException {
+            Throwable failure;
+            Response<T> response;
+            synchronized (this) {
+                failure = this.failure;
+                response = this.response;
+            }
+            if (failure instanceof IOException) {
+                throw (IOException) failure;
+            }
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            if (failure != null) {
+                throw new IOException(failure);
+            }
+            return response;
+        }
+    }
+}
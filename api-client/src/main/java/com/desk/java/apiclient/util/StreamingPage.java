@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import com.desk.java.apiclient.DeskApiException;
+import com.desk.java.apiclient.model.ApiResponse;
+import com.desk.java.apiclient.model.Links;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Serializable;
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+
+/**
+ * <p>
+ *     Reads the entries of a list response one at a time while the body is downloaded, instead of binding the whole
+ *     page to an {@link ApiResponse}. Only the entry being read is held in memory.
+ * </p>
+ *
+ * <p>
+ *     The total entries, page and links are available once they have been read. Desk sends them before the
+ *     entries but they are only guaranteed to be known once the page has been fully iterated. The page must be
+ *     closed if it isn't fully iterated.
+ * </p>
+ *
+ * @param <T> the type of the entries
+ */
+public class StreamingPage<T extends Serializable> implements Iterator<T>, Closeable {
+
+    private static final String TOTAL_ENTRIES = "total_entries";
+    private static final String PAGE = "page";
+    private static final String LINKS = "_links";
+    private static final String EMBEDDED = "_embedded";
+    private static final String ENTRIES = "entries";
+
+    private final ResponseBody body;
+    private final JsonReader reader;
+    private final TypeAdapter<T> entryAdapter;
+    private final TypeAdapter<Links> linksAdapter;
+
+    private boolean inEmbedded;
+    private boolean inEntries;
+    private boolean closed;
+    private int totalEntries = -1;
+    private int page;
+    private Links links;
+
+    StreamingPage(ResponseBody body, TypeAdapter<T> entryAdapter, TypeAdapter<Links> linksAdapter) throws IOException {
+        this.body = body;
+        this.reader = new JsonReader(body.charStream());
+        this.entryAdapter = entryAdapter;
+        this.linksAdapter = linksAdapter;
+        reader.beginObject();
+        inEntries = readUntilEntries();
+    }
+
+    /**
+     * Executes the request of a call and starts reading its entries. The call itself isn't executed, its request
+     * is sent through the provided call factory and the body is read as it arrives.
+     *
+     * @param callFactory the call factory to send the request with (the client's {@link okhttp3.OkHttpClient})
+     * @param gson the {@link Gson} used to read the entries
+     * @param call the call for the page
+     * @param entryType the type of the entries
+     * @param <T> the type of the entries
+     * @return the page
+     * @throws DeskApiException if the request fails or returns an unsuccessful response
+     */
+    @NotNull
+    public static <T extends Serializable> StreamingPage<T> open(@NotNull okhttp3.Call.Factory callFactory,
+                                                                 @NotNull Gson gson,
+                                                                 @NotNull Call<ApiResponse<T>> call,
+                                                                 @NotNull Type entryType) {
+        Response response;
+        try {
+            response = callFactory.newCall(call.request()).execute();
+        } catch (IOException e) {
+            throw DeskApiException.fromIOException(e);
+        }
+        if (!response.isSuccessful()) {
+            response.body().close();
+            throw DeskApiException.fromResponse(retrofit2.Response.error(response.body(), response));
+        }
+        @SuppressWarnings("unchecked")
+        TypeAdapter<T> entryAdapter = (TypeAdapter<T>) gson.getAdapter(TypeToken.get(entryType));
+        try {
+            return new StreamingPage<>(response.body(), entryAdapter, gson.getAdapter(Links.class));
+        } catch (IOException | RuntimeException e) {
+            response.body().close();
+            throw e instanceof IOException ? DeskApiException.fromIOException((IOException) e) : (RuntimeException) e;
+        }
+    }
+
+    /**
+     * Reads every entry of the page and closes it
+     *
+     * @param handler the handler called with each entry
+     * @return the number of entries read
+     */
+    public int forEach(@NotNull EntryHandler<? super T> handler) {
+        int count = 0;
+        try {
+            while (hasNext()) {
+                handler.onEntry(next());
+                count++;
+            }
+        } finally {
+            close();
+        }
+        return count;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!inEntries) {
+            return false;
+        }
+        try {
+            if (reader.hasNext()) {
+                return true;
+            }
+            reader.endArray();
+            inEntries = false;
+            readUntilEntries();
+            close();
+            return false;
+        } catch (IOException e) {
+            close();
+            throw DeskApiException.fromIOException(e);
+        }
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        try {
+            return entryAdapter.read(reader);
+        } catch (IOException e) {
+            close();
+            throw DeskApiException.fromIOException(e);
+        }
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("remove");
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            inEntries = false;
+            body.close();
+        }
+    }
+
+    /**
+     * @return the total number of entries or -1 if it hasn't been read yet
+     */
+    public int getTotalEntries() {
+        return totalEntries;
+    }
+
+    /**
+     * @return the page number or 0 if it hasn't been read yet
+     */
+    public int getPage() {
+        return page;
+    }
+
+    /**
+     * @return the links or null if they haven't been read yet
+     */
+    @Nullable
+    public Links getLinks() {
+        return links;
+    }
+
+    /**
+     * Gets the page linked by {@code _links.next}
+     *
+     * @return the next page number or 0 if there is no next page (or the links haven't been read yet)
+     */
+    public int getNextPage() {
+        if (links == null || StringUtils.isEmpty(links.getNext().getUrl())) {
+            return 0;
+        }
+        String next = Pager.linkQueryParameter(links.getNext(), PAGE);
+        return !StringUtils.isEmpty(next) && StringUtils.isDigitsOnly(next) ? Integer.parseInt(next) : page + 1;
+    }
+
+    /**
+     * Reads the response until the start of the entries or the end of the document
+     *
+     * @return true if the reader is positioned in the entries array
+     */
+    private boolean readUntilEntries() throws IOException {
+        while (true) {
+            if (inEmbedded) {
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    if (ENTRIES.equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                        reader.beginArray();
+                        return true;
+                    }
+                    reader.skipValue();
+                }
+                reader.endObject();
+                inEmbedded = false;
+            }
+            if (!reader.hasNext()) {
+                reader.endObject();
+                return false;
+            }
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+            switch (name) {
+                case TOTAL_ENTRIES:
+                    totalEntries = reader.nextInt();
+                    break;
+                case PAGE:
+                    page = reader.nextInt();
+                    break;
+                case LINKS:
+                    links = linksAdapter.read(reader);
+                    break;
+                case EMBEDDED:
+                    if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                        reader.beginObject();
+                        inEmbedded = true;
+                    } else {
+                        reader.skipValue();
+                    }
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+    }
+}
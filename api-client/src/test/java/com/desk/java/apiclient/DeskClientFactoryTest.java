@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * <p>
+ *     Unit tests for {@link DeskClientFactory}
+ * </p>
+ */
+public class DeskClientFactoryTest {
+
+    private OkHttpClient transport;
+    private DeskClientFactory factory;
+
+    @Before
+    public void setUp() throws Exception {
+        transport = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(20, 1, TimeUnit.MINUTES))
+                .build();
+        factory = new DeskClientFactory(transport);
+    }
+
+    @Test
+    public void createDoesShareTransportBetweenTenants() throws Exception {
+        OkHttpClient first = okHttpClient(factory.create(new DeskClientBuilder("one.desk.com", "1234")));
+        OkHttpClient second = okHttpClient(factory.create(new DeskClientBuilder("two.desk.com", "5678")));
+        assertNotSame(first, second);
+        assertSame(transport.connectionPool(), first.connectionPool());
+        assertSame(transport.connectionPool(), second.connectionPool());
+        assertSame(transport.dispatcher(), first.dispatcher());
+        assertSame(transport.dispatcher(), second.dispatcher());
+    }
+
+    @Test
+    public void createDoesUseTenantHostname() throws Exception {
+        DeskClient client = factory.create(new DeskClientBuilder("one.desk.com", "1234"));
+        assertEquals("one.desk.com", client.getHostname());
+        assertEquals("https://one.desk.com/api/v2/", client.getRestAdapter().baseUrl().toString());
+    }
+
+    @Test
+    public void createDoesApplyTenantTransportOptions() throws Exception {
+        OkHttpClient client = okHttpClient(factory.create(new DeskClientBuilder("one.desk.com", "1234")
+                .readTimeout(42, TimeUnit.SECONDS)));
+        assertEquals(42000, client.readTimeoutMillis());
+        assertEquals(transport.readTimeoutMillis(), okHttpClient(factory.create(
+                new DeskClientBuilder("two.desk.com", "1234"))).readTimeoutMillis());
+    }
+
+    @Test
+    public void createDoesNotChangeTenantBuilder() throws Exception {
+        DeskClientBuilder builder = new DeskClientBuilder("one.desk.com", "1234");
+        factory.create(builder);
+        assertNull(builder.sharedTransport);
+        OkHttpClient standalone = okHttpClient(DeskClient.create(builder));
+        assertNotSame(transport.connectionPool(), standalone.connectionPool());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void createDoesRejectTenantRequestLimits() throws Exception {
+        factory.create(new DeskClientBuilder("one.desk.com", "1234").maxRequestsPerHost(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void createDoesRejectTenantConnectionPool() throws Exception {
+        factory.create(new DeskClientBuilder("one.desk.com", "1234").connectionPool(5, 1, TimeUnit.MINUTES));
+    }
+
+    private static OkHttpClient okHttpClient(DeskClient client) {
+        return (OkHttpClient) client.getRestAdapter().callFactory();
+    }
+}
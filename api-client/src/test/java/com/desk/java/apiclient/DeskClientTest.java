@@ -26,15 +26,28 @@
 
 package com.desk.java.apiclient;
 
+import com.desk.java.apiclient.util.EntityCache;
+
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
 import java.net.URI;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Response;
 
 import static com.desk.java.apiclient.DeskClientBuilder.PROTOCOL_CONNECT;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -153,4 +166,59 @@ public class DeskClientTest {
     public void getUrlReturnsCorrectUrl() throws Exception {
         assertEquals(PROTOCOL_CONNECT + TEST_HOST_NAME + "/testpath", apiTokenDeskClient.getUrl("/testpath"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void builderDoesConfigureTransport() throws Exception {
+        DeskClient client = DeskClient.create(new DeskClientBuilder(TEST_HOST_NAME, "1234")
+                .maxRequests(128)
+                .maxRequestsPerHost(32)
+                .connectTimeout(3, TimeUnit.SECONDS)
+                .readTimeout(4, TimeUnit.SECONDS)
+                .writeTimeout(5, TimeUnit.SECONDS)
+                .protocols(Collections.singletonList(Protocol.HTTP_1_1)));
+        OkHttpClient okHttpClient = (OkHttpClient) client.getRestAdapter().callFactory();
+        assertEquals(128, okHttpClient.dispatcher().getMaxRequests());
+        assertEquals(32, okHttpClient.dispatcher().getMaxRequestsPerHost());
+        assertEquals(3000, okHttpClient.connectTimeoutMillis());
+        assertEquals(4000, okHttpClient.readTimeoutMillis());
+        assertEquals(5000, okHttpClient.writeTimeoutMillis());
+        assertEquals(Collections.singletonList(Protocol.HTTP_1_1), okHttpClient.protocols());
+    }
+
+    @Test
+    public void builderDoesShareConnectionPoolAndDispatcher() throws Exception {
+        ConnectionPool pool = new ConnectionPool(10, 1, TimeUnit.MINUTES);
+        Dispatcher dispatcher = new Dispatcher();
+        DeskClient first = DeskClient.create(new DeskClientBuilder("one.desk.com", "1234")
+                .connectionPool(pool).dispatcher(dispatcher));
+        DeskClient second = DeskClient.create(new DeskClientBuilder("two.desk.com", "1234")
+                .connectionPool(pool).dispatcher(dispatcher));
+        OkHttpClient firstClient = (OkHttpClient) first.getRestAdapter().callFactory();
+        OkHttpClient secondClient = (OkHttpClient) second.getRestAdapter().callFactory();
+        assertSame(pool, firstClient.connectionPool());
+        assertSame(firstClient.connectionPool(), secondClient.connectionPool());
+        assertSame(firstClient.dispatcher(), secondClient.dispatcher());
+    }
+
+    @Test
+    public void warmUpDoesResolveEveryServiceWithoutSendingRequests() throws Exception {
+        Interceptor failing = new Interceptor() {
+            @Override
+            public Response intercept(Chain chain) throws IOException {
+                throw new AssertionError("warm up sent " + chain.request());
+            }
+        };
+        DeskClient client = DeskClient.create(new DeskClientBuilder(TEST_HOST_NAME, "1234")
+                .applicationInterceptors(Collections.singletonList(failing))
+                .entityCache(new EntityCache())
+                .coalesceRequests(true));
+        assertTrue(client.warmUp() >= 0);
+        assertEquals(20, client.services().size());
+    }
+
+    @Test
+    public void servicesAreCreatedOnce() throws Exception {
+        assertSame(apiTokenDeskClient.cases(), apiTokenDeskClient.cases());
+        assertSame(apiTokenDeskClient.users(), apiTokenDeskClient.services().get(0));
+    }
+}
@@ -26,6 +26,8 @@
 
 package com.desk.java.apiclient.model;
 
+import com.desk.java.apiclient.util.StringUtils;
+
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
@@ -57,4 +59,38 @@ public class LinkTest {
         Link link = new Link("/link/10");
         assertEquals(10, link.getLinkId());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getLinkIdDoesIgnoreQueryAndTrailingSlash() throws Exception {
+        assertEquals(10, new Link("/api/v2/cases/10?embed=customer").getLinkId());
+        assertEquals(10, new Link("/api/v2/cases/10/").getLinkId());
+        assertEquals(10, new Link("10").getLinkId());
+    }
+
+    @Test
+    public void getLinkIdDoesReturn0WithNullOrOverflowingHref() throws Exception {
+        assertEquals(0, new Link().getLinkId());
+        assertEquals(0, new Link("/api/v2/cases/99999999999999999999").getLinkId());
+        assertEquals(0, new Link("/api/v2/cases/").getLinkId());
+        assertEquals(0, new Link("/api/v2/cases/1a").getLinkId());
+        assertEquals(Long.MAX_VALUE, new Link("/api/v2/cases/" + Long.MAX_VALUE).getLinkId());
+    }
+
+    @Test
+    public void getLinkIdDoesParseAgainAfterSetHref() throws Exception {
+        Link link = new Link("/link/10");
+        assertEquals(10, link.getLinkId());
+        link.setHref("/link/20");
+        assertEquals(20, link.getLinkId());
+    }
+
+    @Test
+    public void getLinkIdDoesMatchLastPathSegment() throws Exception {
+        String[] hrefs = {"/a/1", "/a/12345/", "/a/b", "/a/1?b=2", "a", "/", "/a/0", "/a/007"};
+        for (String href : hrefs) {
+            String segment = StringUtils.getLastPathSegment(href);
+            long expected = StringUtils.isEmpty(segment) || !StringUtils.isDigitsOnly(segment) ? 0 : Long.valueOf(segment);
+            assertEquals(href, expected, new Link(href).getLinkId());
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.model;
+
+import com.desk.java.apiclient.service.CaseService;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * <p>
+ *     Unit tests for {@link QueryFields}, {@link Embed} and {@link Fields}
+ * </p>
+ */
+public class QueryFieldsTest {
+
+    @Test
+    public void toStringDoesJoinFields() throws Exception {
+        assertEquals("customer,assigned_user", Embed.fields("customer", "assigned_user").toString());
+        assertEquals("id", Fields.include("id").toString());
+        assertEquals("", Fields.include().toString());
+        assertSame(Fields.all(), Fields.include());
+    }
+
+    @Test
+    public void identicalFieldsAreInterned() throws Exception {
+        assertSame(Embed.fields("customer", "message"), Embed.fields("customer", "message"));
+        assertSame(Fields.include("id", "subject"), Fields.include("id", "subject"));
+        assertSame(CaseService.EMBED_CUSTOMER_ASSIGNED_USER_ASSIGNED_GROUP,
+                Embed.fields("customer", "assigned_user", "assigned_group"));
+    }
+
+    @Test
+    public void singleFieldDoesShareInternedInstance() throws Exception {
+        Fields single = Fields.include("single_field");
+        assertSame(single, Fields.include(new String[] {"single_field"}));
+        assertSame(single, Fields.include("single_field"));
+        assertEquals("single_field", single.toString());
+        Embed embed = Embed.fields(new String[] {"single_embed"});
+        assertSame(embed, Embed.fields("single_embed"));
+        assertSame(embed, Embed.fields("single_embed"));
+    }
+
+    @Test
+    public void embedAndFieldsAreNotEqual() throws Exception {
+        assertNotEquals(Embed.fields("id"), Fields.include("id"));
+        assertNotEquals(Embed.fields("id", "subject"), Embed.fields("subject", "id"));
+    }
+
+    @Test
+    public void changingArgumentsDoesNotChangeInstance() throws Exception {
+        String[] fields = {"mutable_one", "mutable_two"};
+        Fields include = Fields.include(fields);
+        fields[0] = "changed";
+        assertEquals("mutable_one,mutable_two", include.toString());
+        assertSame(include, Fields.include("mutable_one", "mutable_two"));
+    }
+
+    @Test
+    public void deserializationDoesReturnInternedInstance() throws Exception {
+        Embed embed = Embed.fields("customer", "draft");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(embed);
+        out.close();
+
+        Object read = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+        assertSame(embed, read);
+        assertEquals("customer,draft", read.toString());
+    }
+}
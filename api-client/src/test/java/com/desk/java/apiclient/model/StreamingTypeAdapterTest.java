@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.desk.java.apiclient.model;
+
+import com.desk.java.apiclient.util.ISO8601DateAdapter;
+import com.desk.java.apiclient.util.LinkTypeAdapterFactory;
+import com.desk.java.apiclient.util.TestUtils;
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *     Unit tests for the {@link StreamingTypeAdapter}s of {@link Case}, {@link Customer}, {@link Message} and
+ *     {@link ApiResponse}, comparing them with Gson's reflective adapter
+ * </p>
+ */
+public class StreamingTypeAdapterTest {
+
+    private static final String MESSAGE = "{\"id\":5,\"subject\":\"Re: help\",\"body\":\"Hi\",\"direction\":\"in\","
+            + "\"status\":\"received\",\"ticket_status\":\"open\",\"to\":\"support@desk.com\","
+            + "\"from\":\"jane@example.com\",\"cc\":null,\"bcc\":\"b@example.com\",\"type\":\"email\","
+            + "\"hidden\":\"false\",\"is_best_answer\":\"true\",\"hidden_at\":null,\"from_facebook_name\":\"Jane\","
+            + "\"answers_disallowed_at\":\"now\",\"disallow_community_answers\":\"false\","
+            + "\"are_answers_disallowed\":\"false\",\"client_type\":\"desk_portal\","
+            + "\"entered_at\":\"2016-01-01T10:00:00Z\",\"created_at\":\"2016-01-01T10:00:01Z\","
+            + "\"updated_at\":\"2016-01-02T10:00:00Z\",\"event_type\":null,"
+            + "\"_links\":{\"self\":{\"href\":\"/api/v2/cases/1/message\",\"class\":\"email\"},"
+            + "\"case\":{\"href\":\"/api/v2/cases/1\",\"class\":\"case\"}}}";
+
+    private static final String CUSTOMER = "{\"id\":7,\"first_name\":\"Jane\",\"last_name\":\"Doe\","
+            + "\"avatar\":\"https://example.com/a.png\",\"title\":\"CTO\",\"language\":\"en\",\"background\":null,"
+            + "\"company_name\":\"Acme\",\"display_name\":\"Jane Doe\","
+            + "\"emails\":[{\"type\":\"work\",\"value\":\"jane@example.com\"}],\"addresses\":[],"
+            + "\"phone_numbers\":[{\"type\":\"mobile\",\"value\":\"555\"}],"
+            + "\"custom_fields\":{\"tier\":\"gold\",\"region\":null},"
+            + "\"created_at\":\"2015-06-01T10:00:00Z\",\"updated_at\":\"2016-01-02T10:00:00Z\","
+            + "\"extra\":{\"ignored\":[1,2,{\"a\":null}]},"
+            + "\"_links\":{\"self\":{\"href\":\"/api/v2/customers/7\",\"class\":\"customer\"},"
+            + "\"company\":{\"href\":\"/api/v2/companies/3\",\"class\":\"company\"}}}";
+
+    private static final String CASE = "{\"id\":1,\"external_id\":null,\"subject\":\"Help\",\"priority\":\"4\","
+            + "\"description\":\"It broke\",\"name\":\"Jane Doe\",\"type\":\"email\",\"blurb\":\"It broke...\","
+            + "\"status\":\"open\",\"labels\":[\"vip\",\"billing\"],\"label_ids\":[3,4],\"label_action\":null,"
+            + "\"custom_fields\":{\"level\":\"2\"},\"created_at\":\"2016-01-01T10:00:00Z\","
+            + "\"updated_at\":\"2016-01-02T10:00:00Z\",\"locked_until\":null,"
+            + "\"_embedded\":{\"customer\":" + CUSTOMER + ",\"message\":" + MESSAGE + "},"
+            + "\"_links\":{\"self\":{\"href\":\"/api/v2/cases/1\",\"class\":\"case\"},"
+            + "\"message\":{\"href\":\"/api/v2/cases/1/message\",\"class\":\"email\"},"
+            + "\"replies\":{\"href\":\"/api/v2/cases/1/replies\",\"count\":2,\"class\":\"reply\"},"
+            + "\"customer\":{\"href\":\"/api/v2/customers/7\",\"class\":\"customer\"}},"
+            + "\"message\":null,\"reply\":" + MESSAGE + "}";
+
+    private static final String PAGE = "{\"total_entries\":2,\"page\":1,"
+            + "\"_links\":{\"self\":{\"href\":\"/api/v2/cases?page=1\",\"class\":\"page\"},"
+            + "\"next\":null,\"previous\":null},"
+            + "\"_embedded\":{\"entries\":[" + CASE + ",{\"id\":2,\"subject\":\"Other\"}]}}";
+
+    private static final Type CASES = new TypeToken<ApiResponse<Case>>() {}.getType();
+
+    private final Gson gson = TestUtils.getDeskClientGson();
+    private final Gson reflective = new GsonBuilder()
+            .registerTypeAdapter(Date.class, ISO8601DateAdapter.TYPE_ADAPTER)
+            .registerTypeAdapterFactory(new LinkTypeAdapterFactory())
+            .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
+            .create();
+
+    @Test
+    public void readDoesMatchReflectiveAdapter() throws Exception {
+        assertSameFields(Message.class, MESSAGE);
+        assertSameFields(Customer.class, CUSTOMER);
+        assertSameFields(Case.class, CASE);
+        assertSameFields(CASES, PAGE);
+    }
+
+    @Test
+    public void readDoesReadEveryField() throws Exception {
+        ApiResponse<Case> page = gson.fromJson(PAGE, CASES);
+        assertEquals(2, page.getTotalEntries());
+        assertEquals(Case[].class, page.getEntries().getClass());
+        Case first = page.getEntries()[0];
+        assertEquals("Help", first.getSubject());
+        assertEquals(CaseStatus.OPEN, first.getStatus());
+        assertEquals("2", first.getCustomFields().get("level"));
+        assertEquals(7, first.getCustomerId());
+        assertEquals("Acme", first.getCustomer().getCompanyName());
+        assertEquals(MessageDirection.IN, first.getReply().getDirection());
+        assertEquals(2, first.getLinks().getReplies().getCount());
+    }
+
+    @Test
+    public void readDoesKeepPrimitivesOnNull() throws Exception {
+        Case aCase = gson.fromJson("{\"id\":null,\"subject\":null}", Case.class);
+        assertEquals(0, aCase.getId());
+        assertNull(aCase.getSubject());
+        assertNull(gson.fromJson("null", Case.class));
+        ApiResponse<Case> page = gson.fromJson("{\"_embedded\":{\"entries\":null}}", CASES);
+        assertNull(page.getEntries());
+    }
+
+    @Test(expected = JsonSyntaxException.class)
+    public void readDoesRejectInvalidNumbers() throws Exception {
+        gson.fromJson("{\"id\":\"one\"}", Case.class);
+    }
+
+    @Test
+    public void writeDoesMatchReflectiveAdapter() throws Exception {
+        Case aCase = reflective.fromJson(CASE, Case.class);
+        assertEquals(reflective.toJson(aCase), gson.toJson(aCase));
+        ApiResponse<Case> page = reflective.fromJson(PAGE, CASES);
+        assertEquals(reflective.toJson(page, CASES), gson.toJson(page, CASES));
+    }
+
+    @Test
+    public void readFieldDoesHandleEveryDeclaredField() throws Exception {
+        assertReadsEveryField(TypeToken.get(Case.class));
+        assertReadsEveryField(TypeToken.get(Customer.class));
+        assertReadsEveryField(TypeToken.get(Message.class));
+        assertReadsEveryField(TypeToken.get(CASES));
+    }
+
+    @Test
+    public void factoriesDoIgnoreOtherTypes() throws Exception {
+        assertNull(Case.TYPE_ADAPTER_FACTORY.create(gson, TypeToken.get(Customer.class)));
+        assertNull(ApiResponse.TYPE_ADAPTER_FACTORY.create(gson, TypeToken.get(ApiResponse.class)));
+        assertNull(ApiResponse.TYPE_ADAPTER_FACTORY.create(gson, TypeToken.get(OpportunityTimeline.class)));
+        assertTrue(Case.TYPE_ADAPTER_FACTORY.create(gson, TypeToken.get(Case.class)) instanceof StreamingTypeAdapter);
+    }
+
+    /**
+     * Fails when a field of the model, as named by the naming policy, isn't read by its adapter and would be
+     * skipped silently
+     */
+    private <T> void assertReadsEveryField(TypeToken<T> type) throws Exception {
+        @SuppressWarnings("unchecked")
+        StreamingTypeAdapter<T> adapter = (StreamingTypeAdapter<T>) gson.getAdapter(type);
+        for (Field field : type.getRawType().getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())
+                    || field.isSynthetic()) {
+                continue;
+            }
+            SerializedName serializedName = field.getAnnotation(SerializedName.class);
+            String name = serializedName != null ? serializedName.value()
+                    : FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES.translateName(field);
+            assertTrue(type + " does not read " + name,
+                    adapter.readField(new JsonReader(new StringReader("null")), name, adapter.newInstance()));
+        }
+    }
+
+    private void assertSameFields(Type type, String json) {
+        Object streamed = gson.fromJson(json, type);
+        Object expected = reflective.fromJson(json, type);
+        assertEquals(reflective.toJson(expected, type), reflective.toJson(streamed, type));
+    }
+}
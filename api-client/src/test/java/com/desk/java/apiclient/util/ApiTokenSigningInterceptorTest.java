@@ -35,6 +35,9 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.*;
@@ -69,6 +72,19 @@ public class ApiTokenSigningInterceptorTest {
         assertTrue(doesHaveAuthorizationHeader(captor.getValue()));
     }
 
+    @Test
+    public void authorizeRequestDoesReplaceAuthorizationHeader() throws Exception {
+        Interceptor.Chain chain = mock(Interceptor.Chain.class);
+        Request request = new Request.Builder().url("https://test.desk.com")
+                .header(AUTHORIZATION_HEADER, "Bearer stale").build();
+        when(chain.request()).thenReturn(request);
+        ArgumentCaptor<Request> captor = ArgumentCaptor.forClass(Request.class);
+        when(chain.proceed(captor.capture())).thenReturn(new Response.Builder().
+                request(request).code(200).protocol(Protocol.HTTP_2).build());
+        apiTokenSigningInterceptor.intercept(chain);
+        assertEquals(Collections.singletonList("Bearer " + API_TOKEN), captor.getValue().headers(AUTHORIZATION_HEADER));
+    }
+
     private boolean doesHaveAuthorizationHeader(Request request) {
         return request.headers().get(AUTHORIZATION_HEADER) != null;
     }
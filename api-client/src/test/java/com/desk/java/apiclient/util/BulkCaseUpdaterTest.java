@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import com.desk.java.apiclient.DeskApiException;
+import com.desk.java.apiclient.DeskClient;
+import com.desk.java.apiclient.DeskClientBuilder;
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.model.CaseStatus;
+import com.desk.java.apiclient.model.Job;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * <p>
+ *     Unit tests for {@link BulkCaseUpdater}
+ * </p>
+ */
+public class BulkCaseUpdaterTest {
+
+    private final AtomicInteger jobIds = new AtomicInteger();
+    private final Map<Long, AtomicInteger> progress = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> jobSizes = new ConcurrentHashMap<>();
+    private final AtomicInteger runningJobs = new AtomicInteger();
+    private final AtomicInteger maxRunningJobs = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile String lastError;
+    private volatile int createCode = 200;
+    private volatile boolean holdFirstJob;
+
+    private ScheduledExecutorService scheduler;
+    private BulkCaseUpdater updater;
+
+    @Before
+    public void setUp() {
+        Interceptor fake = new Interceptor() {
+            @Override
+            public Response intercept(Chain chain) throws IOException {
+                Request request = chain.request();
+                Response.Builder builder = new Response.Builder().request(request).protocol(Protocol.HTTP_1_1);
+                if ("POST".equals(request.method())) {
+                    if (createCode != 200) {
+                        return builder.code(createCode).body(ResponseBody.create(null, "")).build();
+                    }
+                    Buffer body = new Buffer();
+                    request.body().writeTo(body);
+                    JsonObject json = new JsonParser().parse(body.readUtf8()).getAsJsonObject();
+                    long id = jobIds.incrementAndGet();
+                    jobSizes.put(id, json.getAsJsonArray("case_ids").size());
+                    progress.put(id, new AtomicInteger());
+                    maxRunningJobs.set(Math.max(maxRunningJobs.get(), runningJobs.incrementAndGet()));
+                    return json(builder, job(id, 0));
+                }
+                long id = Long.parseLong(request.url().pathSegments().get(3));
+                if (id == 1 && holdFirstJob) {
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                int current = progress.get(id).addAndGet(50);
+                if (current >= 100) {
+                    runningJobs.decrementAndGet();
+                }
+                return json(builder, job(id, current));
+            }
+        };
+        DeskClient client = DeskClient.create(new DeskClientBuilder("test.desk.com", "token")
+                .applicationInterceptors(Collections.singletonList(fake)));
+        scheduler = new ScheduledThreadPoolExecutor(2);
+        updater = new BulkCaseUpdater(client, scheduler).pollInterval(1, 5, TimeUnit.MILLISECONDS);
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void updateDoesSplitIdsIntoChunks() throws Exception {
+        List<BulkCaseUpdater.Chunk> chunks = updater.chunkSize(1000).update(changes(), ids(2500));
+        assertEquals(3, chunks.size());
+        assertEquals(500, chunks.get(2).getCaseIds().length);
+        int updated = 0;
+        for (BulkCaseUpdater.Chunk chunk : chunks) {
+            Job job = chunk.get(5, TimeUnit.SECONDS);
+            assertEquals(100, job.getProgress());
+            assertEquals(100, chunk.getProgress());
+            updated += jobSizes.get(job.getId());
+        }
+        assertEquals(2500, updated);
+        assertTrue(maxRunningJobs.get() <= BulkCaseUpdater.DEFAULT_MAX_CONCURRENT_JOBS);
+        assertEquals(0, updater.getRunningCount());
+        assertEquals(0, updater.getPendingCount());
+    }
+
+    @Test
+    public void updateDoesSurfaceLastError() throws Exception {
+        lastError = "Case 3 could not be updated";
+        BulkCaseUpdater.Chunk chunk = updater.update(changes(), 1, 2, 3).get(0);
+        try {
+            chunk.get(5, TimeUnit.SECONDS);
+            fail("expected an ExecutionException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof DeskApiException);
+            assertTrue(e.getCause().getMessage().contains(lastError));
+        }
+        assertEquals(lastError, chunk.getJob().getLastError());
+    }
+
+    @Test
+    public void updateDoesFailChunkWhenJobCannotBeCreated() throws Exception {
+        createCode = 422;
+        BulkCaseUpdater.Chunk chunk = updater.update(changes(), 1, 2, 3).get(0);
+        try {
+            chunk.get(5, TimeUnit.SECONDS);
+            fail("expected an ExecutionException");
+        } catch (ExecutionException e) {
+            assertEquals(422, ((DeskApiException) e.getCause()).getCode());
+        }
+    }
+
+    @Test
+    public void cancelDoesNotSubmitPendingChunk() throws Exception {
+        holdFirstJob = true;
+        List<BulkCaseUpdater.Chunk> chunks = updater.chunkSize(1).maxConcurrentJobs(1).update(changes(), 1, 2);
+        assertTrue(chunks.get(1).cancel(false));
+        release.countDown();
+        chunks.get(0).get(5, TimeUnit.SECONDS);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (updater.getRunningCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(1, jobIds.get());
+        assertEquals(0, updater.getRunningCount());
+    }
+
+    @Test
+    public void cancelDoesReleaseRunningChunkSlot() throws Exception {
+        updater.pollInterval(1, 60, TimeUnit.SECONDS);
+        List<BulkCaseUpdater.Chunk> chunks = updater.chunkSize(1).maxConcurrentJobs(1).update(changes(), 1, 2);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (chunks.get(0).getJob() == null && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(chunks.get(0).cancel(false));
+        // the second chunk starts without waiting for the canceled chunk's next poll
+        assertEquals(0, updater.getPendingCount());
+        deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (jobIds.get() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(2, jobIds.get());
+        assertTrue(chunks.get(0).isCancelled());
+    }
+
+    @Test
+    public void nextPollMillisDoesAdaptToProgress() throws Exception {
+        BulkCaseUpdater updater = this.updater.pollInterval(10, 10000, TimeUnit.MILLISECONDS);
+        // 50% in 1s, 1s left: poll again after half of it
+        assertEquals(500, updater.nextPollMillis(0, 50, 1000, 0));
+        // no progress: back off
+        assertEquals(1000, updater.nextPollMillis(50, 50, 500, 500));
+        assertEquals(10000, updater.nextPollMillis(50, 50, 500, 8000));
+        assertEquals(10, updater.nextPollMillis(0, 0, 0, 0));
+        assertEquals(10, updater.nextPollMillis(0, 99, 1000, 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void chunkSizeDoesRejectZero() throws Exception {
+        updater.chunkSize(0);
+    }
+
+    private String job(long id, int current) {
+        StringBuilder json = new StringBuilder("{\"id\":").append(id).append(",\"type\":\"bulk_case_update\",")
+                .append("\"progress\":").append(current);
+        if (current >= 100) {
+            json.append(",\"completed_at\":\"2016-06-14T00:00:00Z\"");
+            if (lastError != null) {
+                json.append(",\"last_error\":\"").append(lastError).append('"');
+            }
+        }
+        return json.append('}').toString();
+    }
+
+    private static Response json(Response.Builder builder, String body) {
+        return builder.code(200).body(ResponseBody.create(MediaType.parse("application/json"), body)).build();
+    }
+
+    private static Case changes() {
+        Case changes = new Case();
+        changes.setStatus(CaseStatus.RESOLVED);
+        return changes;
+    }
+
+    private static int[] ids(int count) {
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = i + 1;
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import com.desk.java.apiclient.DeskApiException;
+import com.desk.java.apiclient.DeskClient;
+import com.desk.java.apiclient.DeskClientBuilder;
+import com.desk.java.apiclient.model.Fields;
+import com.desk.java.apiclient.service.CaseService;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * <p>
+ *     Unit tests for {@link BulkExporter}
+ * </p>
+ */
+public class BulkExporterTest {
+
+    private static final String NAME = "cases-filter-1";
+    private static final int PAGES = 3;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<Integer> requestedPages = new ArrayList<>();
+    private final List<String> requestedFields = new ArrayList<>();
+    private volatile int failingPage;
+    private BulkExporter exporter;
+
+    @Before
+    public void setUp() throws Exception {
+        Interceptor fake = new Interceptor() {
+            @Override
+            public Response intercept(Chain chain) throws IOException {
+                Request request = chain.request();
+                int page = Integer.parseInt(request.url().queryParameter("page"));
+                requestedPages.add(page);
+                requestedFields.add(request.url().queryParameter("fields"));
+                Response.Builder builder = new Response.Builder().request(request).protocol(Protocol.HTTP_1_1);
+                if (page == failingPage) {
+                    return builder.code(503).body(ResponseBody.create(null, "")).build();
+                }
+                return builder.code(200)
+                        .body(ResponseBody.create(MediaType.parse("application/json"), page(page)))
+                        .build();
+            }
+        };
+        DeskClient client = DeskClient.create(new DeskClientBuilder("test.desk.com", "token")
+                .defaultProjection(CaseService.CASES_URI, Projection.LIST)
+                .applicationInterceptors(Collections.singletonList(fake)));
+        exporter = new BulkExporter(client, folder.getRoot());
+    }
+
+    @Test
+    public void exportDoesWriteEveryEntityAsOneLine() throws Exception {
+        BulkExporter.Result result = exporter.exportCases(1);
+        assertEquals(PAGES, result.getPages());
+        assertEquals(6, result.getEntities());
+        assertTrue(result.getEntitiesPerSecond() > 0);
+
+        List<String> lines = readLines();
+        assertEquals(6, lines.size());
+        assertTrue(lines.get(0).startsWith("{\"id\":1,"));
+        assertTrue(lines.get(5).startsWith("{\"id\":6,"));
+
+        BulkExporter.Checkpoint checkpoint = exporter.readCheckpoint(NAME);
+        assertEquals(NAME, checkpoint.getName());
+        assertTrue(checkpoint.isCompleted());
+        assertEquals(PAGES, checkpoint.getPage());
+        assertEquals(0, checkpoint.getNextPage());
+        assertEquals(6, checkpoint.getEntities());
+        assertEquals(new Date(6 * 60000), checkpoint.getUpdatedAt());
+        assertEquals(exporter.getOutputFile(NAME).length(), checkpoint.getBytes());
+    }
+
+    @Test
+    public void exportDoesOverrideDefaultProjection() throws Exception {
+        exporter.exportCases(1);
+        assertEquals(PAGES, requestedFields.size());
+        for (String fields : requestedFields) {
+            assertNull(fields);
+        }
+
+        exporter.reset(NAME);
+        requestedFields.clear();
+        exporter.fields(Fields.include("id", "updated_at")).exportCases(1);
+        assertEquals("id,updated_at", requestedFields.get(0));
+    }
+
+    @Test
+    public void exportDoesResumeAfterLastCheckpoint() throws Exception {
+        failingPage = 2;
+        try {
+            exporter.exportCases(1);
+            fail("expected a DeskApiException");
+        } catch (DeskApiException e) {
+            assertEquals(503, e.getCode());
+        }
+        BulkExporter.Checkpoint checkpoint = exporter.readCheckpoint(NAME);
+        assertFalse(checkpoint.isCompleted());
+        assertEquals(1, checkpoint.getPage());
+        assertEquals(2, checkpoint.getNextPage());
+
+        // bytes of a page which was being written when the run died
+        try (FileOutputStream out = new FileOutputStream(exporter.getOutputFile(NAME), true)) {
+            out.write(new byte[] {31, -117, 8, 0, 1, 2, 3});
+        }
+
+        failingPage = 0;
+        requestedPages.clear();
+        BulkExporter.Result result = exporter.exportCases(1);
+        assertEquals(2, result.getPages());
+        assertEquals(4, result.getEntities());
+        assertEquals(6, result.getCheckpoint().getEntities());
+        assertEquals(2, (int) requestedPages.get(0));
+        assertEquals(6, readLines().size());
+    }
+
+    @Test
+    public void exportDoesNotRunCompletedExportAgain() throws Exception {
+        exporter.exportCases(1);
+        requestedPages.clear();
+        BulkExporter.Result result = exporter.exportCases(1);
+        assertEquals(0, result.getPages());
+        assertTrue(requestedPages.isEmpty());
+
+        exporter.reset(NAME);
+        assertNull(exporter.readCheckpoint(NAME));
+        assertFalse(exporter.getOutputFile(NAME).exists());
+    }
+
+    private List<String> readLines() throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new FileInputStream(exporter.getOutputFile(NAME))), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    private static String page(int page) {
+        StringBuilder entries = new StringBuilder();
+        for (int id = page * 2 - 1; id <= page * 2; id++) {
+            if (entries.length() > 0) {
+                entries.append(',');
+            }
+            entries.append("{\"id\":").append(id).append(",\"subject\":\"case ").append(id)
+                    .append("\",\"updated_at\":\"1970-01-01T00:0").append(id).append(":00Z\"}");
+        }
+        String next = page < PAGES ? "{\"href\":\"/api/v2/filters/1/cases?page=" + (page + 1) + "\"}" : "null";
+        return "{\"total_entries\":" + PAGES * 2 + ",\"page\":" + page + ",\"_links\":{\"next\":" + next + "},"
+                + "\"_embedded\":{\"entries\":[" + entries + "]}}";
+    }
+}
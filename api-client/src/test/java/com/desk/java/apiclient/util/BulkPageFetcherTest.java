@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import com.desk.java.apiclient.DeskApiException;
+import com.desk.java.apiclient.model.ApiResponse;
+import com.desk.java.apiclient.model.Group;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Response;
+
+import static com.desk.java.apiclient.util.PagerTest.call;
+import static com.desk.java.apiclient.util.PagerTest.groupPage;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * <p>
+ *     Unit tests for {@link BulkPageFetcher}
+ * </p>
+ */
+public class BulkPageFetcherTest {
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void fetchDoesEmitEntriesInPageOrder() throws Exception {
+        final List<Long> ids = new ArrayList<>();
+        int handled = new BulkPageFetcher<>(new PagerTest.FakePageRequest(10, 5), executor)
+                .parallelism(3)
+                .fetch(new EntryHandler<Group>() {
+                    @Override
+                    public void onEntry(Group entry) {
+                        ids.add(entry.getId());
+                    }
+                });
+        assertEquals(50, handled);
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(i + 1, (long) ids.get(i));
+        }
+    }
+
+    @Test
+    public void fetchDoesEmitEveryEntryUnordered() throws Exception {
+        final List<Long> ids = new ArrayList<>();
+        new BulkPageFetcher<>(new PagerTest.FakePageRequest(7, 3), executor)
+                .ordered(false)
+                .fetch(new EntryHandler<Group>() {
+                    @Override
+                    public void onEntry(Group entry) {
+                        ids.add(entry.getId());
+                    }
+                });
+        Collections.sort(ids);
+        assertEquals(21, ids.size());
+        assertEquals(21, (long) ids.get(20));
+    }
+
+    @Test
+    public void fetchDoesHandleSinglePage() throws Exception {
+        assertEquals(2, new BulkPageFetcher<>(new PagerTest.FakePageRequest(1, 2), executor).fetch(new IgnoringHandler()));
+    }
+
+    @Test
+    public void fetchDoesContinuePastComputedLastPage() throws Exception {
+        // total_entries reports two pages but the second page links to a third
+        PageRequest<Group> request = new PageRequest<Group>() {
+            @Override
+            public Call<ApiResponse<Group>> page(int page) {
+                String next = page < 3 ? "/api/v2/groups?page=" + (page + 1) + "&per_page=2" : null;
+                return call(Response.success(groupPage(page, 2, 4, next)));
+            }
+        };
+        assertEquals(6, new BulkPageFetcher<>(request, executor).fetch(new IgnoringHandler()));
+    }
+
+    @Test
+    public void fetchDoesNotChangeFetchedResponses() throws Exception {
+        // the responses don't carry their page number, as with a page shared by coalesced callers
+        final List<ApiResponse<Group>> responses = Collections.synchronizedList(new ArrayList<ApiResponse<Group>>());
+        PageRequest<Group> request = new PageRequest<Group>() {
+            @Override
+            public Call<ApiResponse<Group>> page(int page) {
+                String next = page < 3 ? "/api/v2/groups?page=" + (page + 1) + "&per_page=2" : null;
+                ApiResponse<Group> response = groupPage(page, 2, 4, next);
+                response.setPage(0);
+                responses.add(response);
+                return call(Response.success(response));
+            }
+        };
+        assertEquals(6, new BulkPageFetcher<>(request, executor).fetch(new IgnoringHandler()));
+        assertEquals(3, responses.size());
+        for (ApiResponse<Group> response : responses) {
+            assertEquals(0, response.getPage());
+        }
+    }
+
+    @Test
+    public void fetchDoesFollowNextLinkWhenTotalEntriesIsStale() throws Exception {
+        // total_entries fits on the first page but it links to a second one
+        PageRequest<Group> request = new PageRequest<Group>() {
+            @Override
+            public Call<ApiResponse<Group>> page(int page) {
+                String next = page < 2 ? "/api/v2/groups?page=" + (page + 1) + "&per_page=2" : null;
+                return call(Response.success(groupPage(page, 2, 1, next)));
+            }
+        };
+        assertEquals(4, new BulkPageFetcher<>(request, executor).fetch(new IgnoringHandler()));
+    }
+
+    @Test
+    public void fetchDoesThrowWhenPageFails() throws Exception {
+        PageRequest<Group> request = new PageRequest<Group>() {
+            @Override
+            public Call<ApiResponse<Group>> page(int page) {
+                if (page == 3) {
+                    return call(Response.<ApiResponse<Group>>error(500,
+                            ResponseBody.create(MediaType.parse("application/json"), "{}")));
+                }
+                return call(Response.success(groupPage(page, 2, 10, "/api/v2/groups?page=" + (page + 1))));
+            }
+        };
+        try {
+            new BulkPageFetcher<>(request, executor).fetch(new IgnoringHandler());
+            fail();
+        } catch (DeskApiException e) {
+            assertEquals(500, e.getCode());
+        }
+    }
+
+    private static class IgnoringHandler implements EntryHandler<Group> {
+        @Override
+        public void onEntry(Group entry) {
+        }
+    }
+}
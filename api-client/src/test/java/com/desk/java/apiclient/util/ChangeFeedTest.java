@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import com.desk.java.apiclient.DeskApiException;
+import com.desk.java.apiclient.DeskClient;
+import com.desk.java.apiclient.DeskClientBuilder;
+import com.desk.java.apiclient.model.Case;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * <p>
+ *     Unit tests for {@link ChangeFeed}
+ * </p>
+ */
+public class ChangeFeedTest {
+
+    private static final int PER_PAGE = 2;
+
+    // id and updated_at (seconds) of every case on the server
+    private final List<long[]> cases = new ArrayList<>();
+    private final List<Request> requests = new ArrayList<>();
+    private volatile boolean failing;
+
+    private ChangeFeed<Case> feed;
+
+    @Before
+    public void setUp() {
+        Interceptor fake = new Interceptor() {
+            @Override
+            public Response intercept(Chain chain) throws IOException {
+                Request request = chain.request();
+                requests.add(request);
+                Response.Builder builder = new Response.Builder().request(request).protocol(Protocol.HTTP_1_1);
+                if (failing) {
+                    return builder.code(500).body(ResponseBody.create(null, "")).build();
+                }
+                assertEquals("updated_at", request.url().queryParameter("sort_field"));
+                assertEquals("desc", request.url().queryParameter("sort_direction"));
+                return builder.code(200)
+                        .body(ResponseBody.create(MediaType.parse("application/json"),
+                                page(Integer.parseInt(request.url().queryParameter("page")))))
+                        .build();
+            }
+        };
+        DeskClient client = DeskClient.create(new DeskClientBuilder("test.desk.com", "token")
+                .applicationInterceptors(Collections.singletonList(fake)));
+        feed = ChangeFeed.cases(client, 1, PER_PAGE, null, null);
+        update(1, 10);
+        update(2, 20);
+        update(3, 30);
+    }
+
+    @Test
+    public void pollDoesEmitEverythingWithoutCheckpoint() throws Exception {
+        assertEquals(Arrays.asList(3L, 2L, 1L), poll());
+        assertEquals(new Date(30000), feed.getCheckpoint().getUpdatedAt());
+        assertEquals(Collections.singleton(3L), feed.getCheckpoint().getIds());
+    }
+
+    @Test
+    public void pollDoesEmitOnlyChanges() throws Exception {
+        poll();
+        assertEquals(Collections.<Long>emptyList(), poll());
+        update(1, 40);
+        update(4, 40);
+        requests.clear();
+        assertEquals(Arrays.asList(4L, 1L), poll());
+        assertEquals(new HashSet<>(Arrays.asList(1L, 4L)), feed.getCheckpoint().getIds());
+        // stops at the checkpoint on the second page
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    public void pollDoesDeduplicateBoundaryEntries() throws Exception {
+        poll();
+        update(5, 30);
+        assertEquals(Collections.singletonList(5L), poll());
+        assertEquals(new HashSet<>(Arrays.asList(3L, 5L)), feed.getCheckpoint().getIds());
+        assertEquals(Collections.<Long>emptyList(), poll());
+    }
+
+    @Test
+    public void pollDoesResumeFromCheckpoint() throws Exception {
+        DeskClient client = DeskClient.create(new DeskClientBuilder("test.desk.com", "token")
+                .applicationInterceptors(Collections.<Interceptor>singletonList(new Interceptor() {
+                    @Override
+                    public Response intercept(Chain chain) throws IOException {
+                        int page = Integer.parseInt(chain.request().url().queryParameter("page"));
+                        return new Response.Builder().request(chain.request()).protocol(Protocol.HTTP_1_1).code(200)
+                                .body(ResponseBody.create(MediaType.parse("application/json"), page(page)))
+                                .build();
+                    }
+                })));
+        feed = ChangeFeed.cases(client, 1, PER_PAGE, null, ChangeFeed.Checkpoint.since(new Date(20000)));
+        assertEquals(Arrays.asList(3L, 2L), poll());
+    }
+
+    @Test
+    public void pollDoesNotAdvanceCheckpointOnFailure() throws Exception {
+        poll();
+        ChangeFeed.Checkpoint checkpoint = feed.getCheckpoint();
+        update(1, 50);
+        failing = true;
+        try {
+            poll();
+            fail("expected a DeskApiException");
+        } catch (DeskApiException e) {
+            assertEquals(checkpoint, feed.getCheckpoint());
+        }
+        failing = false;
+        assertEquals(Collections.singletonList(1L), poll());
+    }
+
+    @Test
+    public void checkpointDoesRoundTrip() throws Exception {
+        ChangeFeed.Checkpoint checkpoint = new ChangeFeed.Checkpoint(1234, new HashSet<>(Arrays.asList(9L, 3L)));
+        assertEquals("1234:3,9", checkpoint.toString());
+        assertEquals(checkpoint, ChangeFeed.Checkpoint.parse(checkpoint.toString()));
+        assertEquals(ChangeFeed.Checkpoint.since(new Date(1234)), ChangeFeed.Checkpoint.parse("1234"));
+        assertNull(ChangeFeed.Checkpoint.INITIAL.getUpdatedAt());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void checkpointDoesRejectInvalidValue() throws Exception {
+        ChangeFeed.Checkpoint.parse("yesterday");
+    }
+
+    private List<Long> poll() {
+        final List<Long> ids = new ArrayList<>();
+        feed.poll(new EntryHandler<Case>() {
+            @Override
+            public void onEntry(Case entry) {
+                ids.add(entry.getId());
+            }
+        });
+        return ids;
+    }
+
+    private void update(long id, long updatedAtSeconds) {
+        for (int i = 0; i < cases.size(); i++) {
+            if (cases.get(i)[0] == id) {
+                cases.remove(i);
+                break;
+            }
+        }
+        cases.add(new long[] {id, updatedAtSeconds});
+        Collections.sort(cases, new Comparator<long[]>() {
+            @Override
+            public int compare(long[] a, long[] b) {
+                return a[1] != b[1] ? Long.compare(b[1], a[1]) : Long.compare(b[0], a[0]);
+            }
+        });
+    }
+
+    private String page(int page) {
+        int from = Math.min((page - 1) * PER_PAGE, cases.size());
+        int to = Math.min(from + PER_PAGE, cases.size());
+        StringBuilder entries = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            if (i > from) {
+                entries.append(',');
+            }
+            entries.append("{\"id\":").append(cases.get(i)[0])
+                    .append(",\"updated_at\":\"1970-01-01T00:00:").append(String.format("%02d", cases.get(i)[1]))
+                    .append("Z\"}");
+        }
+        String next = to < cases.size() ? "{\"href\":\"/api/v2/filters/1/cases?page=" + (page + 1) + "\"}" : "null";
+        return "{\"total_entries\":" + cases.size() + ",\"_links\":{\"next\":" + next + "},"
+                + "\"_embedded\":{\"entries\":[" + entries + "]}}";
+    }
+}
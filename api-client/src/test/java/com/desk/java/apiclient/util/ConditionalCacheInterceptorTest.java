@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import com.desk.java.apiclient.DeskClient;
+import com.desk.java.apiclient.DeskClientBuilder;
+import com.desk.java.apiclient.model.User;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import okhttp3.Cache;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * <p>
+ *     Unit tests for {@link ConditionalCacheInterceptor}
+ * </p>
+ */
+public class ConditionalCacheInterceptorTest {
+
+    private static final String ETAG = "\"v1\"";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private HttpServer server;
+    private volatile String cacheControl;
+    private final List<String> authorizations = Collections.synchronizedList(new ArrayList<String>());
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+                exchange.getResponseHeaders().add("ETag", ETAG);
+                if (cacheControl != null) {
+                    exchange.getResponseHeaders().add("Cache-Control", cacheControl);
+                }
+                if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    exchange.sendResponseHeaders(304, -1);
+                } else {
+                    byte[] body = "{\"id\":1,\"name\":\"Jane\"}".getBytes(StandardCharsets.UTF_8);
+                    exchange.getResponseHeaders().add("Content-Type", "application/json");
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                }
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void clientDoesRevalidateEntityWithSignedConditionalRequest() throws Exception {
+        Cache cache = new Cache(folder.newFolder(), 1024 * 1024);
+        DeskClient client = DeskClient.create(new DeskClientBuilder("test.desk.com", "key", "secret", "token", "tokenSecret")
+                .responseCache(cache)
+                .applicationInterceptors(Collections.singletonList(redirectTo(server.getAddress().getPort()))));
+
+        assertEquals("Jane", client.users().getUser(1).execute().body().getName());
+        assertEquals("Jane", client.users().getUser(1).execute().body().getName());
+
+        assertEquals(2, authorizations.size());
+        assertNotEquals(authorizations.get(0), authorizations.get(1));
+        CacheStats stats = client.getCacheStats();
+        assertEquals(2, stats.getRequestCount());
+        assertEquals(0, stats.getHitCount());
+        assertEquals(1, stats.getConditionalHitCount());
+        assertEquals(1, stats.getMissCount());
+    }
+
+    @Test
+    public void clientDoesNotStoreNoStoreEntity() throws Exception {
+        cacheControl = "no-store";
+        Cache cache = new Cache(folder.newFolder(), 1024 * 1024);
+        DeskClient client = DeskClient.create(new DeskClientBuilder("test.desk.com", "token")
+                .responseCache(cache)
+                .applicationInterceptors(Collections.singletonList(redirectTo(server.getAddress().getPort()))));
+
+        assertEquals("Jane", client.users().getUser(1).execute().body().getName());
+        assertEquals("Jane", client.users().getUser(1).execute().body().getName());
+
+        assertEquals(0, cache.writeSuccessCount());
+        assertEquals(0, client.getCacheStats().getConditionalHitCount());
+        assertEquals(2, authorizations.size());
+    }
+
+    @Test
+    public void getCacheStatsIsNullWithoutResponseCache() throws Exception {
+        assertNull(DeskClient.create(new DeskClientBuilder("test.desk.com", "token")).getCacheStats());
+    }
+
+    @Test
+    public void interceptDoesMarkEntityResponsesNoCache() throws Exception {
+        ConditionalCacheInterceptor interceptor = new ConditionalCacheInterceptor();
+        Response response = interceptor.intercept(chain("https://test.desk.com/api/v2/cases/1?embed=customer",
+                200, null, null));
+        assertEquals("no-cache", response.header("Cache-Control"));
+        response = interceptor.intercept(chain("https://test.desk.com/api/v2/cases/1", 200, null, "public"));
+        assertEquals("public, no-cache", response.header("Cache-Control"));
+    }
+
+    @Test
+    public void interceptDoesKeepServerCachingDirectives() throws Exception {
+        ConditionalCacheInterceptor interceptor = new ConditionalCacheInterceptor();
+        String[] directives = {"no-store", "private", "max-age=60", "s-maxage=60", "no-cache, must-revalidate"};
+        for (String directive : directives) {
+            Response response = interceptor.intercept(chain("https://test.desk.com/api/v2/cases/1", 200, null,
+                    directive));
+            assertEquals(directive, response.header("Cache-Control"));
+        }
+        Interceptor.Chain expiring = chain("https://test.desk.com/api/v2/cases/1", 200, null, null);
+        Response expires = expiring.proceed(expiring.request()).newBuilder()
+                .header("Expires", "Thu, 01 Jan 2099 00:00:00 GMT")
+                .build();
+        when(expiring.proceed(expiring.request())).thenReturn(expires);
+        assertNull(interceptor.intercept(expiring).header("Cache-Control"));
+    }
+
+    @Test
+    public void interceptDoesNotChangeListResponses() throws Exception {
+        ConditionalCacheInterceptor interceptor = new ConditionalCacheInterceptor();
+        Response response = interceptor.intercept(chain("https://test.desk.com/api/v2/cases?page=1", 200, null,
+                null));
+        assertNull(response.header("Cache-Control"));
+    }
+
+    @Test
+    public void interceptDoesCountNotModified() throws Exception {
+        ConditionalCacheInterceptor interceptor = new ConditionalCacheInterceptor();
+        interceptor.intercept(chain("https://test.desk.com/api/v2/cases/1", 304, null, null));
+        assertEquals(0, interceptor.getConditionalHitCount());
+        interceptor.intercept(chain("https://test.desk.com/api/v2/cases/1", 304, ETAG, null));
+        assertEquals(1, interceptor.getConditionalHitCount());
+    }
+
+    @Test
+    public void isEntityGetDoesMatchNumericLastSegment() throws Exception {
+        assertTrue(ConditionalCacheInterceptor.isEntityGet(get("https://test.desk.com/api/v2/users/12")));
+        assertFalse(ConditionalCacheInterceptor.isEntityGet(get("https://test.desk.com/api/v2/users")));
+        assertFalse(ConditionalCacheInterceptor.isEntityGet(get("https://test.desk.com/api/v2/users/me")));
+        assertFalse(ConditionalCacheInterceptor.isEntityGet(new Request.Builder()
+                .url("https://test.desk.com/api/v2/users/12").delete().build()));
+    }
+
+    private static Request get(String url) {
+        return new Request.Builder().url(url).build();
+    }
+
+    private static Interceptor.Chain chain(String url, int code, String ifNoneMatch, String cacheControl)
+            throws IOException {
+        Request.Builder builder = new Request.Builder().url(url);
+        if (ifNoneMatch != null) {
+            builder.header("If-None-Match", ifNoneMatch);
+        }
+        Request request = builder.build();
+        Interceptor.Chain chain = mock(Interceptor.Chain.class);
+        when(chain.request()).thenReturn(request);
+        Response.Builder response = new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .header("ETag", ETAG)
+                .body(ResponseBody.create(MediaType.parse("application/json"), "{}"));
+        if (cacheControl != null) {
+            response.header("Cache-Control", cacheControl);
+        }
+        when(chain.proceed(request)).thenReturn(response.build());
+        return chain;
+    }
+
+    private static Interceptor redirectTo(final int port) {
+        return new Interceptor() {
+            @Override
+            public Response intercept(Chain chain) throws IOException {
+                Request request = chain.request();
+                HttpUrl url = request.url().newBuilder().scheme("http").host("127.0.0.1").port(port).build();
+                return chain.proceed(request.newBuilder().url(url).build());
+            }
+        };
+    }
+}
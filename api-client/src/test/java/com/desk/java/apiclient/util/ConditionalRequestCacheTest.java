@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import com.desk.java.apiclient.DeskClient;
+import com.desk.java.apiclient.DeskClientBuilder;
+import com.desk.java.apiclient.DeskClientFactory;
+import com.desk.java.apiclient.model.Case;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * <p>
+ *     Unit tests for {@link ConditionalRequestCache}
+ * </p>
+ */
+public class ConditionalRequestCacheTest {
+
+    private final List<Request> requests = Collections.synchronizedList(new ArrayList<Request>());
+    private volatile String etag;
+    private volatile int errorCode;
+    private volatile CountDownLatch blockConditional;
+    private final CountDownLatch conditionalSent = new CountDownLatch(1);
+
+    private ConditionalRequestCache cache;
+    private DeskClient client;
+    private DeskClient coalescing;
+    private Interceptor fake;
+
+    @Before
+    public void setUp() {
+        etag = "\"v1\"";
+        cache = new ConditionalRequestCache();
+        fake = new Interceptor() {
+            @Override
+            public okhttp3.Response intercept(Chain chain) throws IOException {
+                Request request = chain.request();
+                requests.add(request);
+                okhttp3.Response.Builder builder = new okhttp3.Response.Builder()
+                        .request(request)
+                        .protocol(Protocol.HTTP_1_1)
+                        .header("ETag", etag);
+                if (errorCode > 0) {
+                    return builder.code(errorCode)
+                            .body(ResponseBody.create(MediaType.parse("application/json"), "{\"message\":\"error\"}"))
+                            .build();
+                }
+                if (etag.equals(request.header("If-None-Match"))) {
+                    if (blockConditional != null) {
+                        conditionalSent.countDown();
+                        try {
+                            blockConditional.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            throw new IOException(e);
+                        }
+                    }
+                    // an unparsable body proves a 304 is never converted
+                    return builder.code(304).body(ResponseBody.create(null, "not json")).build();
+                }
+                return builder.code(200)
+                        .body(ResponseBody.create(MediaType.parse("application/json"),
+                                "{\"id\":1,\"subject\":\"" + etag.replace("\"", "") + "\"}"))
+                        .build();
+            }
+        };
+        client = DeskClient.create(new DeskClientBuilder("test.desk.com", "token")
+                .conditionalRequestCache(cache)
+                .applicationInterceptors(Collections.singletonList(fake)));
+        coalescing = DeskClient.create(new DeskClientBuilder("test.desk.com", "token")
+                .conditionalRequestCache(cache)
+                .coalesceRequests(true)
+                .applicationInterceptors(Collections.singletonList(fake)));
+    }
+
+    @Test
+    public void executeDoesReturnCachedEntityWhenNotModified() throws Exception {
+        Case first = client.cases().getCaseById(1, null, null).execute().body();
+        assertNull(requests.get(0).header("If-None-Match"));
+        assertEquals(1, cache.size());
+
+        Response<Case> second = client.cases().getCaseById(1, null, null).execute();
+        assertEquals("\"v1\"", requests.get(1).header("If-None-Match"));
+        assertTrue(second.isSuccessful());
+        assertEquals(304, second.raw().networkResponse().code());
+        assertSame(first, second.body());
+        assertEquals(1, cache.getNotModifiedCount());
+    }
+
+    @Test
+    public void executeDoesReplaceEntityWhenModified() throws Exception {
+        Case first = client.cases().getCaseById(1, null, null).execute().body();
+        etag = "\"v2\"";
+        Case second = client.cases().getCaseById(1, null, null).execute().body();
+        assertNotSame(first, second);
+        assertEquals("v2", second.getSubject());
+        assertEquals(1, cache.getModifiedCount());
+
+        Case third = client.cases().getCaseById(1, null, null).execute().body();
+        assertSame(second, third);
+        assertEquals("\"v2\"", requests.get(2).header("If-None-Match"));
+    }
+
+    @Test
+    public void executeDoesReturnErrorResponse() throws Exception {
+        client.cases().getCaseById(1, null, null).execute();
+        errorCode = 500;
+        Response<Case> response = client.cases().getCaseById(1, null, null).execute();
+        assertFalse(response.isSuccessful());
+        assertEquals(500, response.code());
+        assertEquals("{\"message\":\"error\"}", response.errorBody().string());
+    }
+
+    @Test
+    public void executeDoesKeyEntitiesByUrl() throws Exception {
+        client.cases().getCaseById(1, null, null).execute();
+        client.cases().getCaseById(2, null, null).execute();
+        assertEquals(2, cache.size());
+        assertNull(requests.get(1).header("If-None-Match"));
+    }
+
+    @Test
+    public void enqueueDoesReturnCachedEntityWhenNotModified() throws Exception {
+        Case first = client.cases().getCaseById(1, null, null).execute().body();
+        final AtomicReference<Case> result = new AtomicReference<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        client.cases().getCaseById(1, null, null).enqueue(new Callback<Case>() {
+            @Override
+            public void onResponse(Call<Case> call, Response<Case> response) {
+                result.set(response.body());
+                latch.countDown();
+            }
+
+            @Override
+            public void onFailure(Call<Case> call, Throwable t) {
+                latch.countDown();
+            }
+        });
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertSame(first, result.get());
+    }
+
+    @Test
+    public void executeDoesRevalidateThroughLaterCallAdapters() throws Exception {
+        Case first = coalescing.cases().getCaseById(1, null, null).execute().body();
+        Response<Case> second = coalescing.cases().getCaseById(1, null, null).execute();
+        assertEquals("\"v1\"", requests.get(1).header("If-None-Match"));
+        assertEquals(304, second.raw().networkResponse().code());
+        assertSame(first, second.body());
+    }
+
+    @Test
+    public void executeDoesRevalidateWhenSharedTransportRebuildsRequest() throws Exception {
+        // the shared transport's interceptors run before the tenant's and rebuild the request
+        OkHttpClient transport = new OkHttpClient.Builder()
+                .addInterceptor(new Interceptor() {
+                    @Override
+                    public okhttp3.Response intercept(Chain chain) throws IOException {
+                        return chain.proceed(chain.request().newBuilder().header("X-Tenant", "one").build());
+                    }
+                })
+                .build();
+        DeskClient tenant = new DeskClientFactory(transport).create(new DeskClientBuilder("test.desk.com", "token")
+                .conditionalRequestCache(cache)
+                .applicationInterceptors(Collections.singletonList(fake)));
+        Case first = tenant.cases().getCaseById(1, null, null).execute().body();
+        Response<Case> second = tenant.cases().getCaseById(1, null, null).execute();
+        assertEquals("one", requests.get(1).header("X-Tenant"));
+        assertEquals("\"v1\"", requests.get(1).header("If-None-Match"));
+        assertSame(first, second.body());
+    }
+
+    @Test
+    public void executeDoesServeNotModifiedToCoalescedCallWhoseEntryWasEvicted() throws Exception {
+        Case first = coalescing.cases().getCaseById(1, null, null).execute().body();
+        blockConditional = new CountDownLatch(1);
+        final AtomicReference<Response<Case>> leader = new AtomicReference<>();
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    leader.set(coalescing.cases().getCaseById(1, null, null).execute());
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        thread.start();
+        assertTrue(conditionalSent.await(5, TimeUnit.SECONDS));
+        cache.invalidateAll();
+        final AtomicReference<Response<Case>> follower = new AtomicReference<>();
+        final CountDownLatch followed = new CountDownLatch(1);
+        coalescing.cases().getCaseById(1, null, null).enqueue(new Callback<Case>() {
+            @Override
+            public void onResponse(Call<Case> call, Response<Case> response) {
+                follower.set(response);
+                followed.countDown();
+            }
+
+            @Override
+            public void onFailure(Call<Case> call, Throwable t) {
+                followed.countDown();
+            }
+        });
+        // let the follower join the leader's flight before the 304 arrives
+        Thread.sleep(200);
+        blockConditional.countDown();
+        thread.join(5000);
+        assertTrue(followed.await(5, TimeUnit.SECONDS));
+        assertEquals(2, requests.size());
+        assertSame(first, leader.get().body());
+        assertTrue(follower.get().isSuccessful());
+        assertSame(first, follower.get().body());
+    }
+
+    @Test
+    public void cloneDoesRevalidate() throws Exception {
+        Call<Case> call = client.cases().getCaseById(1, null, null);
+        Case first = call.execute().body();
+        assertSame(first, call.clone().execute().body());
+        assertEquals(1, cache.getNotModifiedCount());
+    }
+
+    @Test
+    public void otherRequestsToSameUrlAreNotConditional() throws Exception {
+        client.cases().getCaseById(1, null, null).execute();
+        Request other = new Request.Builder().url(requests.get(0).url()).build();
+        Interceptor.Chain chain = mock(Interceptor.Chain.class);
+        when(chain.request()).thenReturn(other);
+        cache.interceptor().intercept(chain);
+        verify(chain).proceed(other);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void executeTwiceDoesThrow() throws Exception {
+        client.cases().getCaseById(1, null, null).execute();
+        Call<Case> call = client.cases().getCaseById(1, null, null);
+        call.execute();
+        call.execute();
+    }
+
+    @Test
+    public void maxEntriesDoesEvictLeastRecentlyUsed() throws Exception {
+        cache = new ConditionalRequestCache(1);
+        client = DeskClient.create(new DeskClientBuilder("test.desk.com", "token")
+                .conditionalRequestCache(cache)
+                .applicationInterceptors(Collections.<Interceptor>singletonList(new Interceptor() {
+                    @Override
+                    public okhttp3.Response intercept(Chain chain) throws IOException {
+                        return new okhttp3.Response.Builder()
+                                .request(chain.request())
+                                .protocol(Protocol.HTTP_1_1)
+                                .code(200)
+                                .header("Last-Modified", "Tue, 15 Nov 1994 12:45:26 GMT")
+                                .body(ResponseBody.create(MediaType.parse("application/json"), "{\"id\":1}"))
+                                .build();
+                    }
+                })));
+        client.cases().getCaseById(1, null, null).execute();
+        client.cases().getCaseById(2, null, null).execute();
+        assertEquals(1, cache.size());
+    }
+}
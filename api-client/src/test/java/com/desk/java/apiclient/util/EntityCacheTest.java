@@ -0,0 +1,289 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import com.desk.java.apiclient.model.Group;
+import com.desk.java.apiclient.model.SettingUpdate;
+import com.desk.java.apiclient.model.User;
+import com.desk.java.apiclient.service.UserService;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *     Unit tests for {@link EntityCache}
+ * </p>
+ */
+public class EntityCacheTest {
+
+    private static final MediaType JSON = MediaType.parse("application/json");
+
+    private AtomicInteger networkCalls;
+    private EntityCache cache;
+    private UserService service;
+
+    @Before
+    public void setUp() {
+        networkCalls = new AtomicInteger();
+        cache = new EntityCache(2);
+        service = new Retrofit.Builder()
+                .baseUrl("https://test.desk.com")
+                .callFactory(new okhttp3.Call.Factory() {
+                    @Override
+                    public okhttp3.Call newCall(Request request) {
+                        return new FakeCall(request);
+                    }
+                })
+                .addConverterFactory(GsonConverterFactory.create(TestUtils.getDeskClientGson()))
+                .addCallAdapterFactory(cache)
+                .build()
+                .create(UserService.class);
+    }
+
+    @Test
+    public void getDoesReturnCachedEntity() throws Exception {
+        User user = new User();
+        cache.put(User.class, 1, user);
+        assertSame(user, cache.get(User.class, 1));
+        assertNull(cache.get(User.class, 2));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void getDoesNotCountMissesForTypesWhichArentCached() throws Exception {
+        cache.ttl(Group.class, 0, TimeUnit.SECONDS);
+        assertNull(cache.get(Group.class, 1));
+        assertEquals(0, cache.getMissCount());
+    }
+
+    @Test
+    public void putDoesIgnoreTypesWhichArentCached() throws Exception {
+        cache.ttl(Group.class, 0, TimeUnit.SECONDS);
+        cache.put(Group.class, 1, new Group());
+        assertFalse(cache.isCached(Group.class));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void getDoesExpireEntries() throws Exception {
+        cache.ttl(User.class, 50, TimeUnit.MILLISECONDS);
+        cache.put(User.class, 1, new User());
+        Thread.sleep(100);
+        assertNull(cache.get(User.class, 1));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void putDoesEvictLeastRecentlyUsed() throws Exception {
+        cache.put(User.class, 1, new User());
+        cache.put(User.class, 2, new User());
+        cache.get(User.class, 1);
+        cache.put(User.class, 3, new User());
+        assertNotNull(cache.get(User.class, 1));
+        assertNull(cache.get(User.class, 2));
+        assertNotNull(cache.get(User.class, 3));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void executeDoesServeCachedEntity() throws Exception {
+        User first = service.getUser(1).execute().body();
+        User second = service.getUser(1).execute().body();
+        assertSame(first, second);
+        assertEquals("Jane", second.getName());
+        assertEquals(1, networkCalls.get());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void executeDoesNotCacheCurrentUser() throws Exception {
+        service.getCurrentUser().execute();
+        service.getCurrentUser().execute();
+        assertEquals(2, networkCalls.get());
+    }
+
+    @Test
+    public void enqueueDoesServeCachedEntity() throws Exception {
+        service.getUser(1).execute();
+        final User[] result = new User[1];
+        service.getUser(1).enqueue(new Callback<User>() {
+            @Override
+            public void onResponse(Call<User> call, Response<User> response) {
+                result[0] = response.body();
+            }
+
+            @Override
+            public void onFailure(Call<User> call, Throwable t) {
+            }
+        });
+        assertNotNull(result[0]);
+        assertEquals(1, networkCalls.get());
+    }
+
+    @Test
+    public void enqueueDoesDeliverCachedEntityOnCallbackExecutor() throws Exception {
+        final List<Runnable> pending = new ArrayList<>();
+        UserService deferred = new Retrofit.Builder()
+                .baseUrl("https://test.desk.com")
+                .callFactory(new okhttp3.Call.Factory() {
+                    @Override
+                    public okhttp3.Call newCall(Request request) {
+                        return new FakeCall(request);
+                    }
+                })
+                .callbackExecutor(new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        pending.add(command);
+                    }
+                })
+                .addConverterFactory(GsonConverterFactory.create(TestUtils.getDeskClientGson()))
+                .addCallAdapterFactory(cache)
+                .build()
+                .create(UserService.class);
+        final User user = new User();
+        cache.put(User.class, 1, user);
+        final User[] result = new User[1];
+        deferred.getUser(1).enqueue(new Callback<User>() {
+            @Override
+            public void onResponse(Call<User> call, Response<User> response) {
+                result[0] = response.body();
+            }
+
+            @Override
+            public void onFailure(Call<User> call, Throwable t) {
+            }
+        });
+        assertNull(result[0]);
+        assertEquals(1, pending.size());
+        pending.get(0).run();
+        assertSame(user, result[0]);
+        assertEquals(0, networkCalls.get());
+    }
+
+    @Test
+    public void executeDoesInvalidateOnWrite() throws Exception {
+        service.getUser(1).execute();
+        service.updateMobileDeviceSetting(1, 2, 3, new SettingUpdate(true)).execute();
+        assertNull(cache.get(User.class, 1));
+        service.getUser(1).execute();
+        assertEquals(3, networkCalls.get());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void cachedCallCanOnlyBeExecutedOnce() throws Exception {
+        cache.put(User.class, 1, new User());
+        Call<User> call = service.getUser(1);
+        call.execute();
+        assertTrue(call.isExecuted());
+        call.execute();
+    }
+
+    @Test
+    public void entityIdDoesRequireIdAndNoQuery() throws Exception {
+        assertEquals(12, EntityCache.entityId(new Request.Builder().url("https://test.desk.com/api/v2/users/12").build()));
+        assertEquals(-1, EntityCache.entityId(new Request.Builder().url("https://test.desk.com/api/v2/users/me").build()));
+        assertEquals(-1, EntityCache.entityId(new Request.Builder().url("https://test.desk.com/api/v2/users/12?embed=x").build()));
+    }
+
+    /**
+     * An {@link okhttp3.Call} answering every request with the same user
+     */
+    private class FakeCall implements okhttp3.Call {
+
+        private final Request request;
+
+        FakeCall(Request request) {
+            this.request = request;
+        }
+
+        @Override
+        public Request request() {
+            return request;
+        }
+
+        @Override
+        public okhttp3.Response execute() throws IOException {
+            networkCalls.incrementAndGet();
+            return new okhttp3.Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(200)
+                    .body(ResponseBody.create(JSON, "{\"id\":1,\"name\":\"Jane\"}"))
+                    .build();
+        }
+
+        @Override
+        public void enqueue(okhttp3.Callback callback) {
+            try {
+                callback.onResponse(this, execute());
+            } catch (IOException e) {
+                callback.onFailure(this, e);
+            }
+        }
+
+        @Override
+        public void cancel() {
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return false;
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return false;
+        }
+    }
+}
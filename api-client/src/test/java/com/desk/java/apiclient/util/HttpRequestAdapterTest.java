@@ -26,7 +26,11 @@
 
 package com.desk.java.apiclient.util;
 
+import okhttp3.FormBody;
+import okhttp3.MediaType;
 import okhttp3.Request;
+import okhttp3.RequestBody;
+import okio.Buffer;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -34,7 +38,10 @@ import org.junit.Test;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -113,4 +120,48 @@ public class HttpRequestAdapterTest {
     public void unwrapDoesReturnRequest() throws Exception {
         assertEquals(request, requestAdapter.unwrap());
     }
+
+    @Test
+    public void unwrapDoesApplyAllUpdatesInOneRequest() throws Exception {
+        requestAdapter.setHeader("header1", "changed");
+        requestAdapter.setHeader("Authorization", "OAuth test");
+        requestAdapter.setRequestUrl("http://test2.desk.com/");
+        Request signed = (Request) requestAdapter.unwrap();
+        assertEquals("changed", signed.header("header1"));
+        assertEquals("OAuth test", signed.header("Authorization"));
+        assertEquals("http://test2.desk.com/", signed.url().toString());
+        assertSame(signed, requestAdapter.unwrap());
+    }
+
+    @Test
+    public void getMessagePayloadDoesNotReadJsonBody() throws Exception {
+        RequestBody body = new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return MediaType.parse("application/json; charset=UTF-8");
+            }
+
+            @Override
+            public void writeTo(okio.BufferedSink sink) {
+                throw new AssertionError("body should not be buffered");
+            }
+        };
+        HttpRequestAdapter adapter = new HttpRequestAdapter(new Request.Builder().url(URL).post(body).build());
+        assertNull(adapter.getMessagePayload());
+    }
+
+    @Test
+    public void getMessagePayloadDoesReadFormBody() throws Exception {
+        RequestBody body = new FormBody.Builder().add("name", "value").build();
+        HttpRequestAdapter adapter = new HttpRequestAdapter(new Request.Builder().url(URL).post(body).build());
+        assertEquals("name=value", new Buffer().readFrom(adapter.getMessagePayload()).readUtf8());
+    }
+
+    @Test
+    public void isFormEncodedDoesMatchContentType() throws Exception {
+        assertTrue(HttpRequestAdapter.isFormEncoded("application/x-www-form-urlencoded"));
+        assertTrue(HttpRequestAdapter.isFormEncoded("Application/X-WWW-Form-Urlencoded; charset=UTF-8"));
+        assertFalse(HttpRequestAdapter.isFormEncoded("application/json"));
+        assertFalse(HttpRequestAdapter.isFormEncoded(null));
+    }
 }
\ No newline at end of file
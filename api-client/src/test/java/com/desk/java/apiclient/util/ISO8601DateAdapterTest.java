@@ -104,4 +104,45 @@ public class ISO8601DateAdapterTest {
         Date date = dateAdapter.deserialize(element, Date.class, Mockito.mock(JsonDeserializationContext.class));
         assertEquals(date, dateFormat.parse(ISO_8601_TIMESTAMP));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void parseDoesAcceptFractionalSeconds() throws Exception {
+        Date parsed = dateAdapter.parse("2020-05-20T11:20:14.250Z");
+        assertEquals(dateFormat.parse(ISO_8601_TIMESTAMP).getTime() + 250, parsed.getTime());
+    }
+
+    @Test
+    public void parseDoesAcceptOffsets() throws Exception {
+        long expected = dateFormat.parse(ISO_8601_TIMESTAMP).getTime();
+        assertEquals(expected, dateAdapter.parse("2020-05-20T13:20:14+02:00").getTime());
+        assertEquals(expected, dateAdapter.parse("2020-05-20T06:50:14-0430").getTime());
+        assertEquals(expected, dateAdapter.parse("2020-05-20T12:20:14+01").getTime());
+    }
+
+    @Test(expected = ParseException.class)
+    public void parseDoesThrowParseExceptionWithInvalidDay() throws Exception {
+        dateAdapter.parse("2019-02-29T11:20:14Z");
+    }
+
+    @Test(expected = ParseException.class)
+    public void parseDoesThrowParseExceptionWithTrailingCharacters() throws Exception {
+        dateAdapter.parse("2020-05-20T11:20:14Zabc");
+    }
+
+    @Test
+    public void formatDoesRoundTripDatesBeforeEpoch() throws Exception {
+        String timestamp = "1969-12-31T23:59:59Z";
+        assertEquals(timestamp, dateAdapter.formatDate(dateAdapter.parse(timestamp)));
+        assertEquals(timestamp, dateAdapter.formatDate(dateFormat.parse(timestamp)));
+    }
+
+    @Test
+    public void formatDoesMatchSimpleDateFormat() throws Exception {
+        long step = 7L * 24 * 60 * 60 * 1000 + 12345L;
+        for (long millis = -step * 200; millis < step * 5000; millis += step) {
+            String expected = dateFormat.format(new Date(millis));
+            assertEquals(expected, dateAdapter.formatDate(new Date(millis)));
+            assertEquals(dateFormat.parse(expected), dateAdapter.parse(expected));
+        }
+    }
+}
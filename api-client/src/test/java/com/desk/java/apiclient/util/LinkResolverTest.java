@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import com.desk.java.apiclient.DeskApiException;
+import com.desk.java.apiclient.DeskClient;
+import com.desk.java.apiclient.DeskClientBuilder;
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.model.Link;
+import com.desk.java.apiclient.model.User;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *     Unit tests for {@link LinkResolver}
+ * </p>
+ */
+public class LinkResolverTest {
+
+    private static final MediaType JSON = MediaType.parse("application/json");
+
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private ExecutorService executor;
+    private EntityCache cache;
+    private LinkResolver resolver;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        cache = new EntityCache();
+        DeskClient client = DeskClient.create(new DeskClientBuilder("test.desk.com", "token")
+                .applicationInterceptors(Collections.<Interceptor>singletonList(new FakeDesk()))
+                .entityCache(cache));
+        resolver = client.linkResolver(executor);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void resolveCasesDoesFetchEachEntityOnce() throws Exception {
+        List<Case> cases = Arrays.asList(
+                newCase(1, 1, 5, 9),
+                newCase(1, 0, 5, 9),
+                newCase(2, 0, 0, 9));
+        LinkResolver.ResolvedCases resolved = resolver.resolveCases(cases);
+
+        assertEquals("user 1", resolved.getAssignedUser(cases.get(0)).getName());
+        assertEquals("user 1", resolved.getLockedBy(cases.get(0)).getName());
+        assertEquals("user 2", resolved.getAssignedUser(cases.get(2)).getName());
+        assertNull(resolved.getLockedBy(cases.get(1)));
+        assertEquals("group 5", resolved.getAssignedGroup(cases.get(1)).getName());
+        assertEquals("customer 9", resolved.getCustomer(cases.get(2)).getFirstName());
+        assertEquals(4, requests.size());
+    }
+
+    @Test
+    public void resolveUsersDoesUseEntityCache() throws Exception {
+        cache.put(User.class, 1, new User());
+        Map<Long, User> users = resolver.resolveUsers(Arrays.asList(new Link("/api/v2/users/1"),
+                new Link("/api/v2/users/2"), null));
+        assertEquals(2, users.size());
+        assertEquals(Collections.singletonList("/api/v2/users/2"), requests);
+    }
+
+    @Test
+    public void resolveUsersDoesCacheFetchedEntities() throws Exception {
+        resolver.resolveUsers(Collections.singletonList(new Link("/api/v2/users/2")));
+        resolver.resolveUsers(Collections.singletonList(new Link("/api/v2/users/2")));
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    public void resolveUsersDoesCountEachMissOnce() throws Exception {
+        cache.put(User.class, 1, new User());
+        resolver.resolveUsers(Arrays.asList(new Link("/api/v2/users/1"), new Link("/api/v2/users/2")));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertNotNull(cache.get(User.class, 2));
+    }
+
+    @Test
+    public void resolveUsersDoesSkipMissingEntities() throws Exception {
+        Map<Long, User> users = resolver.resolveUsers(Collections.singletonList(new Link("/api/v2/users/404")));
+        assertTrue(users.isEmpty());
+        assertFalse(users.containsKey(404L));
+    }
+
+    @Test(expected = DeskApiException.class)
+    public void resolveUsersDoesThrowOnServerError() throws Exception {
+        resolver.resolveUsers(Arrays.asList(new Link("/api/v2/users/1"), new Link("/api/v2/users/500")));
+    }
+
+    private static Case newCase(long userId, long lockedById, long groupId, long customerId) {
+        Case deskCase = new Case();
+        deskCase.setAssignedUserLink(userId > 0 ? new Link("/api/v2/users/" + userId) : null);
+        deskCase.setLockedByLink(lockedById > 0 ? new Link("/api/v2/users/" + lockedById) : null);
+        deskCase.setAssignedGroupLink(groupId > 0 ? new Link("/api/v2/groups/" + groupId) : null);
+        deskCase.getLinks().setCustomer(new Link("/api/v2/customers/" + customerId));
+        return deskCase;
+    }
+
+    /**
+     * An interceptor answering entity requests without going to the network
+     */
+    private class FakeDesk implements Interceptor {
+
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Request request = chain.request();
+            List<String> segments = request.url().pathSegments();
+            String resource = segments.get(segments.size() - 2);
+            String id = segments.get(segments.size() - 1);
+            requests.add(request.url().encodedPath());
+
+            int code = 200;
+            String body;
+            if ("404".equals(id) || "500".equals(id)) {
+                code = Integer.parseInt(id);
+                body = "{\"message\":\"error\"}";
+            } else if ("customers".equals(resource)) {
+                body = "{\"id\":" + id + ",\"first_name\":\"customer " + id + "\"}";
+            } else {
+                body = "{\"id\":" + id + ",\"name\":\"" + resource.substring(0, resource.length() - 1) + " " + id + "\"}";
+            }
+            return new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(code)
+                    .body(ResponseBody.create(JSON, body))
+                    .build();
+        }
+    }
+}
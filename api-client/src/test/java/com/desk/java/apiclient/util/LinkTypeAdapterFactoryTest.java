@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import com.desk.java.apiclient.model.CaseLinks;
+import com.desk.java.apiclient.model.Link;
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *     Unit tests for {@link LinkTypeAdapterFactory}
+ * </p>
+ */
+public class LinkTypeAdapterFactoryTest {
+
+    private static final String JSON =
+            "{\"href\":\"/api/v2/cases/1/replies\",\"count\":3,\"user_messages_count\":2,\"class\":\"reply\"}";
+
+    private final Gson gson = TestUtils.getDeskClientGson();
+    private final Gson reflective = new GsonBuilder()
+            .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
+            .create();
+
+    @Test
+    public void readDoesReadEveryField() throws Exception {
+        Link link = gson.fromJson(JSON, Link.class);
+        assertEquals("/api/v2/cases/1/replies", link.getUrl());
+        assertEquals(3, link.getCount());
+        assertEquals(2, link.getUserMessagesCount());
+        assertEquals("reply", link.getClassName());
+    }
+
+    @Test
+    public void readDoesSkipUnknownAndNullFields() throws Exception {
+        Link link = gson.fromJson("{\"href\":null,\"extra\":{\"nested\":[1,2]},\"count\":1}", Link.class);
+        assertNull(link.getUrl());
+        assertEquals(1, link.getCount());
+        assertNull(gson.fromJson("null", Link.class));
+    }
+
+    @Test
+    public void writeDoesMatchReflectiveAdapter() throws Exception {
+        Link link = reflective.fromJson(JSON, Link.class);
+        assertEquals(reflective.toJson(link), gson.toJson(link));
+        Link empty = new Link();
+        assertEquals(reflective.toJson(empty), gson.toJson(empty));
+    }
+
+    @Test
+    public void createDoesIgnoreOtherTypes() throws Exception {
+        LinkTypeAdapterFactory factory = new LinkTypeAdapterFactory();
+        assertNull(factory.create(gson, TypeToken.get(CaseLinks.class)));
+        assertTrue(factory.create(gson, TypeToken.get(Link.class)) instanceof LinkTypeAdapterFactory.LinkAdapter);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * <p>
+ *     Unit tests for {@link LongObjectMap}
+ * </p>
+ */
+public class LongObjectMapTest {
+
+    @Test
+    public void getDoesReturnMappedValue() throws Exception {
+        LongObjectMap<String> map = new LongObjectMap<>(2);
+        map.put(1, "one");
+        map.put(0, "zero");
+        map.put(-5, "minus five");
+        assertEquals("one", map.get(1));
+        assertEquals("zero", map.get(0));
+        assertEquals("minus five", map.get(-5));
+        assertNull(map.get(2));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    public void putDoesReplaceExistingValue() throws Exception {
+        LongObjectMap<String> map = new LongObjectMap<>(1);
+        map.put(7, "old");
+        map.put(7, "new");
+        assertEquals("new", map.get(7));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void putDoesGrowPastExpectedSize() throws Exception {
+        LongObjectMap<Long> map = new LongObjectMap<>(0);
+        for (long i = 0; i < 10000; i += 7) {
+            map.put(i << 20, i);
+        }
+        for (long i = 0; i < 10000; i += 7) {
+            assertEquals(Long.valueOf(i), map.get(i << 20));
+            assertNull(map.get((i << 20) + 1));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void putDoesRejectNullValues() throws Exception {
+        new LongObjectMap<String>(1).put(1, null);
+    }
+}
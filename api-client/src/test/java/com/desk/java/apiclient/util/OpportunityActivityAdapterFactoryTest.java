@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import com.desk.java.apiclient.model.*;
+import com.google.gson.Gson;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *     Unit tests for {@link OpportunityActivityAdapterFactory}
+ * </p>
+ */
+public class OpportunityActivityAdapterFactoryTest {
+
+    private Gson gson;
+
+    @Before
+    public void setUp() throws Exception {
+        gson = TestUtils.getDeskClientGson();
+    }
+
+    @Test
+    public void readDoesReturnOpportunitySystemEvent() throws Exception {
+        IOpportunityActivity activity = read("mock_opportunity_system_event.json");
+        assertTrue(activity instanceof OpportunitySystemEvent);
+        assertEquals(320, ((OpportunitySystemEvent) activity).getId());
+    }
+
+    @Test
+    public void readDoesReturnOpportunityCall() throws Exception {
+        IOpportunityActivity activity = read("mock_opportunity_call.json");
+        assertTrue(activity instanceof OpportunityCall);
+        assertNotNull(((OpportunityCall) activity).getCreatedAt());
+    }
+
+    @Test
+    public void readDoesReturnOpportunityEmail() throws Exception {
+        assertTrue(read("mock_opportunity_email.json") instanceof OpportunityEmail);
+    }
+
+    @Test
+    public void readDoesReturnOpportunityNote() throws Exception {
+        assertTrue(read("mock_opportunity_note.json") instanceof OpportunityNote);
+    }
+
+    @Test
+    public void readDoesReturnOpportunityTask() throws Exception {
+        assertTrue(read("mock_opportunity_task.json") instanceof OpportunityTask);
+    }
+
+    @Test
+    public void readDoesReturnOpportunityAttachment() throws Exception {
+        assertTrue(read("mock_opportunity_attachment.json") instanceof OpportunityAttachment);
+    }
+
+    @Test
+    public void readDoesReturnNullForUnknownType() throws Exception {
+        String json = "{\"type\":\"unknown\",\"_links\":{\"self\":{\"class\":\"opportunity_activity\"}}}";
+        assertNull(gson.fromJson(json, IOpportunityActivity.class));
+    }
+
+    @Test
+    public void readDoesReturnNullWithoutLinks() throws Exception {
+        assertNull(gson.fromJson("{\"type\":\"call\"}", IOpportunityActivity.class));
+    }
+
+    @Test
+    public void readDoesDispatchEachArrayElement() throws Exception {
+        String json = "[{\"type\":\"note\",\"_links\":{\"self\":{\"class\":\"opportunity_activity\"}}},"
+                + "{\"type\":\"opportunity_updated\",\"_links\":{\"self\":{\"class\":\"history\"}}},null]";
+        IOpportunityActivity[] activities = gson.fromJson(json, IOpportunityActivity[].class);
+        assertEquals(3, activities.length);
+        assertTrue(activities[0] instanceof OpportunityNote);
+        assertTrue(activities[1] instanceof OpportunitySystemEvent);
+        assertNull(activities[2]);
+    }
+
+    private IOpportunityActivity read(String file) {
+        IOpportunityActivity activity = TestUtils.readMockJsonFile(IOpportunityActivity.class, file);
+        assertNotNull(activity);
+        return activity;
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import com.desk.java.apiclient.DeskApiException;
+import com.desk.java.apiclient.model.ApiResponse;
+import com.desk.java.apiclient.model.Group;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Response;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * <p>
+ *     Unit tests for {@link Pager}
+ * </p>
+ */
+public class PagerTest {
+
+    @Test
+    public void iteratorDoesWalkEveryPage() throws Exception {
+        List<Long> ids = collect(new Pager<>(new FakePageRequest(3, 2)));
+        assertEquals(6, ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(i + 1, (long) ids.get(i));
+        }
+    }
+
+    @Test
+    public void iteratorDoesWalkEveryPageWithPrefetch() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            List<Long> ids = collect(new Pager<>(new FakePageRequest(4, 3), executor));
+            assertEquals(12, ids.size());
+            assertEquals(12, (long) ids.get(11));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void iteratorDoesNotChangeResponse() throws Exception {
+        final ApiResponse<Group> shared = groupPage(1, 3, null);
+        PageRequest<Group> request = new PageRequest<Group>() {
+            @Override
+            public Call<ApiResponse<Group>> page(int page) {
+                return call(Response.success(shared));
+            }
+        };
+        assertEquals(3, collect(new Pager<>(request)).size());
+        for (Group group : shared.getEntries()) {
+            assertNotNull(group);
+        }
+    }
+
+    @Test
+    public void iteratorDoesHandleEmptyList() throws Exception {
+        assertFalse(new Pager<>(new FakePageRequest(1, 0)).iterator().hasNext());
+    }
+
+    @Test
+    public void iteratorDoesThrowOnUnsuccessfulResponse() throws Exception {
+        PageRequest<Group> request = new PageRequest<Group>() {
+            @Override
+            public Call<ApiResponse<Group>> page(int page) {
+                return call(Response.<ApiResponse<Group>>error(429,
+                        ResponseBody.create(MediaType.parse("application/json"), "{}")));
+            }
+        };
+        try {
+            new Pager<>(request).iterator().hasNext();
+            fail();
+        } catch (DeskApiException e) {
+            assertEquals(429, e.getCode());
+        }
+    }
+
+    @Test
+    public void nextPageDoesReadPageFromNextLink() throws Exception {
+        ApiResponse<Group> response = groupPage(1, 1, "/api/v2/groups?page=5&per_page=1");
+        assertEquals(5, Pager.nextPage(response, 1));
+    }
+
+    @Test
+    public void nextPageDoesReturn0WithoutNextLink() throws Exception {
+        assertEquals(0, Pager.nextPage(groupPage(1, 1, null), 1));
+    }
+
+    private static List<Long> collect(Pager<Group> pager) {
+        List<Long> ids = new ArrayList<>();
+        for (Group group : pager) {
+            ids.add(group.getId());
+        }
+        return ids;
+    }
+
+    static ApiResponse<Group> groupPage(int page, int perPage, String next) {
+        return groupPage(page, perPage, perPage, next);
+    }
+
+    static ApiResponse<Group> groupPage(int page, int perPage, int totalEntries, String next) {
+        StringBuilder json = new StringBuilder("{\"page\":").append(page)
+                .append(",\"total_entries\":").append(totalEntries).append(",\"_links\":{");
+        if (next != null) {
+            json.append("\"next\":{\"href\":\"").append(next).append("\"}");
+        }
+        json.append("},\"_embedded\":{\"entries\":[");
+        for (int i = 0; i < perPage; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"id\":").append((page - 1) * perPage + i + 1).append("}");
+        }
+        json.append("]}}");
+        return TestUtils.getDeskClientGson().fromJson(json.toString(), new TypeToken<ApiResponse<Group>>(){}.getType());
+    }
+
+    @SuppressWarnings("unchecked")
+    static Call<ApiResponse<Group>> call(Response<ApiResponse<Group>> response) {
+        Call<ApiResponse<Group>> call = mock(Call.class);
+        try {
+            when(call.execute()).thenReturn(response);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        return call;
+    }
+
+    static class FakePageRequest implements PageRequest<Group> {
+
+        private final int pages;
+        private final int perPage;
+
+        FakePageRequest(int pages, int perPage) {
+            this.pages = pages;
+            this.perPage = perPage;
+        }
+
+        @Override
+        public Call<ApiResponse<Group>> page(int page) {
+            String next = page < pages ? "/api/v2/groups?page=" + (page + 1) + "&per_page=" + perPage : null;
+            return call(Response.success(groupPage(page, perPage, pages * perPage, next)));
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import com.desk.java.apiclient.model.Fields;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * <p>
+ *     Unit tests for {@link ProjectionInterceptor}
+ * </p>
+ */
+public class ProjectionInterceptorTest {
+
+    private static final String BASE_URL = "https://test.desk.com/api/v2/";
+
+    @Test
+    public void interceptDoesAddDefaultFieldsToListRequests() throws Exception {
+        assertEquals("id,subject", intercepted(get("cases?page=1")).queryParameter("fields"));
+        assertEquals("id,subject", intercepted(get("cases/search?q=test")).queryParameter("fields"));
+        assertEquals("id,subject", intercepted(get("filters/1/cases")).queryParameter("fields"));
+    }
+
+    @Test
+    public void interceptDoesNotOverrideRequestedFields() throws Exception {
+        assertEquals("blurb", intercepted(get("cases?fields=blurb")).queryParameter("fields"));
+    }
+
+    @Test
+    public void interceptDoesRemoveEmptyFieldsToRequestEveryField() throws Exception {
+        HttpUrl url = intercepted(get("cases?page=1&fields=" + Fields.all()));
+        assertNull(url.queryParameter("fields"));
+        assertEquals("1", url.queryParameter("page"));
+    }
+
+    @Test
+    public void interceptDoesNotProjectSingleEntitiesOrWrites() throws Exception {
+        assertNull(intercepted(get("cases/1")).queryParameter("fields"));
+        assertNull(intercepted(get("users")).queryParameter("fields"));
+        Request post = new Request.Builder().url(BASE_URL + "cases").post(RequestBody.create(null, "{}")).build();
+        assertNull(intercepted(post).queryParameter("fields"));
+    }
+
+    @Test
+    public void listProjectionDoesLeaveOutLargeCaseFields() throws Exception {
+        String fields = Projection.LIST.fields("cases").toString();
+        assertTrue(fields.contains("subject"));
+        assertTrue(!fields.contains("description") && !fields.contains("blurb"));
+        assertEquals("id", Projection.IDS_ONLY.fields("anything").toString());
+        assertNull(Projection.DETAIL.fields("cases"));
+    }
+
+    @Test
+    public void listProjectionDoesKeepTimestampsForFeeds() throws Exception {
+        for (String resource : new String[] { "cases", "customers", "companies" }) {
+            String fields = Projection.LIST.fields(resource).toString();
+            assertTrue(resource, fields.contains("created_at") && fields.contains("updated_at"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void listProjectionDoesRejectUnknownResource() throws Exception {
+        Projection.LIST.fields("articles");
+    }
+
+    @Test
+    public void resourceDoesSkipIdsAndSearch() throws Exception {
+        assertEquals("cases", ProjectionInterceptor.resource(HttpUrl.parse(BASE_URL + "cases/search")));
+        assertEquals("replies", ProjectionInterceptor.resource(HttpUrl.parse(BASE_URL + "cases/1/replies")));
+        assertNull(ProjectionInterceptor.resource(HttpUrl.parse(BASE_URL + "cases/1")));
+    }
+
+    private static Request get(String path) {
+        return new Request.Builder().url(BASE_URL + path).build();
+    }
+
+    private static HttpUrl intercepted(Request request) throws Exception {
+        Map<String, Fields> defaults = new HashMap<>();
+        defaults.put("cases", Fields.include("id", "subject"));
+        defaults.put("users", null);
+        ProjectionInterceptor interceptor = new ProjectionInterceptor(defaults);
+
+        Interceptor.Chain chain = mock(Interceptor.Chain.class);
+        when(chain.request()).thenReturn(request);
+        interceptor.intercept(chain);
+        ArgumentCaptor<Request> proceeded = ArgumentCaptor.forClass(Request.class);
+        verify(chain).proceed(proceeded.capture());
+        return proceeded.getValue().url();
+    }
+}
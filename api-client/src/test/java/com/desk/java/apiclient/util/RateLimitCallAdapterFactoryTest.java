@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.desk.java.apiclient.util;
+
+import com.desk.java.apiclient.DeskClient;
+import com.desk.java.apiclient.DeskClientBuilder;
+import com.desk.java.apiclient.DeskClientFactory;
+import com.desk.java.apiclient.model.User;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Dispatcher;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import retrofit2.Call;
+import retrofit2.Callback;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *     Unit tests for {@link RateLimitCallAdapterFactory}
+ * </p>
+ */
+public class RateLimitCallAdapterFactoryTest {
+
+    private HttpServer server;
+    private DeskClientFactory factory;
+    private final List<Call<User>> calls = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                byte[] body = "{\"id\":1,\"name\":\"Jane\"}".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+                exchange.close();
+            }
+        });
+        server.start();
+
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(2);
+        dispatcher.setMaxRequestsPerHost(2);
+        factory = new DeskClientFactory(new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .addInterceptor(redirectTo(server.getAddress().getPort()))
+                .build());
+    }
+
+    @After
+    public void tearDown() {
+        for (Call<User> call : calls) {
+            call.cancel();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    public void throttledTenantDoesNotHoldSharedDispatcher() throws Exception {
+        DeskClient throttled = factory.create(new DeskClientBuilder("one.desk.com", "token")
+                .rateLimit(1, 1, TimeUnit.HOURS));
+        DeskClient other = factory.create(new DeskClientBuilder("two.desk.com", "token"));
+
+        CountDownLatch first = new CountDownLatch(1);
+        enqueue(throttled, first);
+        assertTrue(first.await(5, TimeUnit.SECONDS));
+        // more delayed calls than the shared dispatcher has slots
+        CountDownLatch delayed = new CountDownLatch(1);
+        for (int i = 0; i < 3; i++) {
+            enqueue(throttled, delayed);
+        }
+
+        CountDownLatch unthrottled = new CountDownLatch(1);
+        enqueue(other, unthrottled);
+        assertTrue(unthrottled.await(5, TimeUnit.SECONDS));
+        assertFalse(delayed.await(0, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void enqueueDoesDelayCallsUntilPermitIsDue() throws Exception {
+        DeskClient client = factory.create(new DeskClientBuilder("one.desk.com", "token")
+                .rateLimit(2, 400, TimeUnit.MILLISECONDS));
+        CountDownLatch done = new CountDownLatch(4);
+        long start = System.nanoTime();
+        for (int i = 0; i < 4; i++) {
+            enqueue(client, done);
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 300);
+    }
+
+    @Test
+    public void enqueueDoesFailCanceledDelayedCall() throws Exception {
+        DeskClient client = factory.create(new DeskClientBuilder("one.desk.com", "token")
+                .rateLimit(1, 200, TimeUnit.MILLISECONDS));
+        enqueue(client, new CountDownLatch(1));
+        Call<User> call = client.users().getUser(1);
+        final CountDownLatch failed = new CountDownLatch(1);
+        call.enqueue(new Callback<User>() {
+            @Override
+            public void onResponse(Call<User> call, retrofit2.Response<User> response) {
+            }
+
+            @Override
+            public void onFailure(Call<User> call, Throwable t) {
+                failed.countDown();
+            }
+        });
+        call.cancel();
+        assertTrue(call.isCanceled());
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+    }
+
+    private void enqueue(DeskClient client, final CountDownLatch done) {
+        Call<User> call = client.users().getUser(1);
+        calls.add(call);
+        call.enqueue(new Callback<User>() {
+            @Override
+            public void onResponse(Call<User> call, retrofit2.Response<User> response) {
+                assertEquals(200, response.code());
+                done.countDown();
+            }
+
+            @Override
+            public void onFailure(Call<User> call, Throwable t) {
+            }
+        });
+    }
+
+    private static Interceptor redirectTo(final int port) {
+        return new Interceptor() {
+            @Override
+            public Response intercept(Chain chain) throws IOException {
+                Request request = chain.request();
+                HttpUrl url = request.url().newBuilder().scheme("http").host("127.0.0.1").port(port).build();
+                return chain.proceed(request.newBuilder().url(url).build());
+            }
+        };
+    }
+}
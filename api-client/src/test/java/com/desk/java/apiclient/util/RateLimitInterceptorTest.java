@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Interceptor;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * <p>
+ *     Unit tests for {@link RateLimitInterceptor}
+ * </p>
+ */
+public class RateLimitInterceptorTest {
+
+    private static final Request REQUEST = new Request.Builder().url("https://test.desk.com/api/v2/cases").build();
+
+    @Test
+    public void interceptDoesConsumePermits() throws Exception {
+        RateLimitInterceptor limiter = new RateLimitInterceptor(5, 1, TimeUnit.HOURS);
+        Interceptor.Chain chain = chain(response(200).build());
+        limiter.intercept(chain);
+        limiter.intercept(chain);
+        assertEquals(3, limiter.getAvailablePermits());
+    }
+
+    @Test
+    public void interceptDoesThrottleWhenPermitsAreExhausted() throws Exception {
+        RateLimitInterceptor limiter = new RateLimitInterceptor(2, 200, TimeUnit.MILLISECONDS);
+        Interceptor.Chain chain = chain(response(200).build());
+        long start = System.nanoTime();
+        for (int i = 0; i < 4; i++) {
+            limiter.intercept(chain);
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 150);
+    }
+
+    @Test
+    public void interceptDoesFollowRemainingHeader() throws Exception {
+        RateLimitInterceptor limiter = new RateLimitInterceptor(60, 1, TimeUnit.MINUTES);
+        limiter.intercept(chain(response(200)
+                .header(RateLimitInterceptor.HEADER_LIMIT, "60")
+                .header(RateLimitInterceptor.HEADER_REMAINING, "10")
+                .header(RateLimitInterceptor.HEADER_RESET, "30")
+                .build()));
+        assertEquals(10, limiter.getAvailablePermits());
+    }
+
+    @Test
+    public void interceptDoesKeepConfiguredRateWhenServerWindowDiffers() throws Exception {
+        RateLimitInterceptor limiter = new RateLimitInterceptor(10, 1, TimeUnit.SECONDS);
+        limiter.intercept(chain(response(200)
+                .header(RateLimitInterceptor.HEADER_LIMIT, "60")
+                .header(RateLimitInterceptor.HEADER_REMAINING, "5")
+                .header(RateLimitInterceptor.HEADER_RESET, "60")
+                .build()));
+        Thread.sleep(300);
+        // 60 per minute must not become 60 per second locally
+        assertTrue(limiter.getAvailablePermits() <= 10);
+    }
+
+    @Test
+    public void interceptDoesBlockUntilResetWhenNoRequestsRemain() throws Exception {
+        RateLimitInterceptor limiter = new RateLimitInterceptor(60, 1, TimeUnit.MINUTES);
+        limiter.intercept(chain(response(429)
+                .header(RateLimitInterceptor.HEADER_REMAINING, "0")
+                .header(RateLimitInterceptor.HEADER_RESET, "1")
+                .build()));
+        assertEquals(0, limiter.getAvailablePermits());
+
+        long start = System.nanoTime();
+        limiter.intercept(chain(response(200).build()));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 900);
+    }
+
+    @Test
+    public void reserveDoesQueueBehindEarlierReservations() throws Exception {
+        RateLimitInterceptor limiter = new RateLimitInterceptor(1, 1, TimeUnit.HOURS);
+        assertEquals(0, limiter.reserve(get()));
+        long second = limiter.reserve(get());
+        long third = limiter.reserve(get());
+        assertTrue(second > TimeUnit.MINUTES.toNanos(59));
+        assertTrue(third > TimeUnit.MINUTES.toNanos(119));
+        assertEquals(0, limiter.getAvailablePermits());
+    }
+
+    @Test
+    public void interceptDoesNotWaitAgainForReservedRequest() throws Exception {
+        RateLimitInterceptor limiter = new RateLimitInterceptor(1, 1, TimeUnit.HOURS);
+        Request reserved = get();
+        limiter.reserve(get());
+        limiter.reserve(reserved);
+        Interceptor.Chain chain = mock(Interceptor.Chain.class);
+        // an interceptor rebuilding the request keeps its tag
+        Request rebuilt = reserved.newBuilder().header("X-Test", "1").build();
+        when(chain.request()).thenReturn(rebuilt);
+        when(chain.proceed(any(Request.class))).thenReturn(response(200).build());
+        long start = System.nanoTime();
+        limiter.intercept(chain);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+    }
+
+    private static Request get() {
+        return new Request.Builder().url("https://test.desk.com/api/v2/cases/1").build();
+    }
+
+    private static Response.Builder response(int code) {
+        return new Response.Builder().request(REQUEST).code(code).protocol(Protocol.HTTP_1_1);
+    }
+
+    private static Interceptor.Chain chain(Response response) throws Exception {
+        Interceptor.Chain chain = mock(Interceptor.Chain.class);
+        when(chain.request()).thenReturn(REQUEST);
+        when(chain.proceed(any(Request.class))).thenReturn(response);
+        return chain;
+    }
+}
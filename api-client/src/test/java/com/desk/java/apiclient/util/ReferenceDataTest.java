@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import com.desk.java.apiclient.DeskApiException;
+import com.desk.java.apiclient.DeskClient;
+import com.desk.java.apiclient.DeskClientBuilder;
+import com.desk.java.apiclient.model.Fields;
+import com.desk.java.apiclient.model.Link;
+import com.desk.java.apiclient.model.User;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * <p>
+ *     Unit tests for {@link ReferenceData}
+ * </p>
+ */
+public class ReferenceDataTest {
+
+    private static final MediaType JSON = MediaType.parse("application/json");
+
+    private FakeDesk desk;
+    private ExecutorService executor;
+    private DeskClient client;
+
+    @Before
+    public void setUp() {
+        desk = new FakeDesk();
+        executor = Executors.newFixedThreadPool(5);
+        client = DeskClient.create(new DeskClientBuilder("test.desk.com", "token")
+                .applicationInterceptors(Collections.<Interceptor>singletonList(desk))
+                .entityCache(new EntityCache()));
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void lookupsDoReturnNullBeforeRefresh() throws Exception {
+        ReferenceData data = client.referenceData(executor);
+        assertNull(data.getLabel(1));
+        assertEquals(0, data.getSnapshot().getLoadedAt());
+    }
+
+    @Test
+    public void refreshDoesIndexEveryList() throws Exception {
+        ReferenceData data = client.referenceData(executor);
+        ReferenceData.Snapshot snapshot = data.refresh();
+
+        assertEquals("Urgent", data.getLabel(11).getName());
+        assertEquals("Support", data.getGroup(21).getName());
+        assertEquals("Jane", data.getUser(31).getName());
+        assertEquals("Joe", data.getUser(32).getName());
+        assertEquals("Mine", data.getCaseFilter(41).getName());
+        assertEquals("Tier", data.getCustomField("tier").getLabel());
+        assertEquals(2, snapshot.getUsers().size());
+        assertTrue(snapshot.getLoadedAt() > 0);
+        assertSame(snapshot, data.getSnapshot());
+    }
+
+    @Test
+    public void refreshDoesPopulateEntityCache() throws Exception {
+        client.referenceData(executor).refresh();
+        assertNotNull(client.getEntityCache().get(User.class, 32));
+    }
+
+    @Test
+    public void refreshDoesRequestEveryFieldDespiteDefaultProjection() throws Exception {
+        DeskClient projected = DeskClient.create(new DeskClientBuilder("test.desk.com", "token")
+                .applicationInterceptors(Collections.<Interceptor>singletonList(desk))
+                .entityCache(new EntityCache())
+                .defaultFields("users", Fields.include("id"))
+                .defaultFields("groups", Fields.include("id"))
+                .defaultFields("labels", Fields.include("id")));
+        projected.referenceData(executor).refresh();
+
+        assertTrue(desk.projected.isEmpty());
+        assertEquals("Joe", projected.getEntityCache().get(User.class, 32).getName());
+    }
+
+    @Test
+    public void getUserDoesResolveLinks() throws Exception {
+        ReferenceData data = client.referenceData(executor);
+        data.refresh();
+        Link link = new Link();
+        link.setHref("/api/v2/users/31");
+        assertEquals("Jane", data.getUser(link).getName());
+        assertNull(data.getGroup((Link) null));
+    }
+
+    @Test
+    public void refreshDoesKeepSnapshotOnFailure() throws Exception {
+        ReferenceData data = client.referenceData(executor);
+        ReferenceData.Snapshot loaded = data.refresh();
+        desk.failing = true;
+        try {
+            data.refresh();
+            fail("expected a DeskApiException");
+        } catch (DeskApiException e) {
+            assertEquals(500, e.getCode());
+        }
+        assertSame(loaded, data.getSnapshot());
+        assertNotNull(data.getLastRefreshError());
+    }
+
+    /**
+     * An interceptor answering reference data requests without going to the network
+     */
+    private static class FakeDesk implements Interceptor {
+
+        volatile boolean failing;
+        final Set<String> projected = Collections.synchronizedSet(new HashSet<String>());
+
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Request request = chain.request();
+            String path = request.url().encodedPath();
+            String page = request.url().queryParameter("page");
+            if (request.url().queryParameter("fields") != null) {
+                projected.add(path);
+            }
+            String body;
+            if (failing) {
+                return response(request, 500, "{\"message\":\"oops\"}");
+            } else if (path.endsWith("/labels")) {
+                body = page("[{\"id\":11,\"name\":\"Urgent\"}]", null);
+            } else if (path.endsWith("/groups")) {
+                body = page("[{\"id\":21,\"name\":\"Support\"}]", null);
+            } else if (path.endsWith("/users") && "1".equals(page)) {
+                body = page("[{\"id\":31,\"name\":\"Jane\"}]", "/api/v2/users?page=2&per_page=1");
+            } else if (path.endsWith("/users")) {
+                body = page("[{\"id\":32,\"name\":\"Joe\"}]", null);
+            } else if (path.endsWith("/custom_fields")) {
+                body = page("[{\"name\":\"tier\",\"label\":\"Tier\"}]", null);
+            } else if (path.endsWith("/filters")) {
+                body = page("[{\"id\":41,\"name\":\"Mine\"}]", null);
+            } else {
+                return response(request, 404, "{\"message\":\"Resource Not Found\"}");
+            }
+            return response(request, 200, body);
+        }
+
+        private static String page(String entries, String next) {
+            String nextLink = next != null ? "{\"href\":\"" + next + "\",\"class\":\"page\"}" : "null";
+            return "{\"_links\":{\"next\":" + nextLink + "},\"_embedded\":{\"entries\":" + entries + "}}";
+        }
+
+        private static Response response(Request request, int code, String body) {
+            return new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(code)
+                    .body(ResponseBody.create(JSON, body))
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Interceptor;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * <p>
+ *     Unit tests for {@link RetryInterceptor}
+ * </p>
+ */
+public class RetryInterceptorTest {
+
+    private static final Request GET = new Request.Builder().url("https://test.desk.com/api/v2/cases/123").build();
+    private static final Request POST = new Request.Builder()
+            .url("https://test.desk.com/api/v2/cases")
+            .post(RequestBody.create(null, "{}"))
+            .build();
+
+    @Test
+    public void interceptDoesRetryServerErrors() throws Exception {
+        RetryInterceptor retrier = retrier(3);
+        Interceptor.Chain chain = chain(GET);
+        when(chain.proceed(any(Request.class))).thenReturn(response(GET, 503), response(GET, 502), response(GET, 200));
+        assertEquals(200, retrier.intercept(chain).code());
+        verify(chain, times(3)).proceed(GET);
+        assertEquals(2L, (long) retrier.getRetryCounts().get("GET /api/v2/cases/:id"));
+        assertEquals(2, retrier.getTotalRetries());
+    }
+
+    @Test
+    public void interceptDoesReturnLastResponseWhenAttemptsAreExhausted() throws Exception {
+        RetryInterceptor retrier = retrier(2);
+        Interceptor.Chain chain = chain(GET);
+        when(chain.proceed(any(Request.class))).thenReturn(response(GET, 500));
+        assertEquals(500, retrier.intercept(chain).code());
+        verify(chain, times(2)).proceed(GET);
+    }
+
+    @Test
+    public void interceptDoesNotRetryClientErrors() throws Exception {
+        RetryInterceptor retrier = retrier(3);
+        Interceptor.Chain chain = chain(GET);
+        when(chain.proceed(any(Request.class))).thenReturn(response(GET, 404));
+        assertEquals(404, retrier.intercept(chain).code());
+        verify(chain, times(1)).proceed(GET);
+        assertEquals(0, retrier.getTotalRetries());
+    }
+
+    @Test
+    public void interceptDoesRetryConnectionFailures() throws Exception {
+        RetryInterceptor retrier = retrier(3);
+        Interceptor.Chain chain = chain(GET);
+        when(chain.proceed(any(Request.class))).thenThrow(new IOException("reset")).thenReturn(response(GET, 200));
+        assertEquals(200, retrier.intercept(chain).code());
+        verify(chain, times(2)).proceed(GET);
+    }
+
+    @Test
+    public void interceptDoesRethrowLastConnectionFailure() throws Exception {
+        RetryInterceptor retrier = retrier(2);
+        Interceptor.Chain chain = chain(GET);
+        when(chain.proceed(any(Request.class))).thenThrow(new IOException("reset"));
+        try {
+            retrier.intercept(chain);
+            fail("expected an IOException");
+        } catch (IOException e) {
+            assertEquals("reset", e.getMessage());
+        }
+        verify(chain, times(2)).proceed(GET);
+    }
+
+    @Test
+    public void interceptDoesNotRetryPostByDefault() throws Exception {
+        RetryInterceptor retrier = retrier(3);
+        Interceptor.Chain chain = chain(POST);
+        when(chain.proceed(any(Request.class))).thenReturn(response(POST, 503), response(POST, 201));
+        assertEquals(503, retrier.intercept(chain).code());
+        verify(chain, times(1)).proceed(POST);
+    }
+
+    @Test
+    public void interceptDoesRetryPostWhenEnabled() throws Exception {
+        RetryInterceptor retrier = retrier(3).retryNonIdempotent(true);
+        Interceptor.Chain chain = chain(POST);
+        when(chain.proceed(any(Request.class))).thenReturn(response(POST, 503), response(POST, 201));
+        assertEquals(201, retrier.intercept(chain).code());
+        assertEquals(1L, (long) retrier.getRetryCounts().get("POST /api/v2/cases"));
+    }
+
+    @Test
+    public void interceptDoesHonorRetryAfter() throws Exception {
+        RetryInterceptor retrier = new RetryInterceptor(2).backoff(0, 2, TimeUnit.SECONDS);
+        Interceptor.Chain chain = chain(GET);
+        Response tooMany = response(GET, 429).newBuilder().header(RateLimitInterceptor.HEADER_RETRY_AFTER, "1").build();
+        when(chain.proceed(any(Request.class))).thenReturn(tooMany, response(GET, 200));
+        long start = System.nanoTime();
+        assertEquals(200, retrier.intercept(chain).code());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 900);
+    }
+
+    @Test
+    public void interceptDoesCapRetryAfterAtMaxDelay() throws Exception {
+        RetryInterceptor retrier = new RetryInterceptor(2).backoff(0, 50, TimeUnit.MILLISECONDS);
+        Interceptor.Chain chain = chain(GET);
+        Response tooMany = response(GET, 429).newBuilder().header(RateLimitInterceptor.HEADER_RETRY_AFTER, "3600").build();
+        when(chain.proceed(any(Request.class))).thenReturn(tooMany, response(GET, 200));
+        long start = System.nanoTime();
+        assertEquals(200, retrier.intercept(chain).code());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+    }
+
+    @Test
+    public void interceptDoesNotRetryCanceledCalls() throws Exception {
+        RetryInterceptor retrier = retrier(3);
+        Interceptor.Chain chain = chain(GET);
+        when(chain.proceed(any(Request.class))).thenThrow(new IOException("Canceled"));
+        try {
+            retrier.intercept(chain);
+            fail("expected an IOException");
+        } catch (IOException e) {
+            assertEquals("Canceled", e.getMessage());
+        }
+        verify(chain, times(1)).proceed(GET);
+        assertEquals(0, retrier.getTotalRetries());
+    }
+
+    @Test
+    public void retryAfterDoesFallBackToRateLimitReset() throws Exception {
+        Response tooMany = response(GET, 429).newBuilder().header(RateLimitInterceptor.HEADER_RESET, "7").build();
+        assertEquals(7000, RetryInterceptor.retryAfterMillis(tooMany));
+        assertEquals(-1, RetryInterceptor.retryAfterMillis(response(GET, 503)));
+    }
+
+    @Test
+    public void retryAfterDoesParseHttpDate() throws Exception {
+        Response unavailable = response(GET, 503).newBuilder()
+                .header(RateLimitInterceptor.HEADER_RETRY_AFTER, "Wed, 21 Oct 2015 07:28:00 GMT")
+                .build();
+        assertEquals(0, RetryInterceptor.retryAfterMillis(unavailable));
+    }
+
+    @Test
+    public void backoffDoesStayWithinCeiling() throws Exception {
+        RetryInterceptor retrier = new RetryInterceptor().backoff(100, 1000, TimeUnit.MILLISECONDS);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(retrier.backoffMillis(1) < 100);
+            assertTrue(retrier.backoffMillis(3) < 400);
+            assertTrue(retrier.backoffMillis(40) < 1000);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorDoesRejectZeroAttempts() throws Exception {
+        new RetryInterceptor(0);
+    }
+
+    private static RetryInterceptor retrier(int maxAttempts) {
+        return new RetryInterceptor(maxAttempts).backoff(0, 0, TimeUnit.MILLISECONDS);
+    }
+
+    private static Interceptor.Chain chain(Request request) {
+        Interceptor.Chain chain = mock(Interceptor.Chain.class);
+        when(chain.request()).thenReturn(request);
+        return chain;
+    }
+
+    private static Response response(Request request, int code) {
+        return new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .build();
+    }
+}
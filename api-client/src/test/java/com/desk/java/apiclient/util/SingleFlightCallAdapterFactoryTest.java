@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import com.desk.java.apiclient.model.User;
+import com.desk.java.apiclient.service.UserService;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *     Unit tests for {@link SingleFlightCallAdapterFactory}
+ * </p>
+ */
+public class SingleFlightCallAdapterFactoryTest {
+
+    private static final MediaType JSON = MediaType.parse("application/json");
+
+    private FakeCallFactory network;
+    private SingleFlightCallAdapterFactory factory;
+    private UserService service;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        network = new FakeCallFactory();
+        factory = new SingleFlightCallAdapterFactory();
+        service = new Retrofit.Builder()
+                .baseUrl("https://test.desk.com")
+                .callFactory(network)
+                .addConverterFactory(GsonConverterFactory.create(TestUtils.getDeskClientGson()))
+                .addCallAdapterFactory(factory)
+                .build()
+                .create(UserService.class);
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        network.gate.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void executeDoesShareInFlightRequest() throws Exception {
+        List<Future<Response<User>>> responses = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            responses.add(executor.submit(execute(service.getCurrentUser())));
+        }
+        Thread.sleep(200);
+        network.gate.countDown();
+
+        User user = responses.get(0).get(5, TimeUnit.SECONDS).body();
+        for (Future<Response<User>> response : responses) {
+            assertSame(user, response.get(5, TimeUnit.SECONDS).body());
+        }
+        assertEquals("Jane", user.getName());
+        assertEquals(1, network.calls.get());
+        assertEquals(0, factory.getInFlightCount());
+    }
+
+    @Test
+    public void executeDoesNotShareCompletedRequest() throws Exception {
+        network.gate.countDown();
+        service.getCurrentUser().execute();
+        service.getCurrentUser().execute();
+        assertEquals(2, network.calls.get());
+    }
+
+    @Test
+    public void executeDoesNotShareDifferentUrls() throws Exception {
+        Future<Response<User>> first = executor.submit(execute(service.getUser(1)));
+        Future<Response<User>> second = executor.submit(execute(service.getUser(2)));
+        Thread.sleep(200);
+        network.gate.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        assertEquals(2, network.calls.get());
+    }
+
+    @Test
+    public void executeDoesShareReadableErrorBody() throws Exception {
+        network.code = 404;
+        Future<Response<User>> first = executor.submit(execute(service.getCurrentUser()));
+        Future<Response<User>> second = executor.submit(execute(service.getCurrentUser()));
+        Thread.sleep(200);
+        network.gate.countDown();
+
+        assertEquals("{\"message\":\"Resource Not Found\"}", first.get(5, TimeUnit.SECONDS).errorBody().string());
+        assertEquals("{\"message\":\"Resource Not Found\"}", second.get(5, TimeUnit.SECONDS).errorBody().string());
+        assertEquals(1, network.calls.get());
+    }
+
+    @Test
+    public void enqueueDoesShareInFlightRequest() throws Exception {
+        final CountDownLatch done = new CountDownLatch(3);
+        final List<User> users = new ArrayList<>();
+        Callback<User> callback = new Callback<User>() {
+            @Override
+            public void onResponse(Call<User> call, Response<User> response) {
+                synchronized (users) {
+                    users.add(response.body());
+                }
+                done.countDown();
+            }
+
+            @Override
+            public void onFailure(Call<User> call, Throwable t) {
+                done.countDown();
+            }
+        };
+        for (int i = 0; i < 3; i++) {
+            service.getCurrentUser().enqueue(callback);
+        }
+        network.gate.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(3, users.size());
+        assertSame(users.get(0), users.get(1));
+        assertSame(users.get(0), users.get(2));
+        assertEquals(1, network.calls.get());
+    }
+
+    @Test
+    public void cloneDoesReturnUnexecutedCall() throws Exception {
+        network.gate.countDown();
+        Call<User> call = service.getCurrentUser();
+        call.execute();
+        assertTrue(call.isExecuted());
+        assertFalse(call.clone().isExecuted());
+    }
+
+    private static Callable<Response<User>> execute(final Call<User> call) {
+        return new Callable<Response<User>>() {
+            @Override
+            public Response<User> call() throws Exception {
+                return call.execute();
+            }
+        };
+    }
+
+    /**
+     * An {@link okhttp3.Call.Factory} whose calls block until the gate opens
+     */
+    private class FakeCallFactory implements okhttp3.Call.Factory {
+
+        final CountDownLatch gate = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+        volatile int code = 200;
+
+        @Override
+        public okhttp3.Call newCall(final Request request) {
+            return new okhttp3.Call() {
+                private boolean executed;
+                private boolean canceled;
+
+                @Override
+                public Request request() {
+                    return request;
+                }
+
+                @Override
+                public okhttp3.Response execute() throws IOException {
+                    executed = true;
+                    calls.incrementAndGet();
+                    try {
+                        gate.await();
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                    String body = code == 200
+                            ? "{\"id\":1,\"name\":\"Jane\"}"
+                            : "{\"message\":\"Resource Not Found\"}";
+                    return new okhttp3.Response.Builder()
+                            .request(request)
+                            .protocol(Protocol.HTTP_1_1)
+                            .code(code)
+                            .body(ResponseBody.create(JSON, body))
+                            .build();
+                }
+
+                @Override
+                public void enqueue(final okhttp3.Callback callback) {
+                    final okhttp3.Call call = this;
+                    executor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                callback.onResponse(call, execute());
+                            } catch (IOException e) {
+                                callback.onFailure(call, e);
+                            }
+                        }
+                    });
+                }
+
+                @Override
+                public void cancel() {
+                    canceled = true;
+                }
+
+                @Override
+                public boolean isExecuted() {
+                    return executed;
+                }
+
+                @Override
+                public boolean isCanceled() {
+                    return canceled;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2016, Salesforce.com, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ *
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ *
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *
+ *    Neither the name of Salesforce.com, Inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.desk.java.apiclient.util;
+
+import com.desk.java.apiclient.DeskApiException;
+import com.desk.java.apiclient.DeskClient;
+import com.desk.java.apiclient.DeskClientBuilder;
+import com.desk.java.apiclient.model.User;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * <p>
+ *     Unit tests for {@link StreamingPage}
+ * </p>
+ */
+public class StreamingPageTest {
+
+    private static final String PAGE = "{\"total_entries\":3,\"page\":1,"
+            + "\"_links\":{\"next\":{\"href\":\"/api/v2/users?page=2&per_page=2\",\"class\":\"page\"}},"
+            + "\"_embedded\":{\"entries\":[{\"id\":1,\"name\":\"Jane\"},{\"id\":2,\"name\":\"Joe\"}]}}";
+
+    @Test
+    public void forEachDoesReadEveryEntry() throws Exception {
+        final List<String> names = new ArrayList<>();
+        DeskClient client = client(200, PAGE);
+        StreamingPage<User> page = client.streamPage(client.users().getUsers(2, 1), User.class);
+        int count = page.forEach(new EntryHandler<User>() {
+            @Override
+            public void onEntry(User entry) {
+                names.add(entry.getName());
+            }
+        });
+        assertEquals(2, count);
+        assertEquals(2, names.size());
+        assertEquals("Joe", names.get(1));
+        assertEquals(3, page.getTotalEntries());
+        assertEquals(1, page.getPage());
+        assertEquals(2, page.getNextPage());
+    }
+
+    @Test
+    public void iteratorDoesReadLinksAfterEntries() throws Exception {
+        String body = "{\"_embedded\":{\"entries\":[{\"id\":1}],\"other\":[]},\"total_entries\":1,\"page\":1,"
+                + "\"_links\":{\"next\":null}}";
+        DeskClient client = client(200, body);
+        StreamingPage<User> page = client.streamPage(client.users().getUsers(1, 1), User.class);
+        assertEquals(-1, page.getTotalEntries());
+        assertTrue(page.hasNext());
+        assertEquals(1, page.next().getId());
+        assertFalse(page.hasNext());
+        assertEquals(1, page.getTotalEntries());
+        assertEquals(0, page.getNextPage());
+    }
+
+    @Test
+    public void iteratorDoesHandleMissingEntries() throws Exception {
+        DeskClient client = client(200, "{\"total_entries\":0,\"_embedded\":null}");
+        StreamingPage<User> page = client.streamPage(client.users().getUsers(1, 1), User.class);
+        assertFalse(page.hasNext());
+        assertEquals(0, page.getTotalEntries());
+        assertNull(page.getLinks());
+    }
+
+    @Test
+    public void closeDoesStopIteration() throws Exception {
+        DeskClient client = client(200, PAGE);
+        StreamingPage<User> page = client.streamPage(client.users().getUsers(2, 1), User.class);
+        page.next();
+        page.close();
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    public void openDoesThrowOnUnsuccessfulResponse() throws Exception {
+        DeskClient client = client(429, "{\"message\":\"Too Many Requests\"}");
+        try {
+            client.streamPage(client.users().getUsers(2, 1), User.class);
+            fail("expected a DeskApiException");
+        } catch (DeskApiException e) {
+            assertEquals(429, e.getCode());
+            assertTrue(e.getMessage().startsWith("Request failed with 429"));
+        }
+    }
+
+    private static DeskClient client(final int code, final String body) {
+        Interceptor fake = new Interceptor() {
+            @Override
+            public Response intercept(Chain chain) throws IOException {
+                return new Response.Builder()
+                        .request(chain.request())
+                        .protocol(Protocol.HTTP_1_1)
+                        .code(code)
+                        .body(ResponseBody.create(MediaType.parse("application/json"), body))
+                        .build();
+            }
+        };
+        return DeskClient.create(new DeskClientBuilder("test.desk.com", "token")
+                .applicationInterceptors(Collections.singletonList(fake)));
+    }
+}
@@ -26,7 +26,10 @@
 
 package com.desk.java.apiclient.util;
 
-import com.desk.java.apiclient.model.IOpportunityActivity;
+import com.desk.java.apiclient.model.ApiResponse;
+import com.desk.java.apiclient.model.Case;
+import com.desk.java.apiclient.model.Customer;
+import com.desk.java.apiclient.model.Message;
 import com.google.gson.FieldNamingPolicy;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -66,7 +69,12 @@ public class TestUtils {
     public static Gson getDeskClientGson() {
         return new GsonBuilder()
                 .registerTypeAdapter(Date.class, ISO8601DateAdapter.TYPE_ADAPTER)
-                .registerTypeAdapter(IOpportunityActivity.class, new OpportunityActivityAdapter())
+                .registerTypeAdapterFactory(new OpportunityActivityAdapterFactory())
+                .registerTypeAdapterFactory(new LinkTypeAdapterFactory())
+                .registerTypeAdapterFactory(ApiResponse.TYPE_ADAPTER_FACTORY)
+                .registerTypeAdapterFactory(Case.TYPE_ADAPTER_FACTORY)
+                .registerTypeAdapterFactory(Customer.TYPE_ADAPTER_FACTORY)
+                .registerTypeAdapterFactory(Message.TYPE_ADAPTER_FACTORY)
                 .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
                 .create();
     }
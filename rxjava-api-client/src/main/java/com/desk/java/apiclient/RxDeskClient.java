@@ -31,7 +31,9 @@ import org.jetbrains.annotations.NotNull;
 import retrofit2.CallAdapter.Factory;
 import retrofit2.adapter.rxjava.RxJavaCallAdapterFactory;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 /**
  * <p>
@@ -43,26 +45,26 @@ import java.util.Collections;
  */
 public class RxDeskClient extends DeskClient {
 
-    private RxUserService rxUserService;
-    private RxSiteService rxSiteService;
-    private RxLabelService rxLabelService;
-    private RxCustomFieldsService rxCustomFieldsService;
-    private RxGroupService rxGroupService;
-    private RxMacroService rxMacroService;
-    private RxOutboundMailboxService rxOutboundMailboxService;
-    private RxFilterService rxFilterService;
-    private RxCaseService rxCaseService;
-    private RxCompanyService rxCompanyService;
-    private RxCustomerService rxCustomerService;
-    private RxPermissionService rxPermissionService;
-    private RxTwitterUserService rxTwitterUserService;
-    private RxTopicService rxTopicService;
-    private RxArticleService rxArticleService;
-    private RxInboundMailboxService rxInboundMailboxService;
-    private RxOpportunityStageService rxOpportunityStageService;
-    private RxOpportunityService rxOpportunityService;
-    private RxTwitterAccountService rxTwitterAccountService;
-    private RxJobService rxJobService;
+    private final RxUserService rxUserService;
+    private final RxSiteService rxSiteService;
+    private final RxLabelService rxLabelService;
+    private final RxCustomFieldsService rxCustomFieldsService;
+    private final RxGroupService rxGroupService;
+    private final RxMacroService rxMacroService;
+    private final RxOutboundMailboxService rxOutboundMailboxService;
+    private final RxFilterService rxFilterService;
+    private final RxCaseService rxCaseService;
+    private final RxCompanyService rxCompanyService;
+    private final RxCustomerService rxCustomerService;
+    private final RxPermissionService rxPermissionService;
+    private final RxTwitterUserService rxTwitterUserService;
+    private final RxTopicService rxTopicService;
+    private final RxArticleService rxArticleService;
+    private final RxInboundMailboxService rxInboundMailboxService;
+    private final RxOpportunityStageService rxOpportunityStageService;
+    private final RxOpportunityService rxOpportunityService;
+    private final RxTwitterAccountService rxTwitterAccountService;
+    private final RxJobService rxJobService;
 
     /**
      * Creates a {@link RxDeskClient} using the builder provided and adds a {@link RxJavaCallAdapterFactory}.
@@ -80,165 +82,136 @@ public class RxDeskClient extends DeskClient {
 
     private RxDeskClient(DeskClientBuilder builder) {
         super(builder);
+        this.rxUserService = getRestAdapter().create(RxUserService.class);
+        this.rxSiteService = getRestAdapter().create(RxSiteService.class);
+        this.rxLabelService = getRestAdapter().create(RxLabelService.class);
+        this.rxCustomFieldsService = getRestAdapter().create(RxCustomFieldsService.class);
+        this.rxGroupService = getRestAdapter().create(RxGroupService.class);
+        this.rxMacroService = getRestAdapter().create(RxMacroService.class);
+        this.rxOutboundMailboxService = getRestAdapter().create(RxOutboundMailboxService.class);
+        this.rxFilterService = getRestAdapter().create(RxFilterService.class);
+        this.rxCaseService = getRestAdapter().create(RxCaseService.class);
+        this.rxCompanyService = getRestAdapter().create(RxCompanyService.class);
+        this.rxCustomerService = getRestAdapter().create(RxCustomerService.class);
+        this.rxPermissionService = getRestAdapter().create(RxPermissionService.class);
+        this.rxTwitterUserService = getRestAdapter().create(RxTwitterUserService.class);
+        this.rxTopicService = getRestAdapter().create(RxTopicService.class);
+        this.rxArticleService = getRestAdapter().create(RxArticleService.class);
+        this.rxInboundMailboxService = getRestAdapter().create(RxInboundMailboxService.class);
+        this.rxOpportunityStageService = getRestAdapter().create(RxOpportunityStageService.class);
+        this.rxOpportunityService = getRestAdapter().create(RxOpportunityService.class);
+        this.rxTwitterAccountService = getRestAdapter().create(RxTwitterAccountService.class);
+        this.rxJobService = getRestAdapter().create(RxJobService.class);
     }
 
     @NotNull
     public RxUserService usersRx() {
-        if (rxUserService == null) {
-            rxUserService = getRestAdapter().create(RxUserService.class);
-        }
         return rxUserService;
     }
 
     @NotNull
     public RxSiteService sitesRx() {
-        if (rxSiteService == null) {
-            rxSiteService = getRestAdapter().create(RxSiteService.class);
-        }
         return rxSiteService;
     }
 
     @NotNull
     public RxLabelService labelsRx() {
-        if (rxLabelService == null) {
-            rxLabelService = getRestAdapter().create(RxLabelService.class);
-        }
         return rxLabelService;
     }
 
     @NotNull
     public RxCustomFieldsService customFieldsRx() {
-        if (rxCustomFieldsService == null) {
-            rxCustomFieldsService = getRestAdapter().create(RxCustomFieldsService.class);
-        }
         return rxCustomFieldsService;
     }
 
     @NotNull
     public RxGroupService groupsRx() {
-        if (rxGroupService == null) {
-            rxGroupService = getRestAdapter().create(RxGroupService.class);
-        }
         return rxGroupService;
     }
 
     @NotNull
     public RxMacroService macrosRx() {
-        if (rxMacroService == null) {
-            rxMacroService = getRestAdapter().create(RxMacroService.class);
-        }
         return rxMacroService;
     }
 
     @NotNull
     public RxOutboundMailboxService outboundMailboxesRx() {
-        if (rxOutboundMailboxService == null) {
-            rxOutboundMailboxService = getRestAdapter().create(RxOutboundMailboxService.class);
-        }
         return rxOutboundMailboxService;
     }
 
     @NotNull
     public RxFilterService filtersRx() {
-        if (rxFilterService == null) {
-            rxFilterService = getRestAdapter().create(RxFilterService.class);
-        }
         return rxFilterService;
     }
 
     @NotNull
     public RxCaseService casesRx() {
-        if (rxCaseService == null) {
-            rxCaseService = getRestAdapter().create(RxCaseService.class);
-        }
         return rxCaseService;
     }
 
     @NotNull
     public RxCompanyService companiesRx() {
-        if (rxCompanyService == null) {
-            rxCompanyService = getRestAdapter().create(RxCompanyService.class);
-        }
         return rxCompanyService;
     }
 
     @NotNull
     public RxCustomerService customersRx() {
-        if (rxCustomerService == null) {
-            rxCustomerService = getRestAdapter().create(RxCustomerService.class);
-        }
         return rxCustomerService;
     }
 
     @NotNull
     public RxPermissionService permissionsRx() {
-        if (rxPermissionService == null) {
-            rxPermissionService = getRestAdapter().create(RxPermissionService.class);
-        }
         return rxPermissionService;
     }
 
     @NotNull
     public RxTwitterUserService twitterUsersRx() {
-        if (rxTwitterUserService == null) {
-            rxTwitterUserService = getRestAdapter().create(RxTwitterUserService.class);
-        }
         return rxTwitterUserService;
     }
 
     @NotNull
     public RxTopicService topicsRx() {
-        if (rxTopicService == null) {
-            rxTopicService = getRestAdapter().create(RxTopicService.class);
-        }
         return rxTopicService;
     }
 
     @NotNull
     public RxArticleService articlesRx() {
-        if (rxArticleService == null) {
-            rxArticleService = getRestAdapter().create(RxArticleService.class);
-        }
         return rxArticleService;
     }
 
     @NotNull
     public RxInboundMailboxService inboundMailboxesRx() {
-        if (rxInboundMailboxService == null) {
-            rxInboundMailboxService = getRestAdapter().create(RxInboundMailboxService.class);
-        }
         return rxInboundMailboxService;
     }
 
     @NotNull
     public RxOpportunityStageService opportunityStagesRx() {
-        if (rxOpportunityStageService == null) {
-            rxOpportunityStageService = getRestAdapter().create(RxOpportunityStageService.class);
-        }
         return rxOpportunityStageService;
     }
 
     @NotNull
     public RxOpportunityService opportunitiesRx() {
-        if (rxOpportunityService == null) {
-            rxOpportunityService = getRestAdapter().create(RxOpportunityService.class);
-        }
         return rxOpportunityService;
     }
 
     @NotNull
     public RxTwitterAccountService twitterAccountsRx() {
-        if (rxTwitterAccountService == null) {
-            rxTwitterAccountService = getRestAdapter().create(RxTwitterAccountService.class);
-        }
         return rxTwitterAccountService;
     }
 
     @NotNull
     public RxJobService jobsRx() {
-        if (rxJobService == null) {
-            rxJobService = getRestAdapter().create(RxJobService.class);
-        }
         return rxJobService;
     }
+
+    @NotNull
+    @Override
+    protected List<Object> services() {
+        List<Object> services = super.services();
+        services.addAll(Arrays.asList(usersRx(), sitesRx(), labelsRx(), customFieldsRx(), groupsRx(), macrosRx(),
+                outboundMailboxesRx(), filtersRx(), casesRx(), companiesRx(), customersRx(), permissionsRx(),
+                twitterUsersRx(), topicsRx(), articlesRx(), inboundMailboxesRx(), opportunityStagesRx(),
+                opportunitiesRx(), twitterAccountsRx(), jobsRx()));
+        return services;
+    }
 }